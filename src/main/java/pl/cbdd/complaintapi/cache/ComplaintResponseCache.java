@@ -0,0 +1,81 @@
+package pl.cbdd.complaintapi.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import pl.cbdd.complaintapi.config.ComplaintProperties;
+import pl.cbdd.complaintapi.dto.ComplaintResponse;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Size- and TTL-bounded read-through cache of single complaints served by {@code GET /api/v1/complaints/{id}}.
+ * Every write to a complaint evicts it; inside a transaction the eviction happens after commit, so a
+ * concurrent read cannot put the old row back. An eviction waits for a load of the same id in progress.
+ */
+@Component
+public class ComplaintResponseCache {
+
+    private final ComplaintProperties.Cache properties;
+    private final Cache<UUID, ComplaintResponse> cache;
+
+    public ComplaintResponseCache(ComplaintProperties complaintProperties) {
+        this.properties = complaintProperties.getCache();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxSize())
+                .expireAfterWrite(properties.getTtl())
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Returns the cached complaint or loads it; an exception thrown by {@code loader} is propagated and nothing is cached.
+     */
+    public ComplaintResponse get(UUID id, Function<UUID, ComplaintResponse> loader) {
+        if (!properties.isEnabled()) {
+            return loader.apply(id);
+        }
+        return cache.get(id, loader);
+    }
+
+    /**
+     * Returns the cached complaint without loading it, or {@code null}.
+     */
+    public ComplaintResponse getIfPresent(UUID id) {
+        return properties.isEnabled() ? cache.getIfPresent(id) : null;
+    }
+
+    public void evict(UUID id) {
+        evictAll(List.of(id));
+    }
+
+    public void evictAll(Collection<UUID> ids) {
+        if (!properties.isEnabled() || ids.isEmpty()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    cache.invalidateAll(ids);
+                }
+            });
+        } else {
+            cache.invalidateAll(ids);
+        }
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+}
@@ -0,0 +1,149 @@
+package pl.cbdd.complaintapi.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import pl.cbdd.complaintapi.config.GeoLocationProperties;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+
+import static pl.cbdd.complaintapi.service.GeoLocationService.FALLBACK_COUNTRY;
+import static pl.cbdd.complaintapi.service.GeoLocationService.UNKNOWN_COUNTRY;
+
+/**
+ * Size-bounded IP to country cache placed in front of the external GeoLocation API.
+ * "Unknown" answers are cached with a shorter TTL, fallback answers are never cached.
+ */
+@Slf4j
+@Component
+public class GeoLocationCache {
+
+    private final GeoLocationProperties.Cache properties;
+    private final Cache<String, String> cache;
+
+    public GeoLocationCache(GeoLocationProperties geoLocationProperties) {
+        this.properties = geoLocationProperties.getCache();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxSize())
+                .expireAfter(new CountryExpiry(properties.getTtl(), properties.getNegativeTtl()))
+                .recordStats()
+                .build();
+    }
+
+    public String get(String ip) {
+        if (!properties.isEnabled() || ip == null) {
+            return null;
+        }
+        return cache.getIfPresent(ip);
+    }
+
+    public void put(String ip, String country) {
+        if (!properties.isEnabled() || ip == null || country == null || FALLBACK_COUNTRY.equals(country)) {
+            return;
+        }
+        cache.put(ip, country);
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    @PostConstruct
+    void loadSnapshot() {
+        Path snapshot = snapshotPath();
+        if (snapshot == null || !Files.isReadable(snapshot)) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        int loaded = 0;
+        try (BufferedReader reader = Files.newBufferedReader(snapshot, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] fields = line.split("\t");
+                if (fields.length != 3) {
+                    continue;
+                }
+                long remainingMillis = Long.parseLong(fields[2]) - now;
+                if (remainingMillis > 0) {
+                    cache.policy().expireVariably().ifPresent(policy ->
+                            policy.put(fields[0], fields[1], Duration.ofMillis(remainingMillis)));
+                    loaded++;
+                }
+            }
+            log.info("Loaded {} geolocation cache entries from {}", loaded, snapshot);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not load geolocation cache snapshot from {}", snapshot, e);
+        }
+    }
+
+    @PreDestroy
+    void saveSnapshot() {
+        log.info("Geolocation cache stats on shutdown: {}", cache.stats());
+        Path snapshot = snapshotPath();
+        if (snapshot == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        try {
+            Path parent = snapshot.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            Path tmp = Files.createTempFile(parent, snapshot.getFileName().toString(), ".tmp");
+            try (BufferedWriter writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                for (var entry : cache.asMap().entrySet()) {
+                    long remainingMillis = cache.policy().expireVariably()
+                            .flatMap(policy -> policy.getExpiresAfter(entry.getKey()))
+                            .map(Duration::toMillis)
+                            .orElse(0L);
+                    if (remainingMillis > 0) {
+                        writer.write(entry.getKey() + "\t" + entry.getValue() + "\t" + (now + remainingMillis));
+                        writer.newLine();
+                    }
+                }
+            }
+            Files.move(tmp, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Could not write geolocation cache snapshot to {}", snapshot, e);
+        }
+    }
+
+    private Path snapshotPath() {
+        return properties.isEnabled() && StringUtils.hasText(properties.getSnapshotFile())
+                ? Path.of(properties.getSnapshotFile())
+                : null;
+    }
+
+    private record CountryExpiry(Duration ttl, Duration negativeTtl) implements Expiry<String, String> {
+
+        @Override
+        public long expireAfterCreate(String ip, String country, long currentTime) {
+            return (UNKNOWN_COUNTRY.equals(country) ? negativeTtl : ttl).toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(String ip, String country, long currentTime, long currentDuration) {
+            return expireAfterCreate(ip, country, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String ip, String country, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package pl.cbdd.complaintapi.client;
+
+import jakarta.annotation.PreDestroy;
+import org.apache.hc.client5.http.classic.methods.HttpUriRequestBase;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.http.ClassicHttpRequest;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.pool.PoolConcurrencyPolicy;
+import org.apache.hc.core5.pool.PoolStats;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import pl.cbdd.complaintapi.config.GeoLocationProperties;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HTTP client for the external GeoLocation API. Connections are kept alive in a bounded pool, and every
+ * call is limited by connect, read and pool timeouts plus a hard deadline after which it is aborted, so a
+ * stalled or trickling connection cannot hold a request thread longer than {@code geolocation.http.total-timeout}.
+ * The deadline is cancelled as soon as the response is closed, so finished calls do not pile up in its scheduler.
+ * Failures are not retried here; retries and the circuit breaker stay in {@link pl.cbdd.complaintapi.service.GeoLocationService}.
+ */
+@Component
+public class GeoLocationHttpClient {
+
+    private final PoolingHttpClientConnectionManager connectionManager;
+    private final CloseableHttpClient httpClient;
+    private final ScheduledThreadPoolExecutor deadlines;
+    private final ClientHttpRequestFactory requestFactory;
+
+    public GeoLocationHttpClient(GeoLocationProperties geoLocationProperties) {
+        GeoLocationProperties.Http properties = geoLocationProperties.getHttp();
+        this.connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(properties.getMaxConnections())
+                .setMaxConnPerRoute(properties.getMaxConnections())
+                .setPoolConcurrencyPolicy(PoolConcurrencyPolicy.STRICT)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(timeout(properties.getConnectTimeout()))
+                        .setSocketTimeout(timeout(properties.getReadTimeout()))
+                        .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+                        .build())
+                .build();
+        this.httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(timeout(properties.getPoolTimeout()))
+                        .setResponseTimeout(timeout(properties.getReadTimeout()))
+                        .build())
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.ofMilliseconds(properties.getIdleTimeout().toMillis()))
+                .disableAutomaticRetries()
+                .build();
+        this.deadlines = new ScheduledThreadPoolExecutor(1, Thread.ofPlatform().name("geolocation-deadline").daemon().factory());
+        this.deadlines.setRemoveOnCancelPolicy(true);
+        long totalTimeoutMillis = properties.getTotalTimeout().toMillis();
+        ThreadLocal<HttpUriRequestBase> created = new ThreadLocal<>();
+        this.requestFactory = new HttpComponentsClientHttpRequestFactory(httpClient) {
+            @Override
+            public ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod) throws IOException {
+                try {
+                    ClientHttpRequest request = super.createRequest(uri, httpMethod);
+                    HttpUriRequestBase abortable = created.get();
+                    return abortable != null ? new DeadlineRequest(request, abortable, totalTimeoutMillis) : request;
+                } finally {
+                    created.remove();
+                }
+            }
+
+            @Override
+            protected void postProcessHttpRequest(ClassicHttpRequest request) {
+                // Called from super.createRequest on the same thread, which hides the request it builds.
+                if (request instanceof HttpUriRequestBase abortable) {
+                    created.set(abortable);
+                }
+            }
+        };
+    }
+
+    public ClientHttpRequestFactory requestFactory() {
+        return requestFactory;
+    }
+
+    /**
+     * Connections currently used by a call.
+     */
+    public int leased() {
+        return stats().getLeased();
+    }
+
+    /**
+     * Calls waiting for a free connection.
+     */
+    public int pending() {
+        return stats().getPending();
+    }
+
+    /**
+     * Open connections available for reuse.
+     */
+    public int idle() {
+        return stats().getAvailable();
+    }
+
+    public int maxConnections() {
+        return stats().getMax();
+    }
+
+    /**
+     * Deadlines of calls still in progress.
+     */
+    int scheduledDeadlines() {
+        return deadlines.getQueue().size();
+    }
+
+    private PoolStats stats() {
+        return connectionManager.getTotalStats();
+    }
+
+    @PreDestroy
+    void close() {
+        deadlines.shutdownNow();
+        httpClient.close(CloseMode.GRACEFUL);
+    }
+
+    private static Timeout timeout(Duration duration) {
+        return Timeout.ofMilliseconds(duration.toMillis());
+    }
+
+    /**
+     * Starts the deadline when the request is sent. It runs until the response is closed, because a trickling
+     * body is read after {@link #execute()} returns.
+     */
+    private final class DeadlineRequest implements ClientHttpRequest {
+
+        private final ClientHttpRequest request;
+        private final HttpUriRequestBase abortable;
+        private final long totalTimeoutMillis;
+
+        private DeadlineRequest(ClientHttpRequest request, HttpUriRequestBase abortable, long totalTimeoutMillis) {
+            this.request = request;
+            this.abortable = abortable;
+            this.totalTimeoutMillis = totalTimeoutMillis;
+        }
+
+        @Override
+        public ClientHttpResponse execute() throws IOException {
+            ScheduledFuture<?> deadline = deadlines.schedule(abortable::cancel, totalTimeoutMillis, TimeUnit.MILLISECONDS);
+            try {
+                return new DeadlineResponse(request.execute(), deadline);
+            } catch (IOException | RuntimeException e) {
+                deadline.cancel(false);
+                throw e;
+            }
+        }
+
+        @Override
+        public OutputStream getBody() throws IOException {
+            return request.getBody();
+        }
+
+        @Override
+        public HttpMethod getMethod() {
+            return request.getMethod();
+        }
+
+        @Override
+        public URI getURI() {
+            return request.getURI();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return request.getHeaders();
+        }
+    }
+
+    private record DeadlineResponse(ClientHttpResponse response, ScheduledFuture<?> deadline) implements ClientHttpResponse {
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return response.getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return response.getStatusText();
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            return response.getBody();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return response.getHeaders();
+        }
+
+        @Override
+        public void close() {
+            try {
+                response.close();
+            } finally {
+                deadline.cancel(false);
+            }
+        }
+    }
+}
@@ -1,24 +1,23 @@
 package pl.cbdd.complaintapi.config;
 
 import lombok.RequiredArgsConstructor;
-import org.modelmapper.ModelMapper;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.web.client.RestTemplate;
+import pl.cbdd.complaintapi.client.GeoLocationHttpClient;
 
 @Configuration
 @EnableJpaAuditing
+@EnableScheduling
+@EnableConfigurationProperties({GeoLocationProperties.class, ComplaintProperties.class})
 @RequiredArgsConstructor
 public class AppConfig {
 
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
-    }
-
-    @Bean
-    public ModelMapper modelMapper() {
-        return new ModelMapper();
+    public RestTemplate restTemplate(GeoLocationHttpClient geoLocationHttpClient) {
+        return new RestTemplate(geoLocationHttpClient.requestFactory());
     }
 }
@@ -0,0 +1,192 @@
+package pl.cbdd.complaintapi.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "complaints")
+public class ComplaintProperties {
+
+    private ReportBuffer reportBuffer = new ReportBuffer();
+    private Batch batch = new Batch();
+    private Export export = new Export();
+    private Search search = new Search();
+    private Cache cache = new Cache();
+    private Stats stats = new Stats();
+    private Similarity similarity = new Similarity();
+    private RateLimit rateLimit = new RateLimit();
+    private ConcurrencyLimit concurrencyLimit = new ConcurrencyLimit();
+
+    @Getter
+    @Setter
+    public static class ReportBuffer {
+        /**
+         * When enabled, repeat reports of known complaints are counted in memory and written in batches.
+         */
+        private boolean enabled = false;
+        private Duration flushInterval = Duration.ofSeconds(1);
+        /**
+         * Buffered complaints not reported again for this long are dropped after their last flush.
+         */
+        private Duration idleTimeout = Duration.ofMinutes(1);
+        private int maxKeys = 10_000;
+    }
+
+    @Getter
+    @Setter
+    public static class Batch {
+        /**
+         * Complaints written per JDBC batch and transaction.
+         */
+        private int chunkSize = 500;
+        /**
+         * Larger batches are rejected (JSON) or cut off (NDJSON).
+         */
+        private int maxItems = 10_000;
+        /**
+         * Distinct item IPs one batch may carry. Items with further IPs fail, so a batch cannot trigger an
+         * unbounded number of GeoLocation lookups.
+         */
+        private int maxDistinctIps = 100;
+    }
+
+    @Getter
+    @Setter
+    public static class Export {
+        /**
+         * Rows fetched per database round trip, and written before each flush to the client.
+         */
+        private int fetchSize = 1000;
+        /**
+         * Exports streamed at once. Each holds a database connection for the whole download.
+         */
+        private int maxConcurrent = 4;
+    }
+
+    @Getter
+    @Setter
+    public static class Search {
+        /**
+         * Matches ranked per PostgreSQL search, the most recent ones. Ranking reads each match's
+         * {@code tsvector}, so this bounds the cost of a query however common its words are.
+         */
+        private int maxCandidates = 1000;
+    }
+
+    @Getter
+    @Setter
+    public static class Cache {
+        /**
+         * When enabled, single complaints are served from memory until they are written or expire.
+         */
+        private boolean enabled = true;
+        private long maxSize = 10_000;
+        private Duration ttl = Duration.ofMinutes(5);
+    }
+
+    @Getter
+    @Setter
+    public static class Stats {
+        private boolean enabled = true;
+        /**
+         * How many of the most reported products are tracked.
+         */
+        private int topProducts = 20;
+        /**
+         * Counters per row of the product count-min sketch; estimates are at most about
+         * {@code 2.7 / sketch-width} of all reports too high.
+         */
+        private int sketchWidth = 65_536;
+        private int sketchDepth = 4;
+        private int rebuildFetchSize = 10_000;
+    }
+
+    @Getter
+    @Setter
+    public static class Similarity {
+        private boolean enabled = false;
+        /**
+         * When enabled, a new complaint that is a near-duplicate of an earlier one of the same product is
+         * stored with that complaint's cluster id.
+         */
+        private boolean attachOnIngest = false;
+        /**
+         * Estimated Jaccard similarity of the word pairs of two complaints from which they are near-duplicates.
+         */
+        private double threshold = 0.5;
+        /**
+         * MinHash signatures have {@code bands * rows} values. Complaints sharing all values of any band are
+         * compared; with 16 bands of 4 rows, pairs at 0.5 similarity are found with a probability of about 64%
+         * and pairs at 0.7 with about 99%.
+         */
+        private int bands = 16;
+        private int rows = 4;
+        /**
+         * Complaints kept in the index. Each takes about 2.3 KB with 16 bands of 4 rows, so the default
+         * needs roughly 46 MB of heap. Beyond it, new complaints are not checked for near-duplicates.
+         */
+        private int maxComplaints = 20_000;
+        /**
+         * New and changed complaints waiting to be indexed. When full, further ones are not indexed.
+         */
+        private int queueCapacity = 10_000;
+    }
+
+    @Getter
+    @Setter
+    public static class RateLimit {
+        private boolean enabled = true;
+        private Limit perIp = new Limit(10, 20);
+        private Limit perReporter = new Limit(1, 5);
+        /**
+         * Buckets tracked per dimension. Beyond this, new keys are not limited until idle buckets are evicted.
+         */
+        private int maxKeys = 100_000;
+        /**
+         * How often buckets that have refilled completely are evicted.
+         */
+        private Duration evictionInterval = Duration.ofSeconds(30);
+
+        @Getter
+        @Setter
+        @NoArgsConstructor
+        @AllArgsConstructor
+        public static class Limit {
+            /**
+             * Sustained rate at which permits are refilled.
+             */
+            private double permitsPerSecond;
+            /**
+             * Permits available at once after being idle.
+             */
+            private int burst;
+        }
+    }
+
+    @Getter
+    @Setter
+    public static class ConcurrencyLimit {
+        private boolean enabled = true;
+        private int initialLimit = 50;
+        private int minLimit = 10;
+        private int maxLimit = 500;
+        /**
+         * How many times slower than their long-term average requests may get before the limit shrinks.
+         */
+        private double tolerance = 2.0;
+        /**
+         * Share of the limit reads (GET, HEAD) may use. Lowering one share keeps the rest of the limit for the other.
+         */
+        private double readShare = 1.0;
+        /**
+         * Share of the limit writes may use.
+         */
+        private double writeShare = 0.8;
+    }
+}
@@ -0,0 +1,104 @@
+package pl.cbdd.complaintapi.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "geolocation")
+public class GeoLocationProperties {
+
+    private Provider provider = Provider.HTTP;
+    private Cache cache = new Cache();
+    private Offline offline = new Offline();
+    private Enrichment enrichment = new Enrichment();
+    private Http http = new Http();
+
+    public enum Provider {
+        /**
+         * Every lookup goes to the external GeoLocation API.
+         */
+        HTTP,
+        /**
+         * Lookups are answered from a local GeoIP range file, the external API is only called on a miss.
+         */
+        OFFLINE
+    }
+
+    @Getter
+    @Setter
+    public static class Cache {
+        private boolean enabled = true;
+        private long maxSize = 10_000;
+        private Duration ttl = Duration.ofHours(24);
+        /**
+         * How long an "Unknown" answer is kept, so unresolvable IPs do not hit the external API on every request.
+         */
+        private Duration negativeTtl = Duration.ofMinutes(10);
+        /**
+         * Optional file the cache is written to on shutdown and reloaded from on startup.
+         */
+        private String snapshotFile;
+    }
+
+    @Getter
+    @Setter
+    public static class Offline {
+        /**
+         * CSV ({@code start_ip,end_ip,country}) or compiled GeoIP range file.
+         */
+        private String rangeFile;
+        /**
+         * How often the range file is checked for changes and hot-reloaded.
+         */
+        private Duration reloadInterval = Duration.ofSeconds(30);
+    }
+
+    @Getter
+    @Setter
+    public static class Enrichment {
+        /**
+         * When enabled, complaints are saved with a pending country that is resolved in the background.
+         */
+        private boolean async = false;
+        private int workers = 2;
+        private int batchSize = 100;
+        /**
+         * Pending lookups beyond this are resolved on the request thread instead of being queued.
+         */
+        private int queueCapacity = 10_000;
+    }
+
+    @Getter
+    @Setter
+    public static class Http {
+        /**
+         * Base URL of the GeoLocation API, overridden to point at a stub in load tests.
+         */
+        private String baseUrl = "http://ip-api.com";
+        /**
+         * Persistent connections kept open to the GeoLocation API.
+         */
+        private int maxConnections = 50;
+        private Duration connectTimeout = Duration.ofMillis(500);
+        /**
+         * Maximum time without data while waiting for or reading the response.
+         */
+        private Duration readTimeout = Duration.ofSeconds(1);
+        /**
+         * How long a lookup waits for a free pooled connection.
+         */
+        private Duration poolTimeout = Duration.ofMillis(200);
+        /**
+         * Hard deadline for one call, including pool wait, connect and reading the response. Retries get a new deadline.
+         */
+        private Duration totalTimeout = Duration.ofSeconds(2);
+        /**
+         * Pooled connections idle for longer than this are closed.
+         */
+        private Duration idleTimeout = Duration.ofSeconds(30);
+    }
+}
@@ -0,0 +1,40 @@
+package pl.cbdd.complaintapi.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.format.FormatterRegistry;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import pl.cbdd.complaintapi.overload.ConcurrencyLimitInterceptor;
+import pl.cbdd.complaintapi.overload.ExportLimitInterceptor;
+
+@Configuration
+@RequiredArgsConstructor
+public class WebConfig implements WebMvcConfigurer {
+
+    private final ConcurrencyLimitInterceptor concurrencyLimitInterceptor;
+    private final ExportLimitInterceptor exportLimitInterceptor;
+
+    /**
+     * Binds request parameters the way configuration properties are bound, e.g. {@code ?format=csv}
+     * to an enum constant regardless of case.
+     */
+    @Override
+    public void addFormatters(FormatterRegistry registry) {
+        ApplicationConversionService.addApplicationConverters(registry);
+    }
+
+    /**
+     * Exports stream for as long as the client reads, so they would hold permits of the adaptive limit and
+     * skew the latency it adapts to. They are bounded by their own fixed limit instead.
+     */
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(concurrencyLimitInterceptor)
+                .addPathPatterns("/api/v1/**")
+                .excludePathPatterns("/api/v1/complaints/export");
+        registry.addInterceptor(exportLimitInterceptor)
+                .addPathPatterns("/api/v1/complaints/export");
+    }
+}
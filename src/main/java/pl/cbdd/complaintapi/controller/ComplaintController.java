@@ -6,24 +6,52 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import pl.cbdd.complaintapi.dto.ComplaintBatchItem;
+import pl.cbdd.complaintapi.dto.ComplaintBatchResponse;
+import pl.cbdd.complaintapi.dto.ComplaintClusterResponse;
 import pl.cbdd.complaintapi.dto.ComplaintRequest;
 import pl.cbdd.complaintapi.dto.ComplaintResponse;
-
+import pl.cbdd.complaintapi.dto.ComplaintStatsResponse;
+import pl.cbdd.complaintapi.dto.ComplaintWindowResponse;
+import pl.cbdd.complaintapi.dto.ExportFilter;
+import pl.cbdd.complaintapi.dto.ExportFormat;
+import pl.cbdd.complaintapi.dto.SimilarComplaintResponse;
+import pl.cbdd.complaintapi.dto.TotalCountMode;
 import pl.cbdd.complaintapi.dto.UpdateComplaintRequest;
 import pl.cbdd.complaintapi.errorhandling.ErrorResponse;
+import pl.cbdd.complaintapi.ratelimit.ComplaintRateLimiter;
+import pl.cbdd.complaintapi.service.ComplaintBatchService;
+import pl.cbdd.complaintapi.service.ComplaintClusterService;
+import pl.cbdd.complaintapi.service.ComplaintExportService;
+import pl.cbdd.complaintapi.service.ComplaintSearchService;
 import pl.cbdd.complaintapi.service.ComplaintService;
-import pl.cbdd.complaintapi.service.GeoLocationService;
+import pl.cbdd.complaintapi.service.CountryEnrichmentService;
+import pl.cbdd.complaintapi.service.CountryResolver;
+import pl.cbdd.complaintapi.stats.ComplaintStatistics;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api/v1/complaints")
@@ -31,36 +59,88 @@ import java.util.UUID;
 public class ComplaintController {
 
     private final ComplaintService complaintService;
-    private final GeoLocationService geoLocationService;
+    private final CountryResolver countryResolver;
+    private final CountryEnrichmentService countryEnrichmentService;
+    private final ComplaintBatchService complaintBatchService;
+    private final ComplaintExportService complaintExportService;
+    private final ComplaintStatistics complaintStatistics;
+    private final ComplaintSearchService complaintSearchService;
+    private final ComplaintClusterService complaintClusterService;
+    private final ComplaintRateLimiter complaintRateLimiter;
+
+    private static final int MAX_SCROLL_SIZE = 1000;
+    private static final int MAX_SIMILAR_SIZE = 100;
 
     @Operation(summary = "Add a new complaint")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Complaint added successfully", content = @Content(schema = @Schema(implementation = ComplaintResponse.class))),
             @ApiResponse(responseCode = "400", description = "Invalid request format", content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+            @ApiResponse(responseCode = "429", description = "Too many complaints from this client IP or reporter, retry after the Retry-After header", content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
             @ApiResponse(responseCode = "500", description = "Internal server error", content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
             @ApiResponse(responseCode = "502", description = "Bad Gateway - Error in external GeoLocation service", content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
     })
     @PostMapping
     public ResponseEntity<ComplaintResponse> addComplaint(@RequestBody ComplaintRequest complaintRequest, HttpServletRequest request) {
 
-        String clientIp = Optional.ofNullable(request.getHeader("X-Forwarded-For"))
-                .orElse(request.getRemoteAddr());
-        complaintRequest.setCountry(geoLocationService.getCountryByIp(clientIp));
+        String clientIp = clientIp(request);
+        complaintRateLimiter.acquire(clientIp, complaintRequest.getReporter());
 
-        // complaintRequest.setCountry(geoLocationService.getCountryByIp(request.getRemoteAddr()));
+        if (countryEnrichmentService.isEnabled()) {
+            complaintRequest.setCountry(CountryEnrichmentService.PENDING_COUNTRY);
+            ComplaintResponse complaintResponse = complaintService.addComplaint(complaintRequest);
+            countryEnrichmentService.enqueue(complaintResponse, clientIp);
+            return ResponseEntity.ok().body(complaintResponse);
+        }
+
+        complaintRequest.setCountry(countryResolver.resolveCountry(clientIp));
+
+        // complaintRequest.setCountry(countryResolver.resolveCountry(request.getRemoteAddr()));
 
         return ResponseEntity.ok().body(complaintService.addComplaint(complaintRequest));
     }
 
+    @Operation(summary = "Add complaints in bulk", description = "Accepts a JSON array or NDJSON (one complaint per line). "
+            + "Each item may carry the original reporter's IP; otherwise the caller's IP is used.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Batch processed, see the per-item results", content = @Content(schema = @Schema(implementation = ComplaintBatchResponse.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid request format or batch too large", content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+            @ApiResponse(responseCode = "429", description = "Too many requests from this client IP, retry after the Retry-After header", content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+            @ApiResponse(responseCode = "500", description = "Internal server error", content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
+    })
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ComplaintBatchResponse> addComplaints(@RequestBody List<ComplaintBatchItem> items, HttpServletRequest request) {
+        String clientIp = clientIp(request);
+        complaintRateLimiter.acquire(clientIp, null);
+        return ResponseEntity.ok().body(complaintBatchService.ingest(items, clientIp));
+    }
+
+    @Operation(summary = "Add complaints in bulk from an NDJSON stream")
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<ComplaintBatchResponse> addComplaintsNdjson(HttpServletRequest request) throws IOException {
+        String clientIp = clientIp(request);
+        complaintRateLimiter.acquire(clientIp, null);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(request.getInputStream(), StandardCharsets.UTF_8));
+        return ResponseEntity.ok().body(complaintBatchService.ingestNdjson(reader, clientIp));
+    }
+
     @Operation(summary = "Get a complaint by ID")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Complaint retrieved successfully", content = @Content(schema = @Schema(implementation = ComplaintResponse.class))),
+            @ApiResponse(responseCode = "304", description = "Complaint unchanged since the ETag in If-None-Match"),
             @ApiResponse(responseCode = "404", description = "Complaint not found", content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
             @ApiResponse(responseCode = "500", description = "Internal server error", content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
     })
     @GetMapping("/{id}")
-    public ResponseEntity<ComplaintResponse> getComplaint(@PathVariable UUID id) {
-        return ResponseEntity.ok().body(complaintService.getComplaint(id));
+    public ResponseEntity<ComplaintResponse> getComplaint(@PathVariable UUID id, WebRequest webRequest) {
+        // A revalidation only needs the version, so the complaint itself is not loaded when it is unchanged.
+        if (webRequest.getHeader(HttpHeaders.IF_NONE_MATCH) != null) {
+            Optional<Long> version = complaintService.findComplaintVersion(id);
+            if (version.isPresent() && webRequest.checkNotModified(ComplaintETags.of(id, version.get()))) {
+                return null;
+            }
+        }
+        ComplaintResponse complaint = complaintService.getComplaint(id);
+        return ResponseEntity.ok().eTag(ComplaintETags.of(complaint)).body(complaint);
     }
 
     @Operation(summary = "Get all complaints")
@@ -69,8 +149,117 @@ public class ComplaintController {
             @ApiResponse(responseCode = "500", description = "Internal server error", content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
     })
     @GetMapping("/all")
-    public ResponseEntity<Page<ComplaintResponse>> getAll(@PageableDefault(sort = "id", direction = Sort.Direction.DESC) Pageable pageable) {
-        return ResponseEntity.ok().body(complaintService.getAllComplaints(pageable));
+    public ResponseEntity<Slice<ComplaintResponse>> getAll(@PageableDefault(sort = "id", direction = Sort.Direction.DESC) Pageable pageable,
+                                                           @RequestParam(defaultValue = "exact") TotalCountMode total) {
+        Slice<ComplaintResponse> complaints = switch (total) {
+            case EXACT -> complaintService.getAllComplaints(pageable);
+            case ESTIMATED -> complaintService.getAllComplaintsWithEstimatedTotal(pageable);
+            case NONE -> complaintService.getComplaintsSlice(pageable);
+        };
+        Object totalElements = complaints instanceof Page<?> page ? page.getTotalElements() : null;
+        String eTag = ComplaintETags.ofListing(complaints.getContent(), complaints.hasNext(), totalElements);
+        return ResponseEntity.ok().eTag(eTag).body(complaints);
+    }
+
+    @Operation(summary = "Scroll through complaints, newest first, using a cursor")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Complaints retrieved successfully", content = @Content(schema = @Schema(implementation = ComplaintWindowResponse.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor", content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+            @ApiResponse(responseCode = "500", description = "Internal server error", content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
+    })
+    @GetMapping("/scroll")
+    public ResponseEntity<ComplaintWindowResponse> scroll(@RequestParam(required = false) String cursor,
+                                                          @RequestParam(defaultValue = "20") int size) {
+        int limit = Math.clamp(size, 1, MAX_SCROLL_SIZE);
+        ComplaintWindowResponse window = complaintService.scrollComplaints(cursor, limit);
+        String eTag = ComplaintETags.ofListing(window.getContent(), window.getNextCursor());
+        return ResponseEntity.ok().eTag(eTag).body(window);
+    }
+
+    @Operation(summary = "Search complaints by keyword", description = "Complaints whose content contains every word of 'q', "
+            + "most relevant first. Pass 'nextCursor' from the previous page as 'cursor' to continue.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Complaints retrieved successfully", content = @Content(schema = @Schema(implementation = ComplaintWindowResponse.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid query or cursor", content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+            @ApiResponse(responseCode = "500", description = "Internal server error", content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
+    })
+    @GetMapping("/search")
+    public ResponseEntity<ComplaintWindowResponse> search(@RequestParam(required = false) String q,
+                                                          @RequestParam(required = false) String productId,
+                                                          @RequestParam(required = false) String country,
+                                                          @RequestParam(required = false) String cursor,
+                                                          @RequestParam(defaultValue = "20") int size) {
+        int limit = Math.clamp(size, 1, MAX_SCROLL_SIZE);
+        ComplaintWindowResponse window = complaintSearchService.search(q, productId, country, cursor, limit);
+        String eTag = ComplaintETags.ofListing(window.getContent(), window.getNextCursor());
+        return ResponseEntity.ok().eTag(eTag).body(window);
+    }
+
+    @Operation(summary = "Find near-duplicates of a complaint", description = "Complaints of the same product with similar "
+            + "content, most similar first.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Similar complaints retrieved successfully"),
+            @ApiResponse(responseCode = "404", description = "Complaint not found", content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+            @ApiResponse(responseCode = "500", description = "Internal server error", content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
+    })
+    @GetMapping("/{id}/similar")
+    public ResponseEntity<List<SimilarComplaintResponse>> similar(@PathVariable UUID id,
+                                                                  @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok().body(complaintClusterService.findSimilar(id, Math.clamp(limit, 1, MAX_SIMILAR_SIZE)));
+    }
+
+    @Operation(summary = "List near-duplicate clusters", description = "Groups of complaints of one product with similar "
+            + "content, largest first. Omit 'productId' to list clusters of all products.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Clusters retrieved successfully"),
+            @ApiResponse(responseCode = "500", description = "Internal server error", content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
+    })
+    @GetMapping("/clusters")
+    public ResponseEntity<List<ComplaintClusterResponse>> clusters(@RequestParam(required = false) String productId,
+                                                                   @RequestParam(defaultValue = "2") int minSize,
+                                                                   @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok().body(complaintClusterService.findClusters(productId, Math.max(minSize, 1),
+                Math.clamp(limit, 1, MAX_SCROLL_SIZE)));
+    }
+
+    @Operation(summary = "Complaint statistics", description = "Totals, complaints and reports per country and the most "
+            + "reported products, maintained in memory. Product report counts are estimates.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Statistics retrieved successfully", content = @Content(schema = @Schema(implementation = ComplaintStatsResponse.class))),
+            @ApiResponse(responseCode = "500", description = "Internal server error", content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
+    })
+    @GetMapping("/stats")
+    public ResponseEntity<ComplaintStatsResponse> stats() {
+        return ResponseEntity.ok().body(complaintStatistics.snapshot());
+    }
+
+    @Operation(summary = "Export complaints", description = "Streams complaints in id order as NDJSON or CSV, gzip-compressed "
+            + "when the client accepts it. After a dropped connection, pass the id of the last complete row as 'after' to resume.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Complaints streamed successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid parameter", content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+            @ApiResponse(responseCode = "500", description = "Internal server error", content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+            @ApiResponse(responseCode = "503", description = "Too many concurrent exports, retry after the Retry-After header", content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
+    })
+    @GetMapping("/export")
+    public void export(@RequestParam(defaultValue = "ndjson") ExportFormat format,
+                       @RequestParam(required = false) UUID after,
+                       @RequestParam(required = false) String productId,
+                       @RequestParam(required = false) String country,
+                       @RequestParam(required = false) Instant since,
+                       @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                       HttpServletResponse response) throws IOException {
+        response.setContentType(format.getMediaType() + ";charset=UTF-8");
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        ExportFilter filter = new ExportFilter(after, productId, country, since);
+        if (!acceptsGzip(acceptEncoding)) {
+            complaintExportService.export(filter, format, response.getOutputStream());
+            return;
+        }
+        response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        GZIPOutputStream gzip = new GZIPOutputStream(response.getOutputStream(), 8192, true);
+        complaintExportService.export(filter, format, gzip);
+        gzip.finish();
     }
 
     @Operation(summary = "Update a complaint")
@@ -78,10 +267,52 @@ public class ComplaintController {
             @ApiResponse(responseCode = "200", description = "Complaint updated successfully", content = @Content(schema = @Schema(implementation = ComplaintResponse.class))),
             @ApiResponse(responseCode = "404", description = "Complaint not found", content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
             @ApiResponse(responseCode = "400", description = "Invalid request format", content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+            @ApiResponse(responseCode = "412", description = "Complaint changed since the ETag in If-Match", content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
             @ApiResponse(responseCode = "500", description = "Internal server error", content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
     })
     @PutMapping
-    public ResponseEntity<ComplaintResponse> updateComplaint(@Valid @RequestBody UpdateComplaintRequest updateComplaintRequest) {
-        return ResponseEntity.ok().body(complaintService.updateComplaint(updateComplaintRequest));
+    public ResponseEntity<ComplaintResponse> updateComplaint(@Valid @RequestBody UpdateComplaintRequest updateComplaintRequest,
+                                                             @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Long expectedVersion = ComplaintETags.expectedVersion(ifMatch, updateComplaintRequest.getId());
+        ComplaintResponse complaint = complaintService.updateComplaint(updateComplaintRequest, expectedVersion);
+        return ResponseEntity.ok().eTag(ComplaintETags.of(complaint)).body(complaint);
+    }
+
+    /**
+     * Whether {@code Accept-Encoding} allows gzip with a non-zero quality, either by name or through
+     * {@code *} when gzip is not listed itself.
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Double gzip = null;
+        Double wildcard = null;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].strip().toLowerCase(Locale.ROOT);
+            double quality = 1;
+            for (int i = 1; i < parts.length; i++) {
+                String parameter = parts[i].strip();
+                if (parameter.regionMatches(true, 0, "q=", 0, 2)) {
+                    try {
+                        quality = Double.parseDouble(parameter.substring(2).strip());
+                    } catch (NumberFormatException e) {
+                        quality = 0;
+                    }
+                }
+            }
+            if (name.equals("gzip") || name.equals("x-gzip")) {
+                gzip = gzip == null ? quality : Math.max(gzip, quality);
+            } else if (name.equals("*")) {
+                wildcard = quality;
+            }
+        }
+        return gzip != null ? gzip > 0 : wildcard != null && wildcard > 0;
+    }
+
+    private static String clientIp(HttpServletRequest request) {
+        return Optional.ofNullable(request.getHeader("X-Forwarded-For"))
+                .orElse(request.getRemoteAddr());
     }
 }
\ No newline at end of file
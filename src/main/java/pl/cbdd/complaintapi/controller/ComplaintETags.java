@@ -0,0 +1,71 @@
+package pl.cbdd.complaintapi.controller;
+
+import org.springframework.util.DigestUtils;
+import pl.cbdd.complaintapi.dto.ComplaintResponse;
+import pl.cbdd.complaintapi.exception.ComplaintPreconditionFailedException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.UUID;
+
+/**
+ * Strong entity tags for complaints. Every write to a complaint increments its {@code version}, so
+ * {@code "<id>-<version>"} changes whenever its representation does. Listings are tagged with a digest
+ * of the ids and versions they contain.
+ */
+final class ComplaintETags {
+
+    private ComplaintETags() {
+    }
+
+    static String of(UUID id, long version) {
+        return "\"" + id + "-" + version + "\"";
+    }
+
+    static String of(ComplaintResponse complaint) {
+        return of(complaint.getId(), complaint.getVersion());
+    }
+
+    /**
+     * @param metadata anything else the listing depends on, such as the total count or the next cursor
+     */
+    static String ofListing(Collection<ComplaintResponse> complaints, Object... metadata) {
+        StringBuilder source = new StringBuilder(complaints.size() * 40);
+        for (ComplaintResponse complaint : complaints) {
+            source.append(complaint.getId()).append('-').append(complaint.getVersion()).append(',');
+        }
+        for (Object value : metadata) {
+            source.append('|').append(value);
+        }
+        return "\"" + DigestUtils.md5DigestAsHex(source.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
+    /**
+     * Version the client expects the complaint to have, taken from an {@code If-Match} header. Returns
+     * {@code null} when there is no precondition ({@code null} header or {@code *}).
+     *
+     * @throws ComplaintPreconditionFailedException if none of the tags refers to the complaint
+     */
+    static Long expectedVersion(String ifMatch, String id) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.strip().equals("*")) {
+            return null;
+        }
+        String prefix;
+        try {
+            prefix = "\"" + UUID.fromString(id) + "-";
+        } catch (IllegalArgumentException e) {
+            throw new ComplaintPreconditionFailedException("If-Match does not match complaint " + id);
+        }
+        for (String tag : ifMatch.split(",")) {
+            tag = tag.strip();
+            if (tag.startsWith(prefix) && tag.endsWith("\"")) {
+                try {
+                    return Long.parseLong(tag.substring(prefix.length(), tag.length() - 1));
+                } catch (NumberFormatException e) {
+                    break;
+                }
+            }
+        }
+        throw new ComplaintPreconditionFailedException("If-Match does not match complaint " + id);
+    }
+}
@@ -0,0 +1,17 @@
+package pl.cbdd.complaintapi.dto;
+
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ComplaintBatchItem {
+    private String productId;
+    private String content;
+    private String reporter;
+    /**
+     * IP address of the original reporter; the caller's address is used when omitted.
+     */
+    private String ip;
+}
@@ -0,0 +1,21 @@
+package pl.cbdd.complaintapi.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ComplaintBatchResponse {
+    private int received;
+    private int created;
+    private int reported;
+    private int failed;
+    /**
+     * Whether an NDJSON stream was cut off at {@code complaints.batch.max-items}; later lines were not read.
+     */
+    private boolean truncated;
+    private List<ComplaintBatchResult> results;
+}
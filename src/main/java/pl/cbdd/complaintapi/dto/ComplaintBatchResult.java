@@ -0,0 +1,29 @@
+package pl.cbdd.complaintapi.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.*;
+
+import java.util.UUID;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ComplaintBatchResult {
+    private int index;
+    private Status status;
+    private UUID id;
+    private Integer reportCount;
+    private String error;
+
+    public enum Status {
+        CREATED,
+        REPORTED,
+        FAILED
+    }
+
+    public static ComplaintBatchResult failed(int index, String error) {
+        return new ComplaintBatchResult(index, Status.FAILED, null, null, error);
+    }
+}
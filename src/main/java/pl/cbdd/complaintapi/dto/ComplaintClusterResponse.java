@@ -0,0 +1,20 @@
+package pl.cbdd.complaintapi.dto;
+
+import lombok.*;
+
+import java.util.List;
+import java.util.UUID;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class ComplaintClusterResponse {
+    /**
+     * Id of the first complaint of the cluster.
+     */
+    private UUID clusterId;
+    private String productId;
+    private int size;
+    private List<UUID> complaintIds;
+}
@@ -1,5 +1,6 @@
 package pl.cbdd.complaintapi.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.*;
 
 import java.sql.Timestamp;
@@ -15,4 +16,13 @@ public class ComplaintResponse {
     private String reporter;
     private String country;
     private int reportCount = 1;
+    /**
+     * Near-duplicate cluster the complaint was attached to on ingest, {@code null} if none.
+     */
+    private UUID clusterId;
+    /**
+     * Sent as part of the {@code ETag} header, not in the body.
+     */
+    @JsonIgnore
+    private long version;
 }
\ No newline at end of file
@@ -0,0 +1,41 @@
+package pl.cbdd.complaintapi.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ComplaintStatsResponse {
+    private long totalComplaints;
+    private long totalReports;
+    /**
+     * Ordered by reports, highest first.
+     */
+    private List<CountryStats> countries;
+    /**
+     * Most reported products, highest first. Report counts are estimates that may be slightly too high.
+     */
+    private List<ProductStats> topProducts;
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class CountryStats {
+        private String country;
+        private long complaints;
+        private long reports;
+    }
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ProductStats {
+        private String productId;
+        private long reports;
+    }
+}
@@ -0,0 +1,15 @@
+package pl.cbdd.complaintapi.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class ComplaintWindowResponse {
+    private List<ComplaintResponse> content;
+    private String nextCursor;
+    private boolean hasNext;
+}
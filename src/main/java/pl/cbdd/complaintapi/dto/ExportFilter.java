@@ -0,0 +1,10 @@
+package pl.cbdd.complaintapi.dto;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Optional restrictions of a complaint export; {@code after} resumes an interrupted export after the last id received.
+ */
+public record ExportFilter(UUID after, String productId, String country, Instant since) {
+}
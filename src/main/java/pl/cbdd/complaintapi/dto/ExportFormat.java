@@ -0,0 +1,21 @@
+package pl.cbdd.complaintapi.dto;
+
+import org.springframework.http.MediaType;
+
+/**
+ * Output format of {@code GET /api/v1/complaints/export}.
+ */
+public enum ExportFormat {
+    NDJSON(MediaType.APPLICATION_NDJSON),
+    CSV(new MediaType("text", "csv"));
+
+    private final MediaType mediaType;
+
+    ExportFormat(MediaType mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+}
@@ -0,0 +1,15 @@
+package pl.cbdd.complaintapi.dto;
+
+import lombok.*;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class SimilarComplaintResponse {
+    private ComplaintResponse complaint;
+    /**
+     * Estimated Jaccard similarity of the word pairs of both complaints, from 0 to 1.
+     */
+    private double similarity;
+}
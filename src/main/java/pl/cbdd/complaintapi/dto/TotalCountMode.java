@@ -0,0 +1,19 @@
+package pl.cbdd.complaintapi.dto;
+
+/**
+ * How {@code GET /api/v1/complaints/all} computes the total number of complaints.
+ */
+public enum TotalCountMode {
+    /**
+     * Exact {@code count(*)} on every request.
+     */
+    EXACT,
+    /**
+     * Planner estimate, answered without scanning the table.
+     */
+    ESTIMATED,
+    /**
+     * No total at all; the response is a slice that only knows whether a next page exists.
+     */
+    NONE
+}
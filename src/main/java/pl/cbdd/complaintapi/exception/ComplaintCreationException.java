@@ -1,7 +1,11 @@
 package pl.cbdd.complaintapi.exception;
 
 public class ComplaintCreationException extends RuntimeException {
+    public ComplaintCreationException(String message) {
+        super(message);
+    }
+
     public ComplaintCreationException(String message, Throwable cause) {
         super(message, cause);
     }
-}
\ No newline at end of file
+}
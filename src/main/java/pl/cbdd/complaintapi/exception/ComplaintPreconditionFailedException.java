@@ -0,0 +1,7 @@
+package pl.cbdd.complaintapi.exception;
+
+public class ComplaintPreconditionFailedException extends RuntimeException {
+    public ComplaintPreconditionFailedException(String message) {
+        super(message);
+    }
+}
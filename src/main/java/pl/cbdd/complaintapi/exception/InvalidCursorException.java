@@ -0,0 +1,7 @@
+package pl.cbdd.complaintapi.exception;
+
+public class InvalidCursorException extends RuntimeException {
+    public InvalidCursorException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package pl.cbdd.complaintapi.exception;
+
+public class InvalidSearchQueryException extends RuntimeException {
+    public InvalidSearchQueryException(String message) {
+        super(message);
+    }
+}
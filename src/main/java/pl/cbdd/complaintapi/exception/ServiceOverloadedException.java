@@ -0,0 +1,7 @@
+package pl.cbdd.complaintapi.exception;
+
+public class ServiceOverloadedException extends RuntimeException {
+    public ServiceOverloadedException(String message) {
+        super(message);
+    }
+}
@@ -1,9 +1,15 @@
 package pl.cbdd.complaintapi.exceptionhandling;
 
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 import pl.cbdd.complaintapi.exception.*;
 
 import java.time.LocalDateTime;
@@ -32,6 +38,26 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
     }
 
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ExceptionResponseDTO> handleOptimisticLockingFailureException(OptimisticLockingFailureException e) {
+        ExceptionResponseDTO response = new ExceptionResponseDTO(
+                List.of("Complaint was modified concurrently, please retry"),
+                "CONFLICT",
+                LocalDateTime.now()
+        );
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+    }
+
+    @ExceptionHandler(ComplaintPreconditionFailedException.class)
+    public ResponseEntity<ExceptionResponseDTO> handleComplaintPreconditionFailedException(ComplaintPreconditionFailedException e) {
+        ExceptionResponseDTO response = new ExceptionResponseDTO(
+                List.of(e.getMessage()),
+                "PRECONDITION_FAILED",
+                LocalDateTime.now()
+        );
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(response);
+    }
+
     @ExceptionHandler(ComplaintCreationException.class)
     public ResponseEntity<ExceptionResponseDTO> handleComplaintCreationException(ComplaintCreationException e) {
         ExceptionResponseDTO response = new ExceptionResponseDTO(
@@ -52,6 +78,70 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
     }
 
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<ExceptionResponseDTO> handleInvalidCursorException(InvalidCursorException e) {
+        ExceptionResponseDTO response = new ExceptionResponseDTO(
+                List.of(e.getMessage()),
+                "BAD_REQUEST",
+                LocalDateTime.now()
+        );
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+    }
+
+    @ExceptionHandler(InvalidSearchQueryException.class)
+    public ResponseEntity<ExceptionResponseDTO> handleInvalidSearchQueryException(InvalidSearchQueryException e) {
+        ExceptionResponseDTO response = new ExceptionResponseDTO(
+                List.of(e.getMessage()),
+                "BAD_REQUEST",
+                LocalDateTime.now()
+        );
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+    }
+
+    @ExceptionHandler(RateLimitExceededException.class)
+    public ResponseEntity<ExceptionResponseDTO> handleRateLimitExceededException(RateLimitExceededException e) {
+        ExceptionResponseDTO response = new ExceptionResponseDTO(
+                List.of(e.getMessage()),
+                "TOO_MANY_REQUESTS",
+                LocalDateTime.now()
+        );
+        long retryAfterSeconds = Math.max(1, (e.getRetryAfter().toMillis() + 999) / 1000);
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds))
+                .body(response);
+    }
+
+    @ExceptionHandler(MethodArgumentTypeMismatchException.class)
+    public ResponseEntity<ExceptionResponseDTO> handleMethodArgumentTypeMismatchException(MethodArgumentTypeMismatchException e) {
+        ExceptionResponseDTO response = new ExceptionResponseDTO(
+                List.of("Invalid value '" + e.getValue() + "' for parameter '" + e.getName() + "'"),
+                "BAD_REQUEST",
+                LocalDateTime.now()
+        );
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+    }
+
+    @ExceptionHandler({CannotCreateTransactionException.class, CannotGetJdbcConnectionException.class,
+            TransientDataAccessResourceException.class})
+    public ResponseEntity<ExceptionResponseDTO> handleConnectionPoolExhausted(Exception e) {
+        ExceptionResponseDTO response = new ExceptionResponseDTO(
+                List.of("The database is busy, please retry"),
+                "SERVICE_UNAVAILABLE",
+                LocalDateTime.now()
+        );
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").body(response);
+    }
+
+    @ExceptionHandler(ServiceOverloadedException.class)
+    public ResponseEntity<ExceptionResponseDTO> handleServiceOverloadedException(ServiceOverloadedException e) {
+        ExceptionResponseDTO response = new ExceptionResponseDTO(
+                List.of(e.getMessage()),
+                "SERVICE_UNAVAILABLE",
+                LocalDateTime.now()
+        );
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").body(response);
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ExceptionResponseDTO> handleGeneralException(Exception e) {
         ExceptionResponseDTO response = new ExceptionResponseDTO(
@@ -0,0 +1,259 @@
+package pl.cbdd.complaintapi.geoip;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Read-only IP range to country table backed by a memory-mapped file in the format written by
+ * {@link GeoIpRangeTableCompiler}. Ranges are sorted and non-overlapping, so a lookup is a binary
+ * search over fixed-size records. Instances are immutable and safe for concurrent use.
+ *
+ * <pre>
+ * int magic, int ipv4Count, int ipv6Count, int countryCount
+ * ipv4 records: int start, int end, int countryIndex                          (12 bytes)
+ * ipv6 records: long startHi, long startLo, long endHi, long endLo, int country (36 bytes)
+ * countries:    short length, UTF-8 bytes
+ * </pre>
+ */
+public final class GeoIpRangeTable {
+
+    static final int MAGIC = 0x47454f31;
+    static final int HEADER_SIZE = 16;
+    static final int IPV4_RECORD_SIZE = 12;
+    static final int IPV6_RECORD_SIZE = 36;
+
+    private final ByteBuffer ipv4;
+    private final ByteBuffer ipv6;
+    private final int ipv4Count;
+    private final int ipv6Count;
+    private final String[] countries;
+
+    private GeoIpRangeTable(ByteBuffer buffer) {
+        if (buffer.getInt(0) != MAGIC) {
+            throw new IllegalArgumentException("Not a compiled GeoIP range table");
+        }
+        ipv4Count = buffer.getInt(4);
+        ipv6Count = buffer.getInt(8);
+        int countryCount = buffer.getInt(12);
+
+        int ipv6Offset = HEADER_SIZE + ipv4Count * IPV4_RECORD_SIZE;
+        int countriesOffset = ipv6Offset + ipv6Count * IPV6_RECORD_SIZE;
+        ipv4 = buffer.slice(HEADER_SIZE, ipv4Count * IPV4_RECORD_SIZE);
+        ipv6 = buffer.slice(ipv6Offset, ipv6Count * IPV6_RECORD_SIZE);
+
+        countries = new String[countryCount];
+        int position = countriesOffset;
+        for (int i = 0; i < countryCount; i++) {
+            int length = buffer.getShort(position);
+            byte[] name = new byte[length];
+            buffer.get(position + 2, name);
+            countries[i] = new String(name, StandardCharsets.UTF_8);
+            position += 2 + length;
+        }
+    }
+
+    public static GeoIpRangeTable open(Path compiledFile) throws IOException {
+        try (FileChannel channel = FileChannel.open(compiledFile, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new GeoIpRangeTable(buffer);
+        }
+    }
+
+    public int size() {
+        return ipv4Count + ipv6Count;
+    }
+
+    /**
+     * Returns the country of the range containing {@code ip}, or {@code null} when the address
+     * is not covered or is not an IP literal. Never performs a DNS lookup.
+     */
+    public String lookup(String ip) {
+        if (ip == null || ip.isEmpty()) {
+            return null;
+        }
+        if (ip.indexOf(':') < 0) {
+            long address = parseIpv4(ip);
+            return address < 0 ? null : lookupIpv4((int) address);
+        }
+        byte[] address = parseIpv6(ip);
+        if (address == null) {
+            return null;
+        }
+        ByteBuffer bytes = ByteBuffer.wrap(address);
+        return isIpv4Mapped(address) ? lookupIpv4(bytes.getInt(12)) : lookupIpv6(bytes.getLong(0), bytes.getLong(8));
+    }
+
+    public String lookupIpv4(int address) {
+        int low = 0;
+        int high = ipv4Count - 1;
+        int candidate = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (Integer.compareUnsigned(ipv4.getInt(mid * IPV4_RECORD_SIZE), address) <= 0) {
+                candidate = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        if (candidate < 0) {
+            return null;
+        }
+        int record = candidate * IPV4_RECORD_SIZE;
+        return Integer.compareUnsigned(address, ipv4.getInt(record + 4)) <= 0
+                ? countries[ipv4.getInt(record + 8)]
+                : null;
+    }
+
+    public String lookupIpv6(long high64, long low64) {
+        int low = 0;
+        int high = ipv6Count - 1;
+        int candidate = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int record = mid * IPV6_RECORD_SIZE;
+            if (compare(ipv6.getLong(record), ipv6.getLong(record + 8), high64, low64) <= 0) {
+                candidate = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        if (candidate < 0) {
+            return null;
+        }
+        int record = candidate * IPV6_RECORD_SIZE;
+        return compare(high64, low64, ipv6.getLong(record + 16), ipv6.getLong(record + 24)) <= 0
+                ? countries[ipv6.getInt(record + 32)]
+                : null;
+    }
+
+    static int compare(long aHigh, long aLow, long bHigh, long bLow) {
+        int result = Long.compareUnsigned(aHigh, bHigh);
+        return result != 0 ? result : Long.compareUnsigned(aLow, bLow);
+    }
+
+    /**
+     * Parses a dotted-quad IPv4 literal without allocating. Returns -1 when the input is not one.
+     */
+    static long parseIpv4(String ip) {
+        long address = 0;
+        int octet = -1;
+        int dots = 0;
+        for (int i = 0; i < ip.length(); i++) {
+            char c = ip.charAt(i);
+            if (c >= '0' && c <= '9') {
+                octet = (octet < 0 ? 0 : octet * 10) + (c - '0');
+                if (octet > 255) {
+                    return -1;
+                }
+            } else if (c == '.' && octet >= 0 && dots < 3) {
+                address = (address << 8) | octet;
+                octet = -1;
+                dots++;
+            } else {
+                return -1;
+            }
+        }
+        if (dots != 3 || octet < 0) {
+            return -1;
+        }
+        return (address << 8) | octet;
+    }
+
+    /**
+     * Parses an IPv6 literal, including {@code ::} compression and a trailing dotted IPv4 part, into its
+     * 16 bytes, or returns {@code null} when {@code ip} is anything else. Unlike
+     * {@link java.net.InetAddress#getByName}, a host name is rejected rather than resolved.
+     */
+    static byte[] parseIpv6(String ip) {
+        int length = ip.length();
+        if (length < 2 || length > 45 || (ip.charAt(0) == ':' && ip.charAt(1) != ':')) {
+            return null;
+        }
+        int[] groups = new int[8];
+        int count = 0;
+        int compressAt = -1;
+        int i = 0;
+        if (ip.startsWith("::")) {
+            compressAt = 0;
+            i = 2;
+        }
+        while (i < length) {
+            if (count == 8) {
+                return null;
+            }
+            int start = i;
+            int group = 0;
+            while (i < length && i - start < 4 && hexDigit(ip.charAt(i)) >= 0) {
+                group = (group << 4) | hexDigit(ip.charAt(i++));
+            }
+            if (i < length && ip.charAt(i) == '.') {
+                long ipv4Part = count <= 6 ? parseIpv4(ip.substring(start)) : -1;
+                if (ipv4Part < 0) {
+                    return null;
+                }
+                groups[count++] = (int) (ipv4Part >>> 16);
+                groups[count++] = (int) (ipv4Part & 0xFFFF);
+                break;
+            }
+            if (i == start) {
+                return null;
+            }
+            groups[count++] = group;
+            if (i == length) {
+                break;
+            }
+            if (ip.charAt(i++) != ':' || i == length) {
+                return null;
+            }
+            if (ip.charAt(i) == ':') {
+                if (compressAt >= 0) {
+                    return null;
+                }
+                compressAt = count;
+                i++;
+            }
+        }
+        if (compressAt < 0 ? count != 8 : count == 8) {
+            return null;
+        }
+        byte[] address = new byte[16];
+        for (int group = 0; group < count; group++) {
+            int position = compressAt >= 0 && group >= compressAt ? group + 8 - count : group;
+            address[position * 2] = (byte) (groups[group] >>> 8);
+            address[position * 2 + 1] = (byte) groups[group];
+        }
+        return address;
+    }
+
+    /**
+     * {@code ::ffff:a.b.c.d} addresses are looked up in the IPv4 ranges.
+     */
+    static boolean isIpv4Mapped(byte[] address) {
+        for (int i = 0; i < 10; i++) {
+            if (address[i] != 0) {
+                return false;
+            }
+        }
+        return address[10] == (byte) 0xFF && address[11] == (byte) 0xFF;
+    }
+
+    private static int hexDigit(char c) {
+        if (c >= '0' && c <= '9') {
+            return c - '0';
+        }
+        if (c >= 'a' && c <= 'f') {
+            return c - 'a' + 10;
+        }
+        if (c >= 'A' && c <= 'F') {
+            return c - 'A' + 10;
+        }
+        return -1;
+    }
+}
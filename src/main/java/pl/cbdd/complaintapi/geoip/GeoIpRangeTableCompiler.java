@@ -0,0 +1,139 @@
+package pl.cbdd.complaintapi.geoip;
+
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.Inet4Address;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compiles a CSV range file ({@code start_ip,end_ip,country}, one range per line, {@code #} comments allowed)
+ * into the binary format read by {@link GeoIpRangeTable}. IPv4 and IPv6 ranges may be mixed in one file.
+ */
+public final class GeoIpRangeTableCompiler {
+
+    private GeoIpRangeTableCompiler() {
+    }
+
+    public static void compile(Path csvFile, Path compiledFile) throws IOException {
+        List<Range> ipv4 = new ArrayList<>();
+        List<Range> ipv6 = new ArrayList<>();
+        Map<String, Integer> countryIndex = new HashMap<>();
+        List<String> countries = new ArrayList<>();
+
+        try (BufferedReader reader = Files.newBufferedReader(csvFile, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.strip();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] fields = line.split(",", 3);
+                if (fields.length != 3) {
+                    throw new IllegalArgumentException("Invalid GeoIP range at line " + lineNumber + ": " + line);
+                }
+                InetAddress start = parse(fields[0].strip(), lineNumber);
+                InetAddress end = parse(fields[1].strip(), lineNumber);
+                if (start.getClass() != end.getClass()) {
+                    throw new IllegalArgumentException("Mixed address families at line " + lineNumber);
+                }
+                String country = fields[2].strip();
+                int index = countryIndex.computeIfAbsent(country, name -> {
+                    countries.add(name);
+                    return countries.size() - 1;
+                });
+                Range range = new Range(toHigh(start), toLow(start), toHigh(end), toLow(end), index, lineNumber);
+                if (GeoIpRangeTable.compare(range.startHigh, range.startLow, range.endHigh, range.endLow) > 0) {
+                    throw new IllegalArgumentException("Range start after end at line " + lineNumber);
+                }
+                (start instanceof Inet4Address ? ipv4 : ipv6).add(range);
+            }
+        }
+
+        sortAndValidate(ipv4);
+        sortAndValidate(ipv6);
+
+        try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(compiledFile))) {
+            out.writeInt(GeoIpRangeTable.MAGIC);
+            out.writeInt(ipv4.size());
+            out.writeInt(ipv6.size());
+            out.writeInt(countries.size());
+            for (Range range : ipv4) {
+                out.writeInt((int) range.startLow);
+                out.writeInt((int) range.endLow);
+                out.writeInt(range.country);
+            }
+            for (Range range : ipv6) {
+                out.writeLong(range.startHigh);
+                out.writeLong(range.startLow);
+                out.writeLong(range.endHigh);
+                out.writeLong(range.endLow);
+                out.writeInt(range.country);
+            }
+            for (String country : countries) {
+                byte[] name = country.getBytes(StandardCharsets.UTF_8);
+                out.writeShort(name.length);
+                out.write(name);
+            }
+        }
+    }
+
+    private static void sortAndValidate(List<Range> ranges) {
+        ranges.sort(Comparator.comparing(Range::startHigh, Long::compareUnsigned)
+                .thenComparing(Range::startLow, Long::compareUnsigned));
+        for (int i = 1; i < ranges.size(); i++) {
+            Range previous = ranges.get(i - 1);
+            Range current = ranges.get(i);
+            if (GeoIpRangeTable.compare(previous.endHigh, previous.endLow, current.startHigh, current.startLow) >= 0) {
+                throw new IllegalArgumentException("Overlapping GeoIP ranges at lines "
+                        + previous.line + " and " + current.line);
+            }
+        }
+    }
+
+    /**
+     * Parses literals only; {@link InetAddress#getByAddress(byte[])} never resolves, and turns
+     * IPv4-mapped IPv6 addresses into IPv4 ones.
+     */
+    private static InetAddress parse(String ip, int lineNumber) {
+        byte[] address;
+        if (ip.indexOf(':') < 0) {
+            long ipv4 = GeoIpRangeTable.parseIpv4(ip);
+            address = ipv4 < 0 ? null : ByteBuffer.allocate(4).putInt((int) ipv4).array();
+        } else {
+            address = GeoIpRangeTable.parseIpv6(ip);
+        }
+        if (address == null) {
+            throw new IllegalArgumentException("Invalid IP address '" + ip + "' at line " + lineNumber);
+        }
+        try {
+            return InetAddress.getByAddress(address);
+        } catch (UnknownHostException e) {
+            throw new IllegalArgumentException("Invalid IP address '" + ip + "' at line " + lineNumber, e);
+        }
+    }
+
+    private static long toHigh(InetAddress address) {
+        return address instanceof Inet4Address ? 0 : ByteBuffer.wrap(address.getAddress()).getLong(0);
+    }
+
+    private static long toLow(InetAddress address) {
+        ByteBuffer bytes = ByteBuffer.wrap(address.getAddress());
+        return address instanceof Inet4Address ? Integer.toUnsignedLong(bytes.getInt(0)) : bytes.getLong(8);
+    }
+
+    private record Range(long startHigh, long startLow, long endHigh, long endLow, int country, int line) {
+    }
+}
@@ -0,0 +1,87 @@
+package pl.cbdd.complaintapi.geoip;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import pl.cbdd.complaintapi.config.GeoLocationProperties;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+/**
+ * Local GeoIP lookup used when {@code geolocation.provider} is {@code offline}. The range file is
+ * watched and recompiled on change; the new table is swapped in atomically, so lookups never block
+ * on a reload and always see either the old or the new table.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OfflineGeoIpDatabase {
+
+    private final GeoLocationProperties properties;
+
+    private volatile GeoIpRangeTable table;
+    private FileTime loadedModifiedTime;
+
+    public boolean isEnabled() {
+        return properties.getProvider() == GeoLocationProperties.Provider.OFFLINE;
+    }
+
+    /**
+     * Returns the country for {@code ip}, or {@code null} when the offline provider is disabled,
+     * no table is loaded yet or the address is not covered.
+     */
+    public String lookup(String ip) {
+        GeoIpRangeTable current = table;
+        return current != null ? current.lookup(ip) : null;
+    }
+
+    @PostConstruct
+    void init() {
+        if (isEnabled()) {
+            reloadIfChanged();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${geolocation.offline.reload-interval:PT30S}",
+            initialDelayString = "${geolocation.offline.reload-interval:PT30S}")
+    synchronized void reloadIfChanged() {
+        if (!isEnabled() || !StringUtils.hasText(properties.getOffline().getRangeFile())) {
+            return;
+        }
+        Path rangeFile = Path.of(properties.getOffline().getRangeFile());
+        try {
+            FileTime modifiedTime = Files.getLastModifiedTime(rangeFile);
+            if (modifiedTime.equals(loadedModifiedTime)) {
+                return;
+            }
+            table = load(rangeFile);
+            loadedModifiedTime = modifiedTime;
+            log.info("Loaded {} GeoIP ranges from {}", table.size(), rangeFile);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not load GeoIP range file {}, keeping the previous table", rangeFile, e);
+        }
+    }
+
+    private static GeoIpRangeTable load(Path rangeFile) throws IOException {
+        if (!rangeFile.getFileName().toString().endsWith(".csv")) {
+            return GeoIpRangeTable.open(rangeFile);
+        }
+        Path compiled = Files.createTempFile("geoip-", ".bin");
+        try {
+            GeoIpRangeTableCompiler.compile(rangeFile, compiled);
+            return GeoIpRangeTable.open(compiled);
+        } finally {
+            try {
+                Files.deleteIfExists(compiled);
+            } catch (IOException e) {
+                compiled.toFile().deleteOnExit();
+            }
+        }
+    }
+}
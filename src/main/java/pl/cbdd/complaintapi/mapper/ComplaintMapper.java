@@ -0,0 +1,45 @@
+package pl.cbdd.complaintapi.mapper;
+
+import org.springframework.stereotype.Component;
+import pl.cbdd.complaintapi.dto.ComplaintRequest;
+import pl.cbdd.complaintapi.dto.ComplaintResponse;
+import pl.cbdd.complaintapi.model.Complaint;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+
+/**
+ * Plain field-by-field mapping between complaints and their DTOs. It runs once per row on the listing
+ * endpoints, so it avoids reflection and allocates nothing beyond the target object.
+ */
+@Component
+public class ComplaintMapper {
+
+    public ComplaintResponse toResponse(Complaint complaint) {
+        ComplaintResponse response = new ComplaintResponse();
+        response.setId(complaint.getId());
+        response.setProductId(complaint.getProductId());
+        response.setContent(complaint.getContent());
+        response.setCreatedAt(complaint.getCreatedAt());
+        response.setReporter(complaint.getReporter());
+        response.setCountry(complaint.getCountry());
+        response.setReportCount(complaint.getReportCount());
+        response.setClusterId(complaint.getClusterId());
+        response.setVersion(complaint.getVersion() != null ? complaint.getVersion() : 0);
+        return response;
+    }
+
+    /**
+     * New complaint for a first report; the id and timestamps are assigned when it is written.
+     */
+    public Complaint toComplaint(ComplaintRequest request) {
+        return Complaint.builder()
+                .productId(request.getProductId())
+                .content(request.getContent())
+                .createdAt(Timestamp.from(Instant.now()))
+                .reporter(request.getReporter())
+                .country(request.getCountry())
+                .reportCount(1)
+                .build();
+    }
+}
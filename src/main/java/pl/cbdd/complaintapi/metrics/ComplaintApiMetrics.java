@@ -0,0 +1,133 @@
+package pl.cbdd.complaintapi.metrics;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import pl.cbdd.complaintapi.cache.ComplaintResponseCache;
+import pl.cbdd.complaintapi.cache.GeoLocationCache;
+import pl.cbdd.complaintapi.client.GeoLocationHttpClient;
+import pl.cbdd.complaintapi.overload.ConcurrencyLimitInterceptor;
+import pl.cbdd.complaintapi.overload.ExportLimitInterceptor;
+import pl.cbdd.complaintapi.ratelimit.ComplaintRateLimiter;
+import pl.cbdd.complaintapi.search.ComplaintSearchIndex;
+import pl.cbdd.complaintapi.service.ComplaintClusterService;
+import pl.cbdd.complaintapi.service.CountryEnrichmentService;
+import pl.cbdd.complaintapi.service.CountryResolver;
+import pl.cbdd.complaintapi.service.ReportCountBuffer;
+import pl.cbdd.complaintapi.stats.ComplaintStatistics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Exposes the counters the components already keep as meters. Every meter reads its component when it
+ * is scraped, so none of them adds work to the request path.
+ */
+@Component
+@RequiredArgsConstructor
+public class ComplaintApiMetrics implements MeterBinder {
+
+    private final ComplaintStatistics complaintStatistics;
+    private final ComplaintResponseCache complaintResponseCache;
+    private final GeoLocationCache geoLocationCache;
+    private final CountryResolver countryResolver;
+    private final CountryEnrichmentService countryEnrichmentService;
+    private final GeoLocationHttpClient geoLocationHttpClient;
+    private final ReportCountBuffer reportCountBuffer;
+    private final ComplaintRateLimiter complaintRateLimiter;
+    private final ConcurrencyLimitInterceptor concurrencyLimitInterceptor;
+    private final ExportLimitInterceptor exportLimitInterceptor;
+    private final ComplaintSearchIndex complaintSearchIndex;
+    private final ComplaintClusterService complaintClusterService;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("complaints.submitted", complaintStatistics, ComplaintStatistics::createdComplaints)
+                .description("Reports that created a new complaint")
+                .tag("result", "new")
+                .register(registry);
+        FunctionCounter.builder("complaints.submitted", complaintStatistics, ComplaintStatistics::duplicateReports)
+                .description("Reports of an already existing complaint")
+                .tag("result", "duplicate")
+                .register(registry);
+
+        bindCache(registry, "complaints", complaintResponseCache, ComplaintResponseCache::stats, ComplaintResponseCache::size);
+        bindCache(registry, "geolocation", geoLocationCache, GeoLocationCache::stats, GeoLocationCache::size);
+
+        FunctionCounter.builder("geolocation.lookups.coalesced", countryResolver, CountryResolver::coalescedLookups)
+                .description("Lookups answered by another caller's in-flight request")
+                .register(registry);
+        Gauge.builder("geolocation.enrichment.backlog", countryEnrichmentService, CountryEnrichmentService::backlog)
+                .description("Complaints waiting for their country")
+                .register(registry);
+        TimeGauge.builder("geolocation.enrichment.lag", countryEnrichmentService, TimeUnit.MILLISECONDS,
+                        service -> service.lag().toMillis())
+                .description("How long the oldest queued complaint has been waiting for its country")
+                .register(registry);
+        Gauge.builder("geolocation.http.connections", geoLocationHttpClient, GeoLocationHttpClient::leased)
+                .tag("state", "leased")
+                .register(registry);
+        Gauge.builder("geolocation.http.connections", geoLocationHttpClient, GeoLocationHttpClient::pending)
+                .tag("state", "pending")
+                .register(registry);
+        Gauge.builder("geolocation.http.connections", geoLocationHttpClient, GeoLocationHttpClient::idle)
+                .tag("state", "idle")
+                .register(registry);
+
+        Gauge.builder("complaints.report.buffer.reports", reportCountBuffer, ReportCountBuffer::pendingReports)
+                .description("Buffered reports not yet flushed to the database")
+                .register(registry);
+        Gauge.builder("complaints.report.buffer.complaints", reportCountBuffer, ReportCountBuffer::bufferedComplaints)
+                .register(registry);
+
+        FunctionCounter.builder("complaints.rate.limit.rejected", complaintRateLimiter, ComplaintRateLimiter::rejectedByIp)
+                .tag("key", "ip")
+                .register(registry);
+        FunctionCounter.builder("complaints.rate.limit.rejected", complaintRateLimiter, ComplaintRateLimiter::rejectedByReporter)
+                .tag("key", "reporter")
+                .register(registry);
+        Gauge.builder("complaints.rate.limit.keys", complaintRateLimiter, ComplaintRateLimiter::trackedKeys)
+                .register(registry);
+
+        Gauge.builder("complaints.concurrency.limit", concurrencyLimitInterceptor, ConcurrencyLimitInterceptor::limit)
+                .register(registry);
+        Gauge.builder("complaints.concurrency.in.flight", concurrencyLimitInterceptor, ConcurrencyLimitInterceptor::inFlight)
+                .register(registry);
+        FunctionCounter.builder("complaints.concurrency.rejected", concurrencyLimitInterceptor, ConcurrencyLimitInterceptor::rejected)
+                .register(registry);
+        Gauge.builder("complaints.export.in.flight", exportLimitInterceptor, ExportLimitInterceptor::inFlight)
+                .register(registry);
+        FunctionCounter.builder("complaints.export.rejected", exportLimitInterceptor, ExportLimitInterceptor::rejected)
+                .register(registry);
+
+        Gauge.builder("complaints.search.index.size", complaintSearchIndex, ComplaintSearchIndex::size)
+                .register(registry);
+        FunctionCounter.builder("complaints.similarity.dropped", complaintClusterService, ComplaintClusterService::droppedUpdates)
+                .description("Complaints not indexed for near-duplicate detection because the queue was full")
+                .register(registry);
+    }
+
+    private static <T> void bindCache(MeterRegistry registry, String name, T cache,
+                                      Function<T, CacheStats> stats, ToDoubleFunction<T> size) {
+        FunctionCounter.builder("cache.gets", cache, c -> stats.apply(c).hitCount())
+                .tag("cache", name)
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("cache.gets", cache, c -> stats.apply(c).missCount())
+                .tag("cache", name)
+                .tag("result", "miss")
+                .register(registry);
+        FunctionCounter.builder("cache.evictions", cache, c -> stats.apply(c).evictionCount())
+                .tag("cache", name)
+                .register(registry);
+        Gauge.builder("cache.size", cache, size)
+                .tag("cache", name)
+                .register(registry);
+    }
+}
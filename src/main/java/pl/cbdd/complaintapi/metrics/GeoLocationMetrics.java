@@ -0,0 +1,92 @@
+package pl.cbdd.complaintapi.metrics;
+
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Times GeoLocation API lookups, tagged with how the resilient call ended. The outcome is decided inside
+ * the Resilience4j decorators, so the service reports each attempt and fallback here while
+ * {@link #record(Supplier)} runs the call on the same thread.
+ */
+@Component
+public class GeoLocationMetrics {
+
+    private static final ThreadLocal<Lookup> CURRENT = new ThreadLocal<>();
+
+    private final Map<Outcome, Timer> timers = new EnumMap<>(Outcome.class);
+
+    public GeoLocationMetrics(MeterRegistry meterRegistry) {
+        for (Outcome outcome : Outcome.values()) {
+            timers.put(outcome, Timer.builder("geolocation.lookup")
+                    .description("GeoLocation API lookups, including retries and fallbacks")
+                    .tag("outcome", outcome.tag)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+    }
+
+    public String record(Supplier<String> lookup) {
+        Lookup current = new Lookup();
+        CURRENT.set(current);
+        long start = System.nanoTime();
+        try {
+            return lookup.get();
+        } catch (RuntimeException e) {
+            current.outcome = Outcome.ERROR;
+            throw e;
+        } finally {
+            CURRENT.remove();
+            timers.get(current.outcome()).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Called by each attempt that reaches the API.
+     */
+    public void attempt() {
+        Lookup current = CURRENT.get();
+        if (current != null) {
+            current.attempts++;
+        }
+    }
+
+    /**
+     * Called when the lookup falls back, either after failing or because the circuit breaker is open.
+     */
+    public void fallback(Throwable cause) {
+        Lookup current = CURRENT.get();
+        if (current != null) {
+            current.outcome = cause instanceof CallNotPermittedException ? Outcome.CIRCUIT_OPEN : Outcome.FALLBACK;
+        }
+    }
+
+    enum Outcome {
+        SUCCESS("success"), RETRY("retry"), FALLBACK("fallback"), CIRCUIT_OPEN("circuit_open"), ERROR("error");
+
+        private final String tag;
+
+        Outcome(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    private static final class Lookup {
+
+        private int attempts;
+        private Outcome outcome;
+
+        private Outcome outcome() {
+            if (outcome != null) {
+                return outcome;
+            }
+            return attempts > 1 ? Outcome.RETRY : Outcome.SUCCESS;
+        }
+    }
+}
@@ -11,7 +11,9 @@ import java.util.UUID;
 
 @Builder
 @Entity
-@Table(name = "complaints")
+@Table(name = "complaints", uniqueConstraints = @UniqueConstraint(
+        name = "uk_complaints_product_reporter", columnNames = {"product_id", "reporter"}),
+        indexes = @Index(name = "idx_complaints_created_at_id", columnList = "created_at, id"))
 @EntityListeners(AuditingEntityListener.class)
 @AllArgsConstructor
 @NoArgsConstructor
@@ -20,7 +22,7 @@ import java.util.UUID;
 public class Complaint {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @TimeOrderedUuid
     @Column(name = "id", unique = true, nullable = false)
     private UUID id;
 
@@ -31,7 +33,9 @@ public class Complaint {
     @Column(name = "product_id", nullable = false)
     private String productId;
 
-    @Column(name = "content", nullable = false)
+    // TEXT as in the changelog; ddl-auto would otherwise try to narrow it, which PostgreSQL refuses for a
+    // column the generated search vector is computed from.
+    @Column(name = "content", nullable = false, columnDefinition = "TEXT", length = Integer.MAX_VALUE)
     private String content;
 
     @CreationTimestamp
@@ -50,4 +54,10 @@ public class Complaint {
 
     @Column(name = "report_count", nullable = false)
     private int reportCount = 1;
+
+    /**
+     * Id of the first complaint of the near-duplicate cluster this complaint was attached to on ingest, if any.
+     */
+    @Column(name = "cluster_id")
+    private UUID clusterId;
 }
\ No newline at end of file
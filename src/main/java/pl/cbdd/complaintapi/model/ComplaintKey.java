@@ -0,0 +1,11 @@
+package pl.cbdd.complaintapi.model;
+
+/**
+ * Natural key of a complaint: one complaint per product and reporter.
+ */
+public record ComplaintKey(String productId, String reporter) {
+
+    public static ComplaintKey of(Complaint complaint) {
+        return new ComplaintKey(complaint.getProductId(), complaint.getReporter());
+    }
+}
@@ -0,0 +1,57 @@
+package pl.cbdd.complaintapi.model;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+
+import java.util.EnumSet;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * UUID version 7 (RFC 9562): a 48-bit Unix millisecond timestamp, a 12-bit counter and 62 random bits.
+ * New ids append to the right edge of the primary-key index, and ids created by this node are strictly
+ * increasing even within one millisecond or when the clock steps back.
+ */
+public class TimeOrderedUuidGenerator implements BeforeExecutionGenerator {
+
+    private static final int COUNTER_BITS = 12;
+    private static final long VERSION_7 = 0x7000L;
+    private static final long VARIANT_MASK = 0x3fffffffffffffffL;
+    private static final long VARIANT_RFC = 0x8000000000000000L;
+
+    /**
+     * Last issued timestamp and counter as {@code millis << 12 | counter}. A counter overflow carries
+     * into the timestamp, so ordering is kept at the cost of running slightly ahead of the clock.
+     */
+    private static final AtomicLong LAST = new AtomicLong();
+
+    public static UUID next() {
+        long now = System.currentTimeMillis() << COUNTER_BITS;
+        long value = LAST.updateAndGet(last -> now > last ? now : last + 1);
+        long timestamp = value >>> COUNTER_BITS;
+        long counter = value & ((1L << COUNTER_BITS) - 1);
+        long mostSigBits = timestamp << 16 | VERSION_7 | counter;
+        long leastSigBits = ThreadLocalRandom.current().nextLong() & VARIANT_MASK | VARIANT_RFC;
+        return new UUID(mostSigBits, leastSigBits);
+    }
+
+    /**
+     * Creation time encoded in a version 7 UUID, in Unix milliseconds.
+     */
+    public static long timestampOf(UUID uuid) {
+        return uuid.getMostSignificantBits() >>> 16;
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object owner, Object currentValue,
+                           EventType eventType) {
+        return next();
+    }
+
+    @Override
+    public EnumSet<EventType> getEventTypes() {
+        return EnumSet.of(EventType.INSERT);
+    }
+}
@@ -0,0 +1,93 @@
+package pl.cbdd.complaintapi.overload;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Concurrency limit that follows observed latency, after the gradient algorithm of Netflix's
+ * concurrency-limits. A long-term average of the request latency serves as the no-load baseline; while
+ * recent requests stay within {@code tolerance} times of it, the limit grows by about its square root,
+ * and as they get slower it shrinks proportionally. Requests that failed because a dependency was
+ * unavailable cut the limit multiplicatively.
+ */
+final class AdaptiveConcurrencyLimit {
+
+    private static final double SMOOTHING = 0.2;
+    private static final double BACKOFF_RATIO = 0.9;
+    private static final double LONG_RTT_DECAY = 1.0 / 600;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder rejected = new LongAdder();
+    private volatile double limit;
+    private double longRtt;
+
+    AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, double tolerance) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.limit = initialLimit;
+    }
+
+    /**
+     * Admits a request while fewer than {@code share} of the limit are in flight.
+     */
+    boolean tryAcquire(double share) {
+        int allowed = Math.max(1, (int) (limit * share));
+        while (true) {
+            int current = inFlight.get();
+            if (current >= allowed) {
+                rejected.increment();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Releases an admitted request and feeds its latency into the limit.
+     *
+     * @param dropped whether the request failed because a dependency was overloaded or unavailable
+     */
+    void release(long rttNanos, boolean dropped) {
+        int inFlightBefore = inFlight.getAndDecrement();
+        update(rttNanos, inFlightBefore, dropped);
+    }
+
+    private synchronized void update(long rttNanos, int inFlightBefore, boolean dropped) {
+        double current = limit;
+        if (dropped) {
+            limit = Math.max(minLimit, current * BACKOFF_RATIO);
+            return;
+        }
+        double rtt = Math.max(rttNanos, 1);
+        longRtt = longRtt == 0 ? rtt : longRtt * (1 - LONG_RTT_DECAY) + rtt * LONG_RTT_DECAY;
+        if (longRtt / rtt > 2) {
+            // Latency is well below the baseline again, forget the slow period faster.
+            longRtt *= 0.95;
+        }
+        if (inFlightBefore < current / 2) {
+            // Far below the limit, latency says nothing about whether the limit is right.
+            return;
+        }
+        double gradient = Math.clamp(tolerance * longRtt / rtt, 0.5, 1.0);
+        double target = current * gradient + Math.sqrt(current);
+        limit = Math.clamp(current * (1 - SMOOTHING) + target * SMOOTHING, minLimit, maxLimit);
+    }
+
+    int limit() {
+        return (int) limit;
+    }
+
+    int inFlight() {
+        return inFlight.get();
+    }
+
+    long rejected() {
+        return rejected.sum();
+    }
+}
@@ -0,0 +1,94 @@
+package pl.cbdd.complaintapi.overload;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.web.servlet.DispatcherServlet;
+import org.springframework.web.servlet.HandlerInterceptor;
+import pl.cbdd.complaintapi.config.ComplaintProperties;
+import pl.cbdd.complaintapi.exception.ServiceOverloadedException;
+
+import java.net.SocketTimeoutException;
+import java.net.http.HttpTimeoutException;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Sheds API requests with a 503 once the {@link AdaptiveConcurrencyLimit adaptive limit} of concurrent
+ * requests is reached, before any work is done for them. Reads and writes may each use a configured share
+ * of the limit, so one can be kept responsive while the other is shed.
+ */
+@Component
+public class ConcurrencyLimitInterceptor implements HandlerInterceptor {
+
+    private static final String STARTED_AT = ConcurrencyLimitInterceptor.class.getName() + ".startedAt";
+
+    private final ComplaintProperties.ConcurrencyLimit properties;
+    private final AdaptiveConcurrencyLimit limit;
+
+    public ConcurrencyLimitInterceptor(ComplaintProperties complaintProperties) {
+        this.properties = complaintProperties.getConcurrencyLimit();
+        this.limit = new AdaptiveConcurrencyLimit(properties.getInitialLimit(), properties.getMinLimit(),
+                properties.getMaxLimit(), properties.getTolerance());
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!properties.isEnabled()) {
+            return true;
+        }
+        boolean read = HttpMethod.GET.matches(request.getMethod()) || HttpMethod.HEAD.matches(request.getMethod());
+        if (!limit.tryAcquire(read ? properties.getReadShare() : properties.getWriteShare())) {
+            throw new ServiceOverloadedException("Too many concurrent requests, please retry");
+        }
+        request.setAttribute(STARTED_AT, System.nanoTime());
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (request.getAttribute(STARTED_AT) instanceof Long startedAt) {
+            // Exceptions resolved by GlobalExceptionHandler are not passed as ex, only kept as a request attribute.
+            Throwable failure = ex != null ? ex : (Throwable) request.getAttribute(DispatcherServlet.EXCEPTION_ATTRIBUTE);
+            boolean dropped = response.getStatus() == HttpStatus.SERVICE_UNAVAILABLE.value() || isOverload(failure);
+            limit.release(System.nanoTime() - startedAt, dropped);
+        }
+    }
+
+    /**
+     * Only exhaustion and timeouts say the server is overloaded. Other failures, including client mistakes
+     * that the catch-all handler answers with 500, must not shrink the limit for everyone else.
+     */
+    static boolean isOverload(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause() == cause ? null : cause.getCause()) {
+            if (cause instanceof ServiceOverloadedException
+                    || cause instanceof CannotCreateTransactionException
+                    || cause instanceof CannotGetJdbcConnectionException
+                    || cause instanceof TransientDataAccessResourceException
+                    || cause instanceof QueryTimeoutException
+                    || cause instanceof TimeoutException
+                    || cause instanceof SocketTimeoutException
+                    || cause instanceof HttpTimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int limit() {
+        return limit.limit();
+    }
+
+    public int inFlight() {
+        return limit.inFlight();
+    }
+
+    public long rejected() {
+        return limit.rejected();
+    }
+}
@@ -0,0 +1,57 @@
+package pl.cbdd.complaintapi.overload;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+import pl.cbdd.complaintapi.config.ComplaintProperties;
+import pl.cbdd.complaintapi.exception.ServiceOverloadedException;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounds concurrent exports. An export holds a pooled connection for as long as the client reads, so
+ * without a bound a few slow downloads could take the pool from every other request. Exports beyond
+ * {@code complaints.export.max-concurrent} are rejected with a 503 before a connection is taken.
+ */
+@Component
+public class ExportLimitInterceptor implements HandlerInterceptor {
+
+    private static final String ACQUIRED = ExportLimitInterceptor.class.getName() + ".acquired";
+
+    private final int maxConcurrent;
+    private final Semaphore permits;
+    private final LongAdder rejected = new LongAdder();
+
+    public ExportLimitInterceptor(ComplaintProperties complaintProperties) {
+        this.maxConcurrent = complaintProperties.getExport().getMaxConcurrent();
+        this.permits = new Semaphore(maxConcurrent);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!permits.tryAcquire()) {
+            rejected.increment();
+            throw new ServiceOverloadedException("Too many concurrent exports, please retry");
+        }
+        request.setAttribute(ACQUIRED, Boolean.TRUE);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (request.getAttribute(ACQUIRED) != null) {
+            request.removeAttribute(ACQUIRED);
+            permits.release();
+        }
+    }
+
+    public int inFlight() {
+        return maxConcurrent - permits.availablePermits();
+    }
+
+    public long rejected() {
+        return rejected.sum();
+    }
+}
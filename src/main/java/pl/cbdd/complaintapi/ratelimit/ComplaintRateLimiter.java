@@ -0,0 +1,79 @@
+package pl.cbdd.complaintapi.ratelimit;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import pl.cbdd.complaintapi.config.ComplaintProperties;
+import pl.cbdd.complaintapi.exception.RateLimitExceededException;
+
+import java.time.Duration;
+
+/**
+ * Limits how often one client IP and one reporter may add complaints, before any database or GeoLocation
+ * work is done. Each dimension has its own token bucket per key; idle buckets are evicted periodically.
+ */
+@Component
+public class ComplaintRateLimiter {
+
+    private final ComplaintProperties.RateLimit properties;
+    private final KeyedRateLimiter perIp;
+    private final KeyedRateLimiter perReporter;
+
+    public ComplaintRateLimiter(ComplaintProperties complaintProperties) {
+        this.properties = complaintProperties.getRateLimit();
+        this.perIp = new KeyedRateLimiter(properties.getPerIp().getPermitsPerSecond(),
+                properties.getPerIp().getBurst(), properties.getMaxKeys());
+        this.perReporter = new KeyedRateLimiter(properties.getPerReporter().getPermitsPerSecond(),
+                properties.getPerReporter().getBurst(), properties.getMaxKeys());
+    }
+
+    /**
+     * Takes a permit for the client IP and then for the reporter, either of which may be {@code null}.
+     *
+     * @throws RateLimitExceededException when either has no permit left
+     */
+    public void acquire(String clientIp, String reporter) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        long now = System.nanoTime();
+        if (clientIp != null) {
+            reject("client IP", perIp.acquire(clientIp, now));
+        }
+        if (reporter != null) {
+            reject("reporter", perReporter.acquire(reporter, now));
+        }
+    }
+
+    /**
+     * Takes a permit for the reporter of a batch item. Returns {@code false} instead of throwing, so a batch
+     * fails only that reporter's items.
+     */
+    public boolean tryAcquireReporter(String reporter) {
+        return !properties.isEnabled() || perReporter.acquire(reporter, System.nanoTime()) == 0;
+    }
+
+    public long rejectedByIp() {
+        return perIp.rejected();
+    }
+
+    public long rejectedByReporter() {
+        return perReporter.rejected();
+    }
+
+    public int trackedKeys() {
+        return perIp.size() + perReporter.size();
+    }
+
+    @Scheduled(fixedDelayString = "${complaints.rate-limit.eviction-interval:PT30S}")
+    void evictIdle() {
+        long now = System.nanoTime();
+        perIp.evictIdle(now);
+        perReporter.evictIdle(now);
+    }
+
+    private static void reject(String dimension, long waitNanos) {
+        if (waitNanos > 0) {
+            throw new RateLimitExceededException("Too many complaints from this " + dimension, Duration.ofNanos(waitNanos));
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package pl.cbdd.complaintapi.ratelimit;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Token bucket per key, stored as a single "theoretical arrival time" (the generic cell rate algorithm):
+ * a permit is granted when the bucket would not run more than {@code burst} permits ahead of now. A
+ * request costs one map lookup and one CAS, with no locks. A bucket whose arrival time has passed is
+ * full again and equivalent to a missing one, so it can be evicted at any time.
+ */
+final class KeyedRateLimiter {
+
+    private final long interval;
+    private final long tolerance;
+    private final int maxKeys;
+    private final ConcurrentMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final LongAdder rejected = new LongAdder();
+
+    KeyedRateLimiter(double permitsPerSecond, int burst, int maxKeys) {
+        this.interval = (long) (1_000_000_000L / permitsPerSecond);
+        this.tolerance = interval * burst;
+        this.maxKeys = maxKeys;
+    }
+
+    /**
+     * Takes a permit for {@code key} at {@code now} (nanos) and returns 0, or returns how many nanos to wait
+     * until one is available. When {@code maxKeys} buckets are tracked, new keys are let through untracked
+     * until the next {@link #evictIdle} makes room, rather than growing the map.
+     */
+    long acquire(String key, long now) {
+        AtomicLong bucket = buckets.get(key);
+        if (bucket == null) {
+            if (buckets.size() >= maxKeys) {
+                return 0;
+            }
+            bucket = buckets.computeIfAbsent(key, k -> new AtomicLong(now));
+        }
+        while (true) {
+            long arrival = bucket.get();
+            long next = Math.max(arrival, now) + interval;
+            long wait = next - now - tolerance;
+            if (wait > 0) {
+                rejected.increment();
+                return wait;
+            }
+            if (bucket.compareAndSet(arrival, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Removes buckets that have refilled completely and returns how many were removed.
+     */
+    int evictIdle(long now) {
+        int evicted = 0;
+        for (var entry : buckets.entrySet()) {
+            if (entry.getValue().get() <= now && buckets.remove(entry.getKey(), entry.getValue())) {
+                evicted++;
+            }
+        }
+        return evicted;
+    }
+
+    long rejected() {
+        return rejected.sum();
+    }
+
+    int size() {
+        return buckets.size();
+    }
+}
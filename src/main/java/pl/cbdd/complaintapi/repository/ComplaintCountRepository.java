@@ -0,0 +1,10 @@
+package pl.cbdd.complaintapi.repository;
+
+public interface ComplaintCountRepository {
+
+    /**
+     * Cheap row count estimate from planner statistics on PostgreSQL, exact {@code count(*)} elsewhere
+     * or when the table has not been analyzed yet.
+     */
+    long estimateCount();
+}
@@ -0,0 +1,32 @@
+package pl.cbdd.complaintapi.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+@RequiredArgsConstructor
+public class ComplaintCountRepositoryImpl implements ComplaintCountRepository {
+
+    private static final String POSTGRES_ESTIMATE =
+            "SELECT reltuples::bigint FROM pg_class WHERE oid = 'complaints'::regclass";
+
+    private static final String EXACT_COUNT = "SELECT count(*) FROM complaints";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private volatile Boolean postgres;
+
+    @Override
+    public long estimateCount() {
+        if (postgres == null) {
+            postgres = DatabasePlatform.isPostgres(jdbcTemplate);
+        }
+        if (postgres) {
+            Long estimate = jdbcTemplate.queryForObject(POSTGRES_ESTIMATE, Long.class);
+            if (estimate != null && estimate >= 0) {
+                return estimate;
+            }
+        }
+        Long count = jdbcTemplate.queryForObject(EXACT_COUNT, Long.class);
+        return count != null ? count : 0;
+    }
+}
@@ -0,0 +1,16 @@
+package pl.cbdd.complaintapi.repository;
+
+import pl.cbdd.complaintapi.dto.ExportFilter;
+import pl.cbdd.complaintapi.model.Complaint;
+
+import java.util.function.Consumer;
+
+public interface ComplaintExportRepository {
+
+    /**
+     * Streams the matching complaints in {@code id} order through a forward-only cursor, fetching {@code fetchSize}
+     * rows per round trip. Complaints are plain objects, not attached to any persistence context. Must be called
+     * inside a transaction, otherwise PostgreSQL reads the whole result at once.
+     */
+    void streamComplaints(ExportFilter filter, int fetchSize, Consumer<Complaint> consumer);
+}
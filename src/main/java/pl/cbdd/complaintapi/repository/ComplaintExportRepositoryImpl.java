@@ -0,0 +1,58 @@
+package pl.cbdd.complaintapi.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import pl.cbdd.complaintapi.dto.ExportFilter;
+import pl.cbdd.complaintapi.model.Complaint;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+@RequiredArgsConstructor
+public class ComplaintExportRepositoryImpl implements ComplaintExportRepository {
+
+    private static final String SELECT = "SELECT " + ComplaintUpsertRepositoryImpl.COLUMNS + " FROM complaints WHERE 1 = 1";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void streamComplaints(ExportFilter filter, int fetchSize, Consumer<Complaint> consumer) {
+        StringBuilder sql = new StringBuilder(SELECT);
+        List<Object> args = new ArrayList<>();
+        if (filter.after() != null) {
+            sql.append(" AND id > ?");
+            args.add(filter.after());
+        }
+        if (filter.productId() != null) {
+            sql.append(" AND product_id = ?");
+            args.add(filter.productId());
+        }
+        if (filter.country() != null) {
+            sql.append(" AND country = ?");
+            args.add(filter.country());
+        }
+        if (filter.since() != null) {
+            sql.append(" AND created_at >= ?");
+            args.add(Timestamp.from(filter.since()));
+        }
+        sql.append(" ORDER BY id");
+
+        int[] rowNum = new int[1];
+        RowCallbackHandler handler = rs -> consumer.accept(
+                ComplaintUpsertRepositoryImpl.COMPLAINT_ROW_MAPPER.mapRow(rs, rowNum[0]++));
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql.toString(),
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(fetchSize);
+            for (int i = 0; i < args.size(); i++) {
+                statement.setObject(i + 1, args.get(i));
+            }
+            return statement;
+        }, handler);
+    }
+}
@@ -1,18 +1,55 @@
 package pl.cbdd.complaintapi.repository;
 
-import jakarta.persistence.LockModeType;
+import jakarta.transaction.Transactional;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import pl.cbdd.complaintapi.model.Complaint;
 
+import java.sql.Timestamp;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
-public interface ComplaintRepository extends JpaRepository<Complaint, UUID> {
-
-    @Override
-    @Lock(value = LockModeType.PESSIMISTIC_WRITE)
-    Optional<Complaint> findById(UUID id);
+public interface ComplaintRepository extends JpaRepository<Complaint, UUID>, ComplaintUpsertRepository,
+        ComplaintCountRepository, ComplaintExportRepository, ComplaintStatsRepository,
+        ComplaintSearchRepository {
 
     Optional<Complaint> findByProductIdAndReporter(String productId, String reporter);
+
+    Slice<Complaint> findAllBy(Pageable pageable);
+
+    /**
+     * Current version only, so conditional requests can be answered without loading {@code content}.
+     */
+    @Query("select c.version from Complaint c where c.id = :id")
+    Optional<Long> findVersionById(@Param("id") UUID id);
+
+    @Query("select c from Complaint c order by c.createdAt desc, c.id desc")
+    List<Complaint> findNewest(Limit limit);
+
+    /**
+     * Next page after the given key. The redundant {@code createdAt <= :createdAt} bounds the index range scan,
+     * the rest skips rows of the same timestamp that were already returned.
+     */
+    @Query("select c from Complaint c where c.createdAt <= :createdAt and (c.createdAt < :createdAt or c.id < :id) "
+            + "order by c.createdAt desc, c.id desc")
+    List<Complaint> findNewestBefore(@Param("createdAt") Timestamp createdAt, @Param("id") UUID id, Limit limit);
+
+    @Transactional
+    @Modifying
+    @Query("update Complaint c set c.country = :country, c.version = c.version + 1 " +
+            "where c.id in :ids and c.country = :pending")
+    int updatePendingCountry(@Param("ids") Collection<UUID> ids, @Param("country") String country,
+                             @Param("pending") String pending);
+
+    @Transactional
+    @Modifying
+    @Query("update Complaint c set c.clusterId = :clusterId, c.version = c.version + 1 where c.id = :id")
+    int updateClusterId(@Param("id") UUID id, @Param("clusterId") UUID clusterId);
 }
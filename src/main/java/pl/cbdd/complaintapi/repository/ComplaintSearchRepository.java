@@ -0,0 +1,31 @@
+package pl.cbdd.complaintapi.repository;
+
+import pl.cbdd.complaintapi.model.Complaint;
+
+import java.util.List;
+import java.util.UUID;
+
+public interface ComplaintSearchRepository {
+
+    /**
+     * Whether {@link #searchContent} is available, i.e. the database is PostgreSQL.
+     */
+    boolean hasFullTextIndex();
+
+    /**
+     * Complaints whose content contains every word of {@code query}, by rank and then id, both descending.
+     * Only the {@code maxCandidates} most recent matches are ranked. Requires the PostgreSQL full-text index
+     * on {@code content}.
+     *
+     * @param productId      optional filter
+     * @param country        optional filter
+     * @param afterRank      rank of the last hit of the previous page, or {@code null} for the first page
+     * @param afterId        id of the last hit of the previous page
+     * @param maxCandidates  most recent matches to rank
+     */
+    List<SearchHit> searchContent(String query, String productId, String country, Float afterRank, UUID afterId,
+                                  int maxCandidates, int limit);
+
+    record SearchHit(Complaint complaint, float rank) {
+    }
+}
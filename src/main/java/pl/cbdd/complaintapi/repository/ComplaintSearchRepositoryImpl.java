@@ -0,0 +1,60 @@
+package pl.cbdd.complaintapi.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+@RequiredArgsConstructor
+public class ComplaintSearchRepositoryImpl implements ComplaintSearchRepository {
+
+    // 'simple' only lowercases, without language-specific stemming, since complaints come in any language.
+    // ts_rank reads each row's tsvector, so only a bounded set of candidates, the most recent matches, is ranked.
+    private static final String SEARCH = "SELECT * FROM (SELECT " + ComplaintUpsertRepositoryImpl.COLUMNS
+            + ", ts_rank(content_tsv, plainto_tsquery('simple', ?)) AS rank FROM (SELECT * FROM complaints"
+            + " WHERE content_tsv @@ plainto_tsquery('simple', ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private volatile Boolean postgres;
+
+    @Override
+    public boolean hasFullTextIndex() {
+        if (postgres == null) {
+            postgres = DatabasePlatform.isPostgres(jdbcTemplate);
+        }
+        return postgres;
+    }
+
+    @Override
+    public List<SearchHit> searchContent(String query, String productId, String country, Float afterRank,
+                                         UUID afterId, int maxCandidates, int limit) {
+        StringBuilder sql = new StringBuilder(SEARCH);
+        List<Object> args = new ArrayList<>();
+        args.add(query);
+        args.add(query);
+        if (productId != null) {
+            sql.append(" AND product_id = ?");
+            args.add(productId);
+        }
+        if (country != null) {
+            sql.append(" AND country = ?");
+            args.add(country);
+        }
+        sql.append(" ORDER BY id DESC LIMIT ?) candidates) hits");
+        args.add(maxCandidates);
+        if (afterRank != null) {
+            sql.append(" WHERE rank < ? OR (rank = ? AND id < ?)");
+            args.add(afterRank);
+            args.add(afterRank);
+            args.add(afterId);
+        }
+        sql.append(" ORDER BY rank DESC, id DESC LIMIT ?");
+        args.add(limit);
+
+        return jdbcTemplate.query(sql.toString(), (rs, rowNum) -> new SearchHit(
+                ComplaintUpsertRepositoryImpl.COMPLAINT_ROW_MAPPER.mapRow(rs, rowNum), rs.getFloat("rank")), args.toArray());
+    }
+}
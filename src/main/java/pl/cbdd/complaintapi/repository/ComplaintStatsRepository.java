@@ -0,0 +1,20 @@
+package pl.cbdd.complaintapi.repository;
+
+public interface ComplaintStatsRepository {
+
+    /**
+     * Calls {@code consumer} once per country with its number of complaints and reports.
+     */
+    void aggregateByCountry(TotalsConsumer consumer);
+
+    /**
+     * Calls {@code consumer} once per product with its number of complaints and reports, streamed
+     * {@code fetchSize} rows at a time.
+     */
+    void aggregateByProduct(int fetchSize, TotalsConsumer consumer);
+
+    @FunctionalInterface
+    interface TotalsConsumer {
+        void accept(String key, long complaints, long reports);
+    }
+}
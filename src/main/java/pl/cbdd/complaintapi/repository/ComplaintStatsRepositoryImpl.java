@@ -0,0 +1,39 @@
+package pl.cbdd.complaintapi.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+
+@RequiredArgsConstructor
+public class ComplaintStatsRepositoryImpl implements ComplaintStatsRepository {
+
+    private static final String BY_COUNTRY =
+            "SELECT country, count(*), sum(report_count) FROM complaints GROUP BY country";
+
+    private static final String BY_PRODUCT =
+            "SELECT product_id, count(*), sum(report_count) FROM complaints GROUP BY product_id";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void aggregateByCountry(TotalsConsumer consumer) {
+        jdbcTemplate.query(BY_COUNTRY, handler(consumer));
+    }
+
+    @Override
+    public void aggregateByProduct(int fetchSize, TotalsConsumer consumer) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(BY_PRODUCT,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(fetchSize);
+            return statement;
+        }, handler(consumer));
+    }
+
+    private static RowCallbackHandler handler(TotalsConsumer consumer) {
+        return rs -> consumer.accept(rs.getString(1), rs.getLong(2), rs.getLong(3));
+    }
+}
@@ -0,0 +1,34 @@
+package pl.cbdd.complaintapi.repository;
+
+import pl.cbdd.complaintapi.model.Complaint;
+import pl.cbdd.complaintapi.model.ComplaintKey;
+
+import java.util.List;
+import java.util.Map;
+
+public interface ComplaintUpsertRepository {
+
+    /**
+     * Inserts the complaint, or increments {@code report_count} of the existing complaint with the same
+     * product and reporter, in a single atomic statement. Returns the row as stored after the write.
+     */
+    Complaint upsertReport(Complaint complaint);
+
+    /**
+     * Batch variant of {@link #upsertReport(Complaint)}: each complaint is inserted with, or adds to the existing
+     * complaint, its {@code reportCount}. Keys must be distinct. Returns the stored rows in input order, each
+     * with whether this write inserted it.
+     */
+    List<UpsertedComplaint> upsertReports(List<Complaint> complaints);
+
+    /**
+     * Adds the given deltas to {@code report_count} of the matching complaints in one JDBC batch.
+     */
+    void incrementReportCounts(Map<ComplaintKey, Long> deltas);
+
+    /**
+     * A complaint as stored by an upsert, and whether the upsert inserted it rather than adding to an existing row.
+     */
+    record UpsertedComplaint(Complaint complaint, boolean inserted) {
+    }
+}
@@ -0,0 +1,234 @@
+package pl.cbdd.complaintapi.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import pl.cbdd.complaintapi.model.Complaint;
+import pl.cbdd.complaintapi.model.ComplaintKey;
+import pl.cbdd.complaintapi.model.TimeOrderedUuidGenerator;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Upserts backed by the {@code (product_id, reporter)} unique constraint. On PostgreSQL this is one
+ * {@code INSERT ... ON CONFLICT ... RETURNING} round trip, and {@code xmax = 0} in the returned row tells
+ * an insert from an update; other databases (H2 in tests) fall back to update-then-insert, which is still
+ * safe under concurrency thanks to the constraint, and a row is inserted when its update matched nothing.
+ */
+@RequiredArgsConstructor
+public class ComplaintUpsertRepositoryImpl implements ComplaintUpsertRepository {
+
+    static final String COLUMNS =
+            "id, version, product_id, content, created_at, modified_at, reporter, country, report_count, cluster_id";
+
+    private static final String POSTGRES_UPSERT = """
+            INSERT INTO complaints (id, version, product_id, content, created_at, modified_at, reporter, country, report_count)
+            VALUES (?, 0, ?, ?, ?, ?, ?, ?, 1)
+            ON CONFLICT (product_id, reporter) DO UPDATE
+            SET report_count = complaints.report_count + 1,
+                version = complaints.version + 1,
+                modified_at = EXCLUDED.modified_at
+            RETURNING\s""" + COLUMNS;
+
+    private static final String POSTGRES_UPSERT_BATCH_INSERT =
+            "INSERT INTO complaints (id, version, product_id, content, created_at, modified_at, reporter, country, report_count) VALUES ";
+
+    private static final String POSTGRES_UPSERT_BATCH_ROW = "(?, 0, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String POSTGRES_UPSERT_BATCH_CONFLICT = """
+             ON CONFLICT (product_id, reporter) DO UPDATE
+            SET report_count = complaints.report_count + EXCLUDED.report_count,
+                version = complaints.version + 1,
+                modified_at = EXCLUDED.modified_at
+            RETURNING\s""" + COLUMNS + ", (xmax = 0) AS inserted";
+
+    /**
+     * Rows per multi-row upsert, which keeps a statement well below PostgreSQL's limit of 65535 bind parameters.
+     */
+    private static final int POSTGRES_UPSERT_BATCH_ROWS = 1000;
+
+    private static final String INCREMENT = """
+            UPDATE complaints
+            SET report_count = report_count + 1, version = version + 1, modified_at = ?
+            WHERE product_id = ? AND reporter = ?""";
+
+    private static final String INCREMENT_BY = """
+            UPDATE complaints
+            SET report_count = report_count + ?, version = version + 1, modified_at = ?
+            WHERE product_id = ? AND reporter = ?""";
+
+    private static final String INSERT = """
+            INSERT INTO complaints (id, version, product_id, content, created_at, modified_at, reporter, country, report_count)
+            VALUES (?, 0, ?, ?, ?, ?, ?, ?, 1)""";
+
+    private static final String INSERT_WITH_COUNT = """
+            INSERT INTO complaints (id, version, product_id, content, created_at, modified_at, reporter, country, report_count)
+            VALUES (?, 0, ?, ?, ?, ?, ?, ?, ?)""";
+
+    private static final String SELECT_BY_KEY =
+            "SELECT " + COLUMNS + " FROM complaints WHERE product_id = ? AND reporter = ?";
+
+    static final RowMapper<Complaint> COMPLAINT_ROW_MAPPER = (rs, rowNum) -> Complaint.builder()
+            .id(rs.getObject("id", UUID.class))
+            .version(rs.getLong("version"))
+            .productId(rs.getString("product_id"))
+            .content(rs.getString("content"))
+            .createdAt(rs.getTimestamp("created_at"))
+            .modifiedAt(rs.getTimestamp("modified_at"))
+            .reporter(rs.getString("reporter"))
+            .country(rs.getString("country"))
+            .reportCount(rs.getInt("report_count"))
+            .clusterId(rs.getObject("cluster_id", UUID.class))
+            .build();
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private volatile Boolean postgres;
+
+    @Override
+    public Complaint upsertReport(Complaint complaint) {
+        requireKey(complaint);
+        UUID id = complaint.getId() != null ? complaint.getId() : TimeOrderedUuidGenerator.next();
+        Timestamp now = Timestamp.from(Instant.now());
+        Timestamp createdAt = complaint.getCreatedAt() != null ? complaint.getCreatedAt() : now;
+
+        if (isPostgres()) {
+            return jdbcTemplate.queryForObject(POSTGRES_UPSERT, COMPLAINT_ROW_MAPPER,
+                    id, complaint.getProductId(), complaint.getContent(), createdAt, now,
+                    complaint.getReporter(), complaint.getCountry());
+        }
+
+        if (jdbcTemplate.update(INCREMENT, now, complaint.getProductId(), complaint.getReporter()) == 0) {
+            try {
+                jdbcTemplate.update(INSERT, id, complaint.getProductId(), complaint.getContent(), createdAt, now,
+                        complaint.getReporter(), complaint.getCountry());
+            } catch (DuplicateKeyException e) {
+                jdbcTemplate.update(INCREMENT, now, complaint.getProductId(), complaint.getReporter());
+            }
+        }
+        return jdbcTemplate.queryForObject(SELECT_BY_KEY, COMPLAINT_ROW_MAPPER,
+                complaint.getProductId(), complaint.getReporter());
+    }
+
+    @Override
+    public void incrementReportCounts(Map<ComplaintKey, Long> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.from(Instant.now());
+        List<Object[]> batch = new ArrayList<>(deltas.size());
+        deltas.forEach((key, delta) -> batch.add(new Object[]{delta, now, key.productId(), key.reporter()}));
+        jdbcTemplate.batchUpdate(INCREMENT_BY, batch);
+    }
+
+    @Override
+    public List<UpsertedComplaint> upsertReports(List<Complaint> complaints) {
+        if (complaints.isEmpty()) {
+            return List.of();
+        }
+        complaints.forEach(ComplaintUpsertRepositoryImpl::requireKey);
+        Timestamp now = Timestamp.from(Instant.now());
+        if (isPostgres()) {
+            Map<ComplaintKey, UpsertedComplaint> byKey = new HashMap<>();
+            for (int from = 0; from < complaints.size(); from += POSTGRES_UPSERT_BATCH_ROWS) {
+                upsertRows(complaints.subList(from, Math.min(from + POSTGRES_UPSERT_BATCH_ROWS, complaints.size())), now)
+                        .forEach(upserted -> byKey.put(ComplaintKey.of(upserted.complaint()), upserted));
+            }
+            return complaints.stream()
+                    .map(complaint -> byKey.get(ComplaintKey.of(complaint)))
+                    .toList();
+        }
+
+        List<Object[]> increments = new ArrayList<>(complaints.size());
+        complaints.forEach(complaint -> increments.add(new Object[]{complaint.getReportCount(), now,
+                complaint.getProductId(), complaint.getReporter()}));
+        int[] updated = jdbcTemplate.batchUpdate(INCREMENT_BY, increments);
+
+        List<Object[]> inserts = new ArrayList<>();
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) {
+                inserts.add(insertArgs(complaints.get(i), now));
+            }
+        }
+        if (!inserts.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_WITH_COUNT, inserts);
+        }
+        List<Complaint> stored = findByKeys(complaints);
+        List<UpsertedComplaint> upserted = new ArrayList<>(stored.size());
+        for (int i = 0; i < stored.size(); i++) {
+            upserted.add(new UpsertedComplaint(stored.get(i), updated[i] == 0));
+        }
+        return upserted;
+    }
+
+    /**
+     * One multi-row {@code INSERT ... ON CONFLICT ... RETURNING}, so the stored rows and whether each was
+     * inserted come back with the write. Rows are returned in no particular order.
+     */
+    private List<UpsertedComplaint> upsertRows(List<Complaint> complaints, Timestamp now) {
+        String sql = POSTGRES_UPSERT_BATCH_INSERT
+                + String.join(", ", Collections.nCopies(complaints.size(), POSTGRES_UPSERT_BATCH_ROW))
+                + POSTGRES_UPSERT_BATCH_CONFLICT;
+        List<Object> args = new ArrayList<>(complaints.size() * 8);
+        complaints.forEach(complaint -> Collections.addAll(args, insertArgs(complaint, now)));
+        return jdbcTemplate.query(sql, (rs, rowNum) -> new UpsertedComplaint(COMPLAINT_ROW_MAPPER.mapRow(rs, rowNum),
+                rs.getBoolean("inserted")), args.toArray());
+    }
+
+    /**
+     * A {@code null} product or reporter never matches {@code =}, and the unique constraint does not apply to
+     * it either, so such a complaint would be inserted again on every report and could not be read back.
+     */
+    private static void requireKey(Complaint complaint) {
+        if (complaint.getProductId() == null || complaint.getReporter() == null) {
+            throw new IllegalArgumentException("productId and reporter are required");
+        }
+    }
+
+    private static Object[] insertArgs(Complaint complaint, Timestamp now) {
+        UUID id = complaint.getId() != null ? complaint.getId() : TimeOrderedUuidGenerator.next();
+        Timestamp createdAt = complaint.getCreatedAt() != null ? complaint.getCreatedAt() : now;
+        return new Object[]{id, complaint.getProductId(), complaint.getContent(), createdAt, now,
+                complaint.getReporter(), complaint.getCountry(), complaint.getReportCount()};
+    }
+
+    /**
+     * Reads the given complaints back in input order with one query. Keys are matched as pairs: separate
+     * {@code IN} lists for products and reporters would also return every other combination of the two.
+     */
+    private List<Complaint> findByKeys(List<Complaint> complaints) {
+        Set<ComplaintKey> keys = new LinkedHashSet<>();
+        complaints.forEach(complaint -> keys.add(ComplaintKey.of(complaint)));
+        String sql = "SELECT " + COLUMNS + " FROM complaints WHERE (product_id, reporter) IN ("
+                + String.join(", ", Collections.nCopies(keys.size(), "(?, ?)")) + ")";
+        List<Object> args = new ArrayList<>(keys.size() * 2);
+        keys.forEach(key -> {
+            args.add(key.productId());
+            args.add(key.reporter());
+        });
+
+        Map<ComplaintKey, Complaint> byKey = new HashMap<>();
+        jdbcTemplate.query(sql, COMPLAINT_ROW_MAPPER, args.toArray())
+                .forEach(complaint -> byKey.put(ComplaintKey.of(complaint), complaint));
+        return complaints.stream()
+                .map(complaint -> byKey.get(ComplaintKey.of(complaint)))
+                .toList();
+    }
+
+    private boolean isPostgres() {
+        if (postgres == null) {
+            postgres = DatabasePlatform.isPostgres(jdbcTemplate);
+        }
+        return postgres;
+    }
+}
@@ -0,0 +1,192 @@
+package pl.cbdd.complaintapi.search;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import pl.cbdd.complaintapi.config.ComplaintProperties;
+import pl.cbdd.complaintapi.dto.ExportFilter;
+import pl.cbdd.complaintapi.model.Complaint;
+import pl.cbdd.complaintapi.repository.ComplaintRepository;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * In-process inverted index over complaint content, used for search when the database has no full-text
+ * index (H2). Words are lowercased and split on anything that is not a letter or digit, like PostgreSQL's
+ * {@code simple} configuration. Hits are ranked by tf-idf. The index is built in the background on startup
+ * and kept up to date by the write paths of this instance.
+ */
+@Slf4j
+@Component
+public class ComplaintSearchIndex {
+
+    private static final Pattern WORD_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private final ComplaintRepository complaintRepository;
+    private final ComplaintProperties properties;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Map<UUID, Integer>> postings = new HashMap<>();
+    private final Map<UUID, Document> documents = new HashMap<>();
+    private volatile boolean enabled;
+
+    public ComplaintSearchIndex(ComplaintRepository complaintRepository, ComplaintProperties properties) {
+        this.complaintRepository = complaintRepository;
+        this.properties = properties;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Starts the rebuild without holding up startup. Until it finishes, search only finds complaints
+     * indexed so far.
+     */
+    @PostConstruct
+    void init() {
+        enabled = !complaintRepository.hasFullTextIndex();
+        if (enabled) {
+            Thread.ofPlatform().name("search-index-rebuild").daemon().start(this::rebuild);
+        }
+    }
+
+    /**
+     * Rows already indexed by a write path meanwhile are skipped, since the scan may have read them
+     * before that write.
+     */
+    void rebuild() {
+        long start = System.currentTimeMillis();
+        try {
+            complaintRepository.streamComplaints(new ExportFilter(null, null, null, null),
+                    properties.getExport().getFetchSize(), complaint -> index(complaint, false));
+            log.info("Indexed {} complaints for search in {} ms", size(), System.currentTimeMillis() - start);
+        } catch (RuntimeException e) {
+            log.warn("Could not rebuild the search index, continuing with {} complaints", size(), e);
+        }
+    }
+
+    /**
+     * Adds the complaint or replaces its previously indexed content.
+     */
+    public void index(Complaint complaint) {
+        index(complaint, true);
+    }
+
+    private void index(Complaint complaint, boolean replace) {
+        if (!enabled) {
+            return;
+        }
+        Map<String, Integer> termCounts = new HashMap<>();
+        for (String term : tokenize(complaint.getContent())) {
+            termCounts.merge(term, 1, Integer::sum);
+        }
+        int length = termCounts.values().stream().mapToInt(Integer::intValue).sum();
+        lock.writeLock().lock();
+        try {
+            if (!replace && documents.containsKey(complaint.getId())) {
+                return;
+            }
+            Document previous = documents.put(complaint.getId(), new Document(termCounts.keySet(), length));
+            if (previous != null) {
+                previous.terms().forEach(term -> removePosting(term, complaint.getId()));
+            }
+            termCounts.forEach((term, count) -> postings.computeIfAbsent(term, t -> new HashMap<>()).put(complaint.getId(), count));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Ids of complaints containing every word of {@code query}, by rank and then id, both descending.
+     * With {@code afterRank} set, only hits ranked after {@code (afterRank, afterId)} are returned.
+     */
+    public List<Hit> search(String query, Float afterRank, UUID afterId) {
+        List<String> terms = tokenize(query).stream().distinct().toList();
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+        List<Hit> hits = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            List<Map<UUID, Integer>> termPostings = new ArrayList<>(terms.size());
+            for (String term : terms) {
+                Map<UUID, Integer> posting = postings.get(term);
+                if (posting == null) {
+                    return List.of();
+                }
+                termPostings.add(posting);
+            }
+            // Walk the rarest word's postings and probe the others.
+            termPostings.sort(Comparator.comparingInt(Map::size));
+            int total = documents.size();
+            for (UUID id : termPostings.get(0).keySet()) {
+                float rank = 0;
+                for (Map<UUID, Integer> posting : termPostings) {
+                    Integer count = posting.get(id);
+                    if (count == null) {
+                        rank = -1;
+                        break;
+                    }
+                    rank += (float) (count * Math.log(1 + (double) total / posting.size()) / documents.get(id).length());
+                }
+                if (rank >= 0 && (afterRank == null || rank < afterRank || (rank == afterRank && id.compareTo(afterId) < 0))) {
+                    hits.add(new Hit(id, rank));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        hits.sort(Comparator.comparing(Hit::rank).thenComparing(Hit::id).reversed());
+        return hits;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Lowercased words of {@code text}, in order.
+     */
+    public static List<String> tokenize(String text) {
+        if (text == null) {
+            return List.of();
+        }
+        List<String> terms = new ArrayList<>();
+        for (String word : WORD_SEPARATOR.split(text.toLowerCase(Locale.ROOT))) {
+            if (!word.isEmpty()) {
+                terms.add(word);
+            }
+        }
+        return terms;
+    }
+
+    private void removePosting(String term, UUID id) {
+        Map<UUID, Integer> posting = postings.get(term);
+        posting.remove(id);
+        if (posting.isEmpty()) {
+            postings.remove(term);
+        }
+    }
+
+    public record Hit(UUID id, float rank) {
+    }
+
+    private record Document(Set<String> terms, int length) {
+    }
+}
@@ -0,0 +1,247 @@
+package pl.cbdd.complaintapi.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+import pl.cbdd.complaintapi.cache.ComplaintResponseCache;
+import pl.cbdd.complaintapi.config.ComplaintProperties;
+import pl.cbdd.complaintapi.dto.ComplaintBatchItem;
+import pl.cbdd.complaintapi.dto.ComplaintBatchResponse;
+import pl.cbdd.complaintapi.dto.ComplaintBatchResult;
+import pl.cbdd.complaintapi.dto.ComplaintBatchResult.Status;
+import pl.cbdd.complaintapi.exception.ComplaintCreationException;
+import pl.cbdd.complaintapi.model.Complaint;
+import pl.cbdd.complaintapi.model.ComplaintKey;
+import pl.cbdd.complaintapi.ratelimit.ComplaintRateLimiter;
+import pl.cbdd.complaintapi.repository.ComplaintRepository;
+import pl.cbdd.complaintapi.repository.ComplaintUpsertRepository.UpsertedComplaint;
+import pl.cbdd.complaintapi.search.ComplaintSearchIndex;
+import pl.cbdd.complaintapi.stats.ComplaintStatistics;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Bulk ingestion for {@code POST /api/v1/complaints/batch}. Items are written in chunks of
+ * {@code complaints.batch.chunk-size}, each chunk with one JDBC batch upsert in its own transaction, so a
+ * failing chunk does not roll back the others. Repeats of the same product and reporter within a chunk
+ * become one write, and each distinct IP is resolved to a country once per batch, or new complaints are left to
+ * {@link CountryEnrichmentService} when {@code geolocation.enrichment.async} is set. Each distinct reporter
+ * takes one permit from the per-reporter rate limit, and a batch may carry at most
+ * {@code complaints.batch.max-distinct-ips} item IPs.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ComplaintBatchService {
+
+    private final ComplaintRepository complaintRepository;
+    private final CountryResolver countryResolver;
+    private final CountryEnrichmentService countryEnrichmentService;
+    private final ReportCountBuffer reportCountBuffer;
+    private final ComplaintResponseCache complaintResponseCache;
+    private final ComplaintStatistics complaintStatistics;
+    private final ComplaintSearchIndex complaintSearchIndex;
+    private final ComplaintClusterService complaintClusterService;
+    private final ComplaintRateLimiter complaintRateLimiter;
+    private final TransactionTemplate transactionTemplate;
+    private final ComplaintProperties properties;
+    private final ObjectMapper objectMapper;
+
+    public ComplaintBatchResponse ingest(List<ComplaintBatchItem> items, String clientIp) {
+        int maxItems = properties.getBatch().getMaxItems();
+        if (items.size() > maxItems) {
+            throw new ComplaintCreationException("Batch of " + items.size() + " complaints exceeds the limit of " + maxItems);
+        }
+        Ingestion ingestion = new Ingestion(clientIp);
+        items.forEach(ingestion::accept);
+        return ingestion.finish(false);
+    }
+
+    /**
+     * Reads one complaint per line and writes each chunk as soon as it is full, so memory use does not
+     * grow with the size of the stream. Malformed lines fail individually.
+     */
+    public ComplaintBatchResponse ingestNdjson(BufferedReader reader, String clientIp) throws IOException {
+        ObjectReader itemReader = objectMapper.readerFor(ComplaintBatchItem.class);
+        int maxItems = properties.getBatch().getMaxItems();
+        Ingestion ingestion = new Ingestion(clientIp);
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            if (ingestion.received == maxItems) {
+                return ingestion.finish(true);
+            }
+            try {
+                ingestion.accept(itemReader.readValue(line));
+            } catch (JsonProcessingException e) {
+                ingestion.reject("Malformed complaint: " + e.getOriginalMessage());
+            }
+        }
+        return ingestion.finish(false);
+    }
+
+    private final class Ingestion {
+
+        private final String clientIp;
+        private final Map<String, String> countryByIp = new HashMap<>();
+        private final Set<String> ips = new HashSet<>();
+        private final Map<String, Boolean> reporterPermits = new HashMap<>();
+        private final List<ComplaintBatchResult> results = new ArrayList<>();
+        private final List<PendingItem> chunk = new ArrayList<>();
+        private int received;
+
+        private Ingestion(String clientIp) {
+            this.clientIp = clientIp;
+        }
+
+        private void accept(ComplaintBatchItem item) {
+            int index = received++;
+            if (item == null || !StringUtils.hasText(item.getProductId()) || !StringUtils.hasText(item.getReporter())
+                    || !StringUtils.hasText(item.getContent())) {
+                results.add(ComplaintBatchResult.failed(index, "productId, content and reporter are required"));
+                return;
+            }
+            if (!reporterPermits.computeIfAbsent(item.getReporter(), complaintRateLimiter::tryAcquireReporter)) {
+                results.add(ComplaintBatchResult.failed(index, "Too many complaints from this reporter"));
+                return;
+            }
+            String ip = ipOf(item);
+            if (!ips.contains(ip) && ips.size() >= properties.getBatch().getMaxDistinctIps()) {
+                results.add(ComplaintBatchResult.failed(index, "Batch carries more than "
+                        + properties.getBatch().getMaxDistinctIps() + " distinct IPs"));
+                return;
+            }
+            ips.add(ip);
+            chunk.add(new PendingItem(index, item));
+            if (chunk.size() >= properties.getBatch().getChunkSize()) {
+                writeChunk();
+            }
+        }
+
+        private String ipOf(ComplaintBatchItem item) {
+            return StringUtils.hasText(item.getIp()) ? item.getIp() : clientIp;
+        }
+
+        private void reject(String error) {
+            results.add(ComplaintBatchResult.failed(received++, error));
+        }
+
+        private ComplaintBatchResponse finish(boolean truncated) {
+            writeChunk();
+            results.sort(Comparator.comparingInt(ComplaintBatchResult::getIndex));
+            int created = 0;
+            int reported = 0;
+            int failed = 0;
+            for (ComplaintBatchResult result : results) {
+                switch (result.getStatus()) {
+                    case CREATED -> created++;
+                    case REPORTED -> reported++;
+                    case FAILED -> failed++;
+                }
+            }
+            return new ComplaintBatchResponse(received, created, reported, failed, truncated, results);
+        }
+
+        private void writeChunk() {
+            if (chunk.isEmpty()) {
+                return;
+            }
+            Timestamp createdAt = Timestamp.from(Instant.now().truncatedTo(ChronoUnit.MILLIS));
+            Map<ComplaintKey, List<PendingItem>> byKey = new LinkedHashMap<>();
+            for (PendingItem pending : chunk) {
+                ComplaintKey key = new ComplaintKey(pending.item().getProductId(), pending.item().getReporter());
+                byKey.computeIfAbsent(key, k -> new ArrayList<>()).add(pending);
+            }
+            List<Complaint> complaints = new ArrayList<>(byKey.size());
+            byKey.values().forEach(group -> complaints.add(toComplaint(group, createdAt)));
+
+            try {
+                List<UpsertedComplaint> stored = write(complaints);
+                int i = 0;
+                for (List<PendingItem> group : byKey.values()) {
+                    addResults(group, stored.get(i++));
+                }
+            } catch (RuntimeException e) {
+                log.warn("Could not write a chunk of {} batch complaints", chunk.size(), e);
+                chunk.forEach(pending -> results.add(ComplaintBatchResult.failed(pending.index(),
+                        "Failed to add complaint: " + e.getMessage())));
+            }
+            chunk.clear();
+        }
+
+        private Complaint toComplaint(List<PendingItem> group, Timestamp createdAt) {
+            ComplaintBatchItem first = group.get(0).item();
+            String country = countryEnrichmentService.isEnabled()
+                    ? CountryEnrichmentService.PENDING_COUNTRY
+                    : countryByIp.computeIfAbsent(ipOf(first), countryResolver::resolveCountry);
+            return Complaint.builder()
+                    .productId(first.getProductId())
+                    .content(first.getContent())
+                    .reporter(first.getReporter())
+                    .country(country)
+                    .createdAt(createdAt)
+                    .reportCount(group.size())
+                    .build();
+        }
+
+        /**
+         * The chunk is retried once when a concurrent request created one of its complaints first.
+         */
+        private List<UpsertedComplaint> write(List<Complaint> complaints) {
+            try {
+                return writeInTransaction(complaints);
+            } catch (DuplicateKeyException e) {
+                return writeInTransaction(complaints);
+            }
+        }
+
+        private List<UpsertedComplaint> writeInTransaction(List<Complaint> complaints) {
+            return transactionTemplate.execute(status -> {
+                long flushMark = reportCountBuffer.flushMark();
+                List<UpsertedComplaint> stored = complaintRepository.upsertReports(complaints);
+                stored.forEach(upserted -> reportCountBuffer.refresh(upserted.complaint(), flushMark));
+                complaintResponseCache.evictAll(stored.stream().map(upserted -> upserted.complaint().getId()).toList());
+                return stored;
+            });
+        }
+
+        private void addResults(List<PendingItem> group, UpsertedComplaint upserted) {
+            Complaint stored = upserted.complaint();
+            boolean created = upserted.inserted();
+            complaintStatistics.recordReports(stored.getProductId(), stored.getCountry(), group.size(), created);
+            if (created) {
+                complaintSearchIndex.index(stored);
+                complaintClusterService.onCreated(stored);
+                countryEnrichmentService.enqueue(stored, ipOf(group.get(0).item()));
+            }
+            for (int i = 0; i < group.size(); i++) {
+                Status status = created && i == 0 ? Status.CREATED : Status.REPORTED;
+                results.add(new ComplaintBatchResult(group.get(i).index(), status, stored.getId(),
+                        stored.getReportCount(), null));
+            }
+        }
+    }
+
+    private record PendingItem(int index, ComplaintBatchItem item) {
+    }
+}
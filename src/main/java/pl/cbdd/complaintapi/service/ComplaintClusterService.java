@@ -0,0 +1,147 @@
+package pl.cbdd.complaintapi.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import pl.cbdd.complaintapi.cache.ComplaintResponseCache;
+import pl.cbdd.complaintapi.config.ComplaintProperties;
+import pl.cbdd.complaintapi.dto.ComplaintClusterResponse;
+import pl.cbdd.complaintapi.dto.SimilarComplaintResponse;
+import pl.cbdd.complaintapi.exception.ComplaintNotFoundException;
+import pl.cbdd.complaintapi.mapper.ComplaintMapper;
+import pl.cbdd.complaintapi.model.Complaint;
+import pl.cbdd.complaintapi.repository.ComplaintRepository;
+import pl.cbdd.complaintapi.similarity.ComplaintSimilarityIndex;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Near-duplicate clusters of complaints, backed by {@link ComplaintSimilarityIndex}. New and changed
+ * complaints are indexed by a single background thread once their write has committed, so requests
+ * neither wait for the index nor fail because of it.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ComplaintClusterService {
+
+    private final ComplaintRepository complaintRepository;
+    private final ComplaintSimilarityIndex complaintSimilarityIndex;
+    private final ComplaintResponseCache complaintResponseCache;
+    private final ReportCountBuffer reportCountBuffer;
+    private final ComplaintMapper complaintMapper;
+    private final ComplaintProperties properties;
+
+    private final LongAdder dropped = new LongAdder();
+    private ThreadPoolExecutor indexer;
+
+    @PostConstruct
+    void start() {
+        if (!complaintSimilarityIndex.isEnabled()) {
+            return;
+        }
+        indexer = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(properties.getSimilarity().getQueueCapacity()),
+                Thread.ofPlatform().name("similarity-indexer").daemon().factory(),
+                (task, executor) -> dropped.increment());
+    }
+
+    @PreDestroy
+    void stop() {
+        if (indexer != null) {
+            indexer.shutdownNow();
+        }
+    }
+
+    /**
+     * Queues a newly created complaint for indexing.
+     */
+    public void onCreated(Complaint complaint) {
+        submit(complaint, () -> index(complaint));
+    }
+
+    /**
+     * Queues a complaint whose content changed for indexing, keeping its cluster.
+     */
+    public void onContentChanged(Complaint complaint) {
+        submit(complaint, () -> complaintSimilarityIndex.add(complaint));
+    }
+
+    /**
+     * Complaints that were not indexed because the queue was full.
+     */
+    public long droppedUpdates() {
+        return dropped.sum();
+    }
+
+    /**
+     * Indexes a new complaint. With {@code attach-on-ingest}, a near-duplicate of an earlier complaint is
+     * stored with that complaint's cluster id.
+     */
+    void index(Complaint complaint) {
+        UUID cluster = complaintSimilarityIndex.add(complaint);
+        if (properties.getSimilarity().isAttachOnIngest() && complaint.getClusterId() == null
+                && !cluster.equals(complaint.getId())) {
+            complaintRepository.updateClusterId(complaint.getId(), cluster);
+            complaintResponseCache.evict(complaint.getId());
+            reportCountBuffer.invalidate(complaint);
+        }
+    }
+
+    private void submit(Complaint complaint, Runnable task) {
+        if (indexer == null) {
+            return;
+        }
+        Runnable guarded = () -> {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                log.warn("Could not index complaint {} for near-duplicate detection", complaint.getId(), e);
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    indexer.execute(guarded);
+                }
+            });
+        } else {
+            indexer.execute(guarded);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public List<SimilarComplaintResponse> findSimilar(UUID id, int limit) {
+        Complaint complaint = complaintRepository.findById(id)
+                .orElseThrow(() -> new ComplaintNotFoundException("Complaint not found with id: " + id));
+        List<ComplaintSimilarityIndex.Match> matches = complaintSimilarityIndex.similar(id, complaint.getProductId(), limit);
+        Map<UUID, Complaint> complaints = complaintRepository.findAllById(matches.stream().map(ComplaintSimilarityIndex.Match::id).toList())
+                .stream()
+                .collect(Collectors.toMap(Complaint::getId, Function.identity()));
+        return matches.stream()
+                .filter(match -> complaints.containsKey(match.id()))
+                .map(match -> new SimilarComplaintResponse(complaintMapper.toResponse(complaints.get(match.id())), match.similarity()))
+                .toList();
+    }
+
+    public List<ComplaintClusterResponse> findClusters(String productId, int minSize, int limit) {
+        return complaintSimilarityIndex.clusters(productId, minSize, limit).stream()
+                .map(cluster -> new ComplaintClusterResponse(cluster.id(), cluster.productId(),
+                        cluster.complaintIds().size(), cluster.complaintIds()))
+                .toList();
+    }
+}
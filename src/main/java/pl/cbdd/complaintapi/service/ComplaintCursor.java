@@ -0,0 +1,32 @@
+package pl.cbdd.complaintapi.service;
+
+import pl.cbdd.complaintapi.exception.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Opaque continuation token for keyset pagination over {@code (created_at DESC, id DESC)}.
+ */
+record ComplaintCursor(Timestamp createdAt, UUID id) {
+
+    String encode() {
+        String raw = Math.floorDiv(createdAt.getTime(), 1000) + "." + createdAt.getNanos() + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static ComplaintCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int dot = raw.indexOf('.');
+            int bar = raw.indexOf('|');
+            Timestamp createdAt = new Timestamp(Long.parseLong(raw.substring(0, dot)) * 1000);
+            createdAt.setNanos(Integer.parseInt(raw.substring(dot + 1, bar)));
+            return new ComplaintCursor(createdAt, UUID.fromString(raw.substring(bar + 1)));
+        } catch (RuntimeException e) {
+            throw new InvalidCursorException("Invalid cursor: " + token);
+        }
+    }
+}
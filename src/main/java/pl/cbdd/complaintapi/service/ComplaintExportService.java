@@ -0,0 +1,116 @@
+package pl.cbdd.complaintapi.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import pl.cbdd.complaintapi.config.ComplaintProperties;
+import pl.cbdd.complaintapi.dto.ComplaintResponse;
+import pl.cbdd.complaintapi.dto.ExportFilter;
+import pl.cbdd.complaintapi.dto.ExportFormat;
+import pl.cbdd.complaintapi.mapper.ComplaintMapper;
+import pl.cbdd.complaintapi.repository.ComplaintRepository;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes complaints to the client while they are read from the database, so memory use does not depend on
+ * the number of complaints. The output is flushed every {@code complaints.export.fetch-size} rows.
+ */
+@Service
+public class ComplaintExportService {
+
+    static final String CSV_HEADER = "id,productId,content,createdAt,reporter,country,reportCount";
+
+    private final ComplaintRepository complaintRepository;
+    private final ComplaintMapper complaintMapper;
+    private final ComplaintProperties properties;
+    private final ObjectWriter jsonWriter;
+    private final TransactionTemplate readOnlyTransaction;
+
+    public ComplaintExportService(ComplaintRepository complaintRepository, ComplaintMapper complaintMapper,
+                                  ComplaintProperties properties, ObjectMapper objectMapper,
+                                  PlatformTransactionManager transactionManager) {
+        this.complaintRepository = complaintRepository;
+        this.complaintMapper = complaintMapper;
+        this.properties = properties;
+        this.jsonWriter = objectMapper.writerFor(ComplaintResponse.class);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    public void export(ExportFilter filter, ExportFormat format, OutputStream out) throws IOException {
+        int fetchSize = properties.getExport().getFetchSize();
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        if (format == ExportFormat.CSV) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+        int[] rows = new int[1];
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> complaintRepository.streamComplaints(filter, fetchSize, complaint -> {
+                try {
+                    ComplaintResponse response = complaintMapper.toResponse(complaint);
+                    if (format == ExportFormat.CSV) {
+                        writeCsv(writer, response);
+                    } else {
+                        writer.write(jsonWriter.writeValueAsString(response));
+                    }
+                    writer.write('\n');
+                    if (++rows[0] % fetchSize == 0) {
+                        writer.flush();
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+    }
+
+    private static void writeCsv(Writer writer, ComplaintResponse response) throws IOException {
+        writer.write(String.valueOf(response.getId()));
+        writer.write(',');
+        writeCsvField(writer, response.getProductId());
+        writer.write(',');
+        writeCsvField(writer, response.getContent());
+        writer.write(',');
+        writer.write(response.getCreatedAt() != null ? response.getCreatedAt().toInstant().toString() : "");
+        writer.write(',');
+        writeCsvField(writer, response.getReporter());
+        writer.write(',');
+        writeCsvField(writer, response.getCountry());
+        writer.write(',');
+        writer.write(Integer.toString(response.getReportCount()));
+    }
+
+    /**
+     * RFC 4180 quoting: fields containing a comma, quote or line break are quoted, quotes are doubled.
+     */
+    private static void writeCsvField(Writer writer, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
@@ -0,0 +1,84 @@
+package pl.cbdd.complaintapi.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import pl.cbdd.complaintapi.config.ComplaintProperties;
+import pl.cbdd.complaintapi.dto.ComplaintResponse;
+import pl.cbdd.complaintapi.dto.ComplaintWindowResponse;
+import pl.cbdd.complaintapi.exception.InvalidSearchQueryException;
+import pl.cbdd.complaintapi.mapper.ComplaintMapper;
+import pl.cbdd.complaintapi.model.Complaint;
+import pl.cbdd.complaintapi.repository.ComplaintRepository;
+import pl.cbdd.complaintapi.repository.ComplaintSearchRepository.SearchHit;
+import pl.cbdd.complaintapi.search.ComplaintSearchIndex;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Keyword search over complaint content. On PostgreSQL the query runs against the GIN full-text index;
+ * on other databases it is answered from {@link ComplaintSearchIndex} and the matching rows are loaded by id.
+ */
+@Service
+@RequiredArgsConstructor
+public class ComplaintSearchService {
+
+    private final ComplaintRepository complaintRepository;
+    private final ComplaintSearchIndex complaintSearchIndex;
+    private final ComplaintMapper complaintMapper;
+    private final ComplaintProperties properties;
+
+    @Transactional(readOnly = true)
+    public ComplaintWindowResponse search(String query, String productId, String country, String cursor, int size) {
+        if (ComplaintSearchIndex.tokenize(query).isEmpty()) {
+            throw new InvalidSearchQueryException("Search query must contain at least one word");
+        }
+        SearchCursor after = cursor != null ? SearchCursor.decode(cursor) : null;
+        Float afterRank = after != null ? after.rank() : null;
+        UUID afterId = after != null ? after.id() : null;
+
+        // One extra hit tells whether there is a next page.
+        List<SearchHit> hits = complaintSearchIndex.isEnabled()
+                ? searchIndex(query, productId, country, afterRank, afterId, size + 1)
+                : complaintRepository.searchContent(query, productId, country, afterRank, afterId,
+                        properties.getSearch().getMaxCandidates(), size + 1);
+
+        boolean hasNext = hits.size() > size;
+        List<SearchHit> page = hasNext ? hits.subList(0, size) : hits;
+        String nextCursor = null;
+        if (hasNext) {
+            SearchHit last = page.get(page.size() - 1);
+            nextCursor = new SearchCursor(last.rank(), last.complaint().getId()).encode();
+        }
+        List<ComplaintResponse> content = page.stream()
+                .map(hit -> complaintMapper.toResponse(hit.complaint()))
+                .toList();
+        return new ComplaintWindowResponse(content, nextCursor, hasNext);
+    }
+
+    private List<SearchHit> searchIndex(String query, String productId, String country, Float afterRank,
+                                        UUID afterId, int limit) {
+        List<ComplaintSearchIndex.Hit> ranked = complaintSearchIndex.search(query, afterRank, afterId);
+        List<SearchHit> hits = new ArrayList<>(limit);
+        for (int from = 0; from < ranked.size() && hits.size() < limit; from += limit) {
+            List<ComplaintSearchIndex.Hit> chunk = ranked.subList(from, Math.min(from + limit, ranked.size()));
+            Map<UUID, Complaint> complaints = complaintRepository.findAllById(chunk.stream().map(ComplaintSearchIndex.Hit::id).toList())
+                    .stream()
+                    .collect(Collectors.toMap(Complaint::getId, Function.identity()));
+            for (ComplaintSearchIndex.Hit hit : chunk) {
+                Complaint complaint = complaints.get(hit.id());
+                if (complaint != null && hits.size() < limit
+                        && (productId == null || productId.equals(complaint.getProductId()))
+                        && (country == null || country.equals(complaint.getCountry()))) {
+                    hits.add(new SearchHit(complaint, hit.rank()));
+                }
+            }
+        }
+        return hits;
+    }
+}
@@ -2,11 +2,14 @@ package pl.cbdd.complaintapi.service;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import pl.cbdd.complaintapi.dto.ComplaintRequest;
 import pl.cbdd.complaintapi.dto.ComplaintResponse;
+import pl.cbdd.complaintapi.dto.ComplaintWindowResponse;
 import pl.cbdd.complaintapi.dto.UpdateComplaintRequest;
 
+import java.util.Optional;
 import java.util.UUID;
 
 @Service
@@ -15,8 +18,19 @@ public interface ComplaintService {
 
     ComplaintResponse getComplaint(UUID id);
 
+    Optional<Long> findComplaintVersion(UUID id);
+
     Page<ComplaintResponse> getAllComplaints(Pageable pageable);
 
-    ComplaintResponse updateComplaint(UpdateComplaintRequest updateComplaintRequest);
+    Page<ComplaintResponse> getAllComplaintsWithEstimatedTotal(Pageable pageable);
+
+    Slice<ComplaintResponse> getComplaintsSlice(Pageable pageable);
+
+    ComplaintWindowResponse scrollComplaints(String cursor, int size);
+
+    /**
+     * @param expectedVersion version the client last saw, or {@code null} to update unconditionally
+     */
+    ComplaintResponse updateComplaint(UpdateComplaintRequest updateComplaintRequest, Long expectedVersion);
 
 }
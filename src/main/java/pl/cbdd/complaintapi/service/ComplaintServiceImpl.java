@@ -1,89 +1,176 @@
 package pl.cbdd.complaintapi.service;
 
-import jakarta.transaction.Transactional;
+import io.github.resilience4j.retry.annotation.Retry;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
-import org.modelmapper.ModelMapper;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import pl.cbdd.complaintapi.cache.ComplaintResponseCache;
 import pl.cbdd.complaintapi.dto.ComplaintRequest;
 import pl.cbdd.complaintapi.dto.ComplaintResponse;
+import pl.cbdd.complaintapi.dto.ComplaintWindowResponse;
 import pl.cbdd.complaintapi.dto.UpdateComplaintRequest;
 import pl.cbdd.complaintapi.exception.ComplaintCreationException;
 import pl.cbdd.complaintapi.exception.ComplaintNotFoundException;
+import pl.cbdd.complaintapi.exception.ComplaintPreconditionFailedException;
+import pl.cbdd.complaintapi.mapper.ComplaintMapper;
 import pl.cbdd.complaintapi.model.Complaint;
 import pl.cbdd.complaintapi.repository.ComplaintRepository;
+import pl.cbdd.complaintapi.search.ComplaintSearchIndex;
+import pl.cbdd.complaintapi.stats.ComplaintStatistics;
 
-import java.sql.Timestamp;
-import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
-import java.util.concurrent.atomic.AtomicReference;
 
 @Service
-@Transactional
+@Timed(value = "complaints.service", histogram = true)
+@Transactional(readOnly = true)
 @RequiredArgsConstructor
 public class ComplaintServiceImpl implements ComplaintService {
 
     private final ComplaintRepository complaintRepository;
-    private final ModelMapper modelMapper;
+    private final ComplaintMapper complaintMapper;
+    private final ReportCountBuffer reportCountBuffer;
+    private final ComplaintResponseCache complaintResponseCache;
+    private final ComplaintStatistics complaintStatistics;
+    private final ComplaintSearchIndex complaintSearchIndex;
+    private final ComplaintClusterService complaintClusterService;
 
+    /**
+     * The upsert is a single statement, so no transaction is opened here; repeat reports absorbed by
+     * the {@link ReportCountBuffer} do not touch the connection pool at all.
+     */
     @Override
-    @Transactional
+    @Transactional(propagation = Propagation.SUPPORTS)
     public ComplaintResponse addComplaint(ComplaintRequest complaintRequest) {
+        Complaint complaint;
         try {
-            Complaint complaint = new Complaint();
-            AtomicReference<ComplaintResponse> complaintResponseAtomic = new AtomicReference<>();
-            complaintRepository
-                    .findByProductIdAndReporter(complaintRequest.getProductId(), complaintRequest.getReporter())
-                    .ifPresentOrElse(comp -> {
-                                complaintRepository.findById(comp.getId())
-                                        .orElseThrow(() -> new ComplaintNotFoundException("Complaint not found with id: " + comp.getId()));
-
-                                comp.setReportCount(comp.getReportCount() + 1);
-                                complaintRepository.save(comp);
-                                complaintResponseAtomic.set(modelMapper.map(comp, ComplaintResponse.class));
-                            }, () -> {
-                                complaint.setProductId(complaintRequest.getProductId());
-                                complaint.setContent(complaintRequest.getContent());
-                                complaint.setCreatedAt(Timestamp.from(Instant.now()));
-                                complaint.setReporter(complaintRequest.getReporter());
-                                complaint.setCountry(complaintRequest.getCountry());
-                                complaint.setReportCount(1);
-                                complaintRepository.save(complaint);
-                                complaintResponseAtomic.set(modelMapper.map(complaint, ComplaintResponse.class));
-                            }
-                    );
-
-            return complaintResponseAtomic.get();
+            Optional<Complaint> buffered = reportCountBuffer.recordRepeat(complaintRequest.getProductId(), complaintRequest.getReporter());
+            if (buffered.isPresent()) {
+                complaintResponseCache.evict(buffered.get().getId());
+                complaintStatistics.recordReports(buffered.get().getProductId(), buffered.get().getCountry(), 1, false);
+                return complaintMapper.toResponse(buffered.get());
+            }
+
+            complaint = complaintRepository.upsertReport(complaintMapper.toComplaint(complaintRequest));
+            complaintResponseCache.evict(complaint.getId());
+            complaintStatistics.recordReports(complaint.getProductId(), complaint.getCountry(), 1, complaint.getReportCount() == 1);
+            if (complaint.getReportCount() == 1) {
+                complaintSearchIndex.index(complaint);
+            }
+            reportCountBuffer.track(complaint);
+        } catch (CannotGetJdbcConnectionException | TransientDataAccessResourceException e) {
+            // Pool exhaustion is the server's problem, not the request's; let it surface as 503.
+            throw e;
         } catch (Exception e) {
             throw new ComplaintCreationException("Failed to add complaint: " + e.getMessage(), e);
         }
+        // The complaint is saved at this point, so clustering runs outside the catch above and cannot fail the request.
+        if (complaint.getReportCount() == 1) {
+            complaintClusterService.onCreated(complaint);
+        }
+        return complaintMapper.toResponse(complaint);
     }
 
+    /**
+     * Cache hits are served without a transaction, so they do not take a connection from the pool;
+     * a miss reads the complaint in the repository's own read-only transaction.
+     */
     @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
     public ComplaintResponse getComplaint(UUID id) {
-        Complaint complaint = complaintRepository.findById(id)
-                .orElseThrow(() -> new ComplaintNotFoundException("Complaint not found with id: " + id));
-        return modelMapper.map(complaint, ComplaintResponse.class);
+        return complaintResponseCache.get(id, key -> complaintRepository.findById(key)
+                .map(complaintMapper::toResponse)
+                .orElseThrow(() -> new ComplaintNotFoundException("Complaint not found with id: " + key)));
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public Optional<Long> findComplaintVersion(UUID id) {
+        ComplaintResponse cached = complaintResponseCache.getIfPresent(id);
+        return cached != null ? Optional.of(cached.getVersion()) : complaintRepository.findVersionById(id);
     }
 
     @Override
     public Page<ComplaintResponse> getAllComplaints(Pageable pageable) {
         return complaintRepository.findAll(pageable)
-                .map(complaint -> modelMapper.map(complaint, ComplaintResponse.class));
+                .map(complaintMapper::toResponse);
     }
 
     @Override
+    public Page<ComplaintResponse> getAllComplaintsWithEstimatedTotal(Pageable pageable) {
+        Slice<ComplaintResponse> slice = getComplaintsSlice(pageable);
+        return new PageImpl<>(slice.getContent(), pageable, complaintRepository.estimateCount());
+    }
+
+    @Override
+    public Slice<ComplaintResponse> getComplaintsSlice(Pageable pageable) {
+        return complaintRepository.findAllBy(pageable)
+                .map(complaintMapper::toResponse);
+    }
+
+    @Override
+    public ComplaintWindowResponse scrollComplaints(String cursor, int size) {
+        // One extra row tells whether there is a next page without a count query.
+        Limit limit = Limit.of(size + 1);
+        List<Complaint> complaints;
+        if (cursor == null) {
+            complaints = complaintRepository.findNewest(limit);
+        } else {
+            ComplaintCursor after = ComplaintCursor.decode(cursor);
+            complaints = complaintRepository.findNewestBefore(after.createdAt(), after.id(), limit);
+        }
+
+        boolean hasNext = complaints.size() > size;
+        List<Complaint> page = hasNext ? complaints.subList(0, size) : complaints;
+        String nextCursor = null;
+        if (hasNext) {
+            Complaint last = page.get(page.size() - 1);
+            nextCursor = new ComplaintCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+        List<ComplaintResponse> content = page.stream()
+                .map(complaintMapper::toResponse)
+                .toList();
+        return new ComplaintWindowResponse(content, nextCursor, hasNext);
+    }
+
+    /**
+     * Relies on the {@code version} column instead of a row lock. A concurrent change to the same complaint
+     * fails the commit, and the retry reloads the complaint and applies the update again in a new transaction.
+     * With an {@code expectedVersion} the retry fails the precondition instead, since the client's copy is outdated.
+     */
+    @Override
+    @Retry(name = "complaintUpdateRetry")
     @Transactional
-    public ComplaintResponse updateComplaint(UpdateComplaintRequest updateComplaintRequest) {
+    public ComplaintResponse updateComplaint(UpdateComplaintRequest updateComplaintRequest, Long expectedVersion) {
+        long flushMark = reportCountBuffer.flushMark();
         Complaint complaint = complaintRepository.findById(UUID.fromString(updateComplaintRequest.getId()))
                 .orElseThrow(() -> new ComplaintNotFoundException("Complaint not found with id: " + updateComplaintRequest.getId()));
+        if (expectedVersion != null && !expectedVersion.equals(complaint.getVersion())) {
+            throw new ComplaintPreconditionFailedException("Complaint " + complaint.getId() + " was modified, current version is "
+                    + complaint.getVersion());
+        }
 
         if (updateComplaintRequest.getContent() != null) {
             complaint.setContent(updateComplaintRequest.getContent());
             complaintRepository.save(complaint);
+            // Flushing increments the version, which the response's ETag is derived from.
+            complaintRepository.flush();
+            reportCountBuffer.refresh(complaint, flushMark);
+            complaintResponseCache.evict(complaint.getId());
+            complaintSearchIndex.index(complaint);
+            complaintClusterService.onContentChanged(complaint);
         }
 
-        return modelMapper.map(complaint, ComplaintResponse.class);
+        return complaintMapper.toResponse(complaint);
     }
 }
\ No newline at end of file
@@ -0,0 +1,175 @@
+package pl.cbdd.complaintapi.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+import pl.cbdd.complaintapi.cache.ComplaintResponseCache;
+import pl.cbdd.complaintapi.config.GeoLocationProperties;
+import pl.cbdd.complaintapi.dto.ComplaintResponse;
+import pl.cbdd.complaintapi.model.Complaint;
+import pl.cbdd.complaintapi.repository.ComplaintRepository;
+import pl.cbdd.complaintapi.stats.ComplaintStatistics;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Resolves the country of newly created complaints off the request path when
+ * {@code geolocation.enrichment.async} is enabled. Complaints are saved with {@link #PENDING_COUNTRY},
+ * and a small worker pool drains the queue in batches, resolves each distinct IP once and updates
+ * the rows with one statement per resolved country. Workers run on virtual threads when
+ * {@code spring.threads.virtual.enabled} is set.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CountryEnrichmentService {
+
+    public static final String PENDING_COUNTRY = "Pending";
+
+    private final CountryResolver countryResolver;
+    private final ComplaintRepository complaintRepository;
+    private final ComplaintResponseCache complaintResponseCache;
+    private final ReportCountBuffer reportCountBuffer;
+    private final ComplaintStatistics complaintStatistics;
+    private final GeoLocationProperties properties;
+    private final Environment environment;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private BlockingQueue<EnrichmentTask> queue;
+    private ExecutorService workers;
+    private volatile boolean running;
+
+    public boolean isEnabled() {
+        return properties.getEnrichment().isAsync();
+    }
+
+    /**
+     * Queues the country lookup for a complaint that was saved with a pending country. When the
+     * queue is full the lookup is done on the calling thread, so no complaint is left pending.
+     */
+    public void enqueue(ComplaintResponse complaint, String ip) {
+        enqueue(complaint.getId(), complaint.getCountry(), ip);
+    }
+
+    /**
+     * Variant of {@link #enqueue(ComplaintResponse, String)} for complaints written by the batch endpoint.
+     */
+    public void enqueue(Complaint complaint, String ip) {
+        enqueue(complaint.getId(), complaint.getCountry(), ip);
+    }
+
+    private void enqueue(UUID complaintId, String country, String ip) {
+        if (!PENDING_COUNTRY.equals(country)) {
+            return;
+        }
+        EnrichmentTask task = new EnrichmentTask(complaintId, ip, System.currentTimeMillis());
+        if (!running || !queue.offer(task)) {
+            enrich(List.of(task));
+        }
+    }
+
+    /**
+     * Number of complaints still waiting for their country.
+     */
+    public int backlog() {
+        return (queue != null ? queue.size() : 0) + inFlight.get();
+    }
+
+    /**
+     * How long the oldest queued complaint has been waiting, or zero when the queue is empty.
+     */
+    public Duration lag() {
+        EnrichmentTask oldest = queue != null ? queue.peek() : null;
+        return oldest != null ? Duration.ofMillis(System.currentTimeMillis() - oldest.enqueuedAt()) : Duration.ZERO;
+    }
+
+    @PostConstruct
+    void start() {
+        if (!isEnabled()) {
+            return;
+        }
+        GeoLocationProperties.Enrichment enrichment = properties.getEnrichment();
+        queue = new ArrayBlockingQueue<>(enrichment.getQueueCapacity());
+        // Virtual threads are always daemon threads; stop() still waits for the queue to drain.
+        ThreadFactory threadFactory = Threading.VIRTUAL.isActive(environment)
+                ? Thread.ofVirtual().name("country-enrichment-", 1).factory()
+                : Thread.ofPlatform().name("country-enrichment-", 1).daemon().factory();
+        workers = Executors.newFixedThreadPool(enrichment.getWorkers(), threadFactory);
+        running = true;
+        for (int i = 0; i < enrichment.getWorkers(); i++) {
+            workers.submit(this::drainQueue);
+        }
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        if (workers == null) {
+            return;
+        }
+        running = false;
+        workers.shutdown();
+        if (!workers.awaitTermination(30, TimeUnit.SECONDS)) {
+            log.warn("Country enrichment stopped with {} complaints still pending", backlog());
+            workers.shutdownNow();
+        }
+    }
+
+    private void drainQueue() {
+        int batchSize = properties.getEnrichment().getBatchSize();
+        List<EnrichmentTask> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                EnrichmentTask first = queue.poll(500, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                inFlight.addAndGet(batch.size());
+                enrich(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Country enrichment failed for {} complaints", batch.size(), e);
+            } finally {
+                inFlight.addAndGet(-batch.size());
+                batch.clear();
+            }
+        }
+    }
+
+    void enrich(List<EnrichmentTask> batch) {
+        Map<String, String> countryByIp = new HashMap<>();
+        Map<String, List<UUID>> idsByCountry = new HashMap<>();
+        for (EnrichmentTask task : batch) {
+            String country = countryByIp.computeIfAbsent(task.ip(), countryResolver::resolveCountry);
+            idsByCountry.computeIfAbsent(country, c -> new ArrayList<>()).add(task.complaintId());
+        }
+        idsByCountry.forEach((country, ids) -> {
+            int updated = complaintRepository.updatePendingCountry(ids, country, PENDING_COUNTRY);
+            complaintResponseCache.evictAll(ids);
+            reportCountBuffer.invalidateAll(ids);
+            complaintStatistics.recordCountryResolved(country, updated);
+        });
+    }
+
+    record EnrichmentTask(UUID complaintId, String ip, long enqueuedAt) {
+    }
+}
@@ -0,0 +1,93 @@
+package pl.cbdd.complaintapi.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import pl.cbdd.complaintapi.cache.GeoLocationCache;
+import pl.cbdd.complaintapi.geoip.OfflineGeoIpDatabase;
+import pl.cbdd.complaintapi.metrics.GeoLocationMetrics;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Entry point for resolving the reporter's country. Consults the offline GeoIP table (when enabled)
+ * and the local cache before going through the resilient {@link GeoLocationService} call, so local
+ * answers are served even while its circuit breaker is open.
+ * <p>
+ * Concurrent misses for the same IP are coalesced: the first caller performs the lookup and the
+ * others wait for its result or failure instead of firing their own HTTP call and retry cycle.
+ */
+@Service
+@RequiredArgsConstructor
+public class CountryResolver {
+
+    private final GeoLocationService geoLocationService;
+    private final GeoLocationCache geoLocationCache;
+    private final OfflineGeoIpDatabase offlineGeoIpDatabase;
+    private final GeoLocationMetrics geoLocationMetrics;
+
+    private final ConcurrentMap<String, CompletableFuture<String>> inFlightLookups = new ConcurrentHashMap<>();
+    private final LongAdder coalescedLookups = new LongAdder();
+
+    public String resolveCountry(String ip) {
+        if (offlineGeoIpDatabase.isEnabled()) {
+            String offlineCountry = offlineGeoIpDatabase.lookup(ip);
+            if (offlineCountry != null) {
+                return offlineCountry;
+            }
+        }
+
+        String cachedCountry = geoLocationCache.get(ip);
+        if (cachedCountry != null) {
+            return cachedCountry;
+        }
+
+        if (ip == null) {
+            return geoLocationMetrics.record(() -> geoLocationService.getCountryByIp(null));
+        }
+
+        CompletableFuture<String> lookup = new CompletableFuture<>();
+        CompletableFuture<String> inFlightLookup = inFlightLookups.putIfAbsent(ip, lookup);
+        if (inFlightLookup != null) {
+            coalescedLookups.increment();
+            return await(inFlightLookup);
+        }
+
+        try {
+            String country = geoLocationMetrics.record(() -> geoLocationService.getCountryByIp(ip));
+            geoLocationCache.put(ip, country);
+            lookup.complete(country);
+            return country;
+        } catch (Throwable e) {
+            // Anything left uncompleted here would block coalesced callers forever.
+            lookup.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlightLookups.remove(ip, lookup);
+        }
+    }
+
+    /**
+     * Number of lookups that were answered by another caller's in-flight request.
+     */
+    public long coalescedLookups() {
+        return coalescedLookups.sum();
+    }
+
+    private static String await(CompletableFuture<String> lookup) {
+        try {
+            return lookup.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
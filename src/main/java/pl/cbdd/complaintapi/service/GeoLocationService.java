@@ -8,26 +8,35 @@ import lombok.Setter;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.UriComponentsBuilder;
+import pl.cbdd.complaintapi.config.GeoLocationProperties;
+import pl.cbdd.complaintapi.metrics.GeoLocationMetrics;
 
 @Service
 @RequiredArgsConstructor
 public class GeoLocationService {
 
+    public static final String UNKNOWN_COUNTRY = "Unknown";
+    public static final String FALLBACK_COUNTRY = "Fallback Country";
+
     private final RestTemplate restTemplate;
+    private final GeoLocationMetrics geoLocationMetrics;
+    private final GeoLocationProperties geoLocationProperties;
 
     @CircuitBreaker(name = "geoLocationService", fallbackMethod = "fallbackCountry")
     @Retry(name = "geoLocationServiceRetry")
     public String getCountryByIp(String ip) {
-        String url = UriComponentsBuilder.fromHttpUrl("http://ip-api.com/json/" + ip)
+        geoLocationMetrics.attempt();
+        String url = UriComponentsBuilder.fromHttpUrl(geoLocationProperties.getHttp().getBaseUrl() + "/json/" + ip)
                 .queryParam("fields", "country")
                 .toUriString();
 
         GeoLocationResponse response = restTemplate.getForObject(url, GeoLocationResponse.class);
-        return response != null && response.getCountry() != null ? response.getCountry() : "Unknown";
+        return response != null && response.getCountry() != null ? response.getCountry() : UNKNOWN_COUNTRY;
     }
 
     public String fallbackCountry(String ip, Throwable t) {
-        return "Fallback Country";
+        geoLocationMetrics.fallback(t);
+        return FALLBACK_COUNTRY;
     }
 }
 
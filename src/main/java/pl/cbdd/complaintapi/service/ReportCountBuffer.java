@@ -0,0 +1,286 @@
+package pl.cbdd.complaintapi.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import pl.cbdd.complaintapi.cache.ComplaintResponseCache;
+import pl.cbdd.complaintapi.config.ComplaintProperties;
+import pl.cbdd.complaintapi.model.Complaint;
+import pl.cbdd.complaintapi.model.ComplaintKey;
+import pl.cbdd.complaintapi.repository.ComplaintRepository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Write-behind buffer for repeat reports of hot complaints. Once a complaint has been reported
+ * again through the database, further repeats of the same product and reporter are only counted
+ * in memory and the accumulated deltas are written in one JDBC batch per flush interval, and on
+ * shutdown. Counters are {@link LongAdder}s that are never reset, so concurrent reports are not
+ * lost while a flush is running. A complaint that is written elsewhere stops being buffered, and its
+ * pending reports are written on the next flush.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ReportCountBuffer {
+
+    private final ComplaintRepository complaintRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ComplaintResponseCache complaintResponseCache;
+    private final ComplaintProperties properties;
+
+    private final ConcurrentMap<ComplaintKey, Entry> entries = new ConcurrentHashMap<>();
+    private final List<Map.Entry<ComplaintKey, Entry>> retiring = new ArrayList<>();
+    private final Queue<Map.Entry<ComplaintKey, Entry>> invalidated = new ConcurrentLinkedQueue<>();
+    /**
+     * Odd while a flush is writing deltas, and incremented again once their counts are applied, so a reader can
+     * tell whether a flush overlapped the read of a row.
+     */
+    private final AtomicLong flushSequence = new AtomicLong();
+
+    public boolean isEnabled() {
+        return properties.getReportBuffer().isEnabled();
+    }
+
+    /**
+     * Counts a repeat report of an already buffered complaint. Returns the complaint with its
+     * last-flushed count plus the pending delta, or empty when the complaint is not buffered.
+     */
+    public Optional<Complaint> recordRepeat(String productId, String reporter) {
+        if (!isEnabled()) {
+            return Optional.empty();
+        }
+        Entry entry = entries.get(new ComplaintKey(productId, reporter));
+        if (entry == null) {
+            return Optional.empty();
+        }
+        entry.reports.increment();
+        entry.lastReportedAt = System.currentTimeMillis();
+        return Optional.of(entry.current());
+    }
+
+    /**
+     * Starts buffering a complaint that has just been reported again through the database.
+     * New complaints and complaints still waiting for their country are not buffered.
+     */
+    public void track(Complaint complaint) {
+        if (!isEnabled() || complaint.getReportCount() <= 1
+                || CountryEnrichmentService.PENDING_COUNTRY.equals(complaint.getCountry())
+                || entries.size() >= properties.getReportBuffer().getMaxKeys()) {
+            return;
+        }
+        entries.putIfAbsent(ComplaintKey.of(complaint), new Entry(complaint));
+    }
+
+    /**
+     * Marks the point before a write whose stored rows are then passed to {@link #refresh(Complaint, long)}.
+     */
+    public long flushMark() {
+        return flushSequence.get();
+    }
+
+    /**
+     * Replaces the buffered snapshot after the complaint was modified, keeping pending reports. Inside a
+     * transaction the snapshot is only replaced once the change is committed. When a flush ran since
+     * {@code flushMark}, the row may or may not include its deltas, so the complaint stops being buffered instead.
+     */
+    public void refresh(Complaint complaint, long flushMark) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    replaceSnapshot(complaint, flushMark);
+                }
+            });
+        } else {
+            replaceSnapshot(complaint, flushMark);
+        }
+    }
+
+    /**
+     * Stops buffering a complaint whose row was changed without being read back.
+     */
+    public void invalidate(Complaint complaint) {
+        ComplaintKey key = ComplaintKey.of(complaint);
+        Entry entry = entries.get(key);
+        if (entry != null) {
+            retire(key, entry);
+        }
+    }
+
+    /**
+     * Variant of {@link #invalidate(Complaint)} for complaints known only by id.
+     */
+    public void invalidateAll(Collection<UUID> ids) {
+        if (entries.isEmpty() || ids.isEmpty()) {
+            return;
+        }
+        Set<UUID> changed = new HashSet<>(ids);
+        entries.forEach((key, entry) -> {
+            if (changed.contains(entry.snapshot.getId())) {
+                retire(key, entry);
+            }
+        });
+    }
+
+    private void replaceSnapshot(Complaint complaint, long flushMark) {
+        ComplaintKey key = ComplaintKey.of(complaint);
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return;
+        }
+        synchronized (entry) {
+            if ((flushMark & 1) == 0 && flushSequence.get() == flushMark) {
+                entry.snapshot = copyOf(complaint);
+                entry.state = new FlushState(complaint.getReportCount(), entry.state.flushedReports());
+                return;
+            }
+        }
+        retire(key, entry);
+    }
+
+    /**
+     * Pending reports of a retired entry are written on the next flush. The next report of the complaint goes
+     * through the database again and starts a new entry from the stored row.
+     */
+    private void retire(ComplaintKey key, Entry entry) {
+        if (entries.remove(key, entry)) {
+            invalidated.add(Map.entry(key, entry));
+        }
+    }
+
+    public long pendingReports() {
+        return entries.values().stream().mapToLong(Entry::pending).sum();
+    }
+
+    public int bufferedComplaints() {
+        return entries.size();
+    }
+
+    @Scheduled(fixedDelayString = "${complaints.report-buffer.flush-interval:PT1S}")
+    public synchronized void flush() {
+        if (entries.isEmpty() && retiring.isEmpty() && invalidated.isEmpty()) {
+            return;
+        }
+        Map<ComplaintKey, Long> deltas = new HashMap<>();
+        Map<Entry, Long> flushedTotals = new HashMap<>();
+        collectDeltas(entries.entrySet(), deltas, flushedTotals);
+        collectDeltas(retiring, deltas, flushedTotals);
+
+        if (!deltas.isEmpty()) {
+            flushSequence.incrementAndGet();
+            try {
+                transactionTemplate.executeWithoutResult(status -> complaintRepository.incrementReportCounts(deltas));
+            } catch (RuntimeException e) {
+                flushSequence.incrementAndGet();
+                log.warn("Could not flush {} buffered report counts, retrying on next flush", deltas.size(), e);
+                return;
+            }
+            flushedTotals.forEach((entry, total) -> {
+                synchronized (entry) {
+                    FlushState state = entry.state;
+                    entry.state = new FlushState(state.dbReportCount() + (total - state.flushedReports()), total);
+                }
+            });
+            flushSequence.incrementAndGet();
+            // Reads between a buffered report and this commit may have cached the row without the delta.
+            complaintResponseCache.evictAll(flushedTotals.keySet().stream().map(entry -> entry.snapshot.getId()).toList());
+        }
+
+        // Entries retired on the previous flush have had a full interval for in-flight reports to land.
+        retiring.clear();
+        for (Map.Entry<ComplaintKey, Entry> retired; (retired = invalidated.poll()) != null; ) {
+            retiring.add(retired);
+        }
+        long idleBefore = System.currentTimeMillis() - properties.getReportBuffer().getIdleTimeout().toMillis();
+        entries.forEach((key, entry) -> {
+            if (entry.lastReportedAt < idleBefore && entries.remove(key, entry)) {
+                retiring.add(Map.entry(key, entry));
+            }
+        });
+    }
+
+    private static void collectDeltas(Iterable<Map.Entry<ComplaintKey, Entry>> source, Map<ComplaintKey, Long> deltas,
+                                      Map<Entry, Long> flushedTotals) {
+        for (Map.Entry<ComplaintKey, Entry> keyed : source) {
+            Entry entry = keyed.getValue();
+            long total = entry.reports.sum();
+            long delta = total - entry.state.flushedReports();
+            if (delta > 0) {
+                deltas.merge(keyed.getKey(), delta, Long::sum);
+                flushedTotals.put(entry, total);
+            }
+        }
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        flush();
+        if (pendingReports() > 0) {
+            log.warn("{} buffered report counts could not be written on shutdown", pendingReports());
+        }
+    }
+
+    private static Complaint copyOf(Complaint complaint) {
+        return Complaint.builder()
+                .id(complaint.getId())
+                .version(complaint.getVersion())
+                .productId(complaint.getProductId())
+                .content(complaint.getContent())
+                .createdAt(complaint.getCreatedAt())
+                .modifiedAt(complaint.getModifiedAt())
+                .reporter(complaint.getReporter())
+                .country(complaint.getCountry())
+                .reportCount(complaint.getReportCount())
+                .clusterId(complaint.getClusterId())
+                .build();
+    }
+
+    /**
+     * Report count as last written to the database and how many buffered reports it already includes.
+     */
+    private record FlushState(long dbReportCount, long flushedReports) {
+    }
+
+    private static final class Entry {
+        private final LongAdder reports = new LongAdder();
+        private volatile Complaint snapshot;
+        private volatile FlushState state;
+        private volatile long lastReportedAt = System.currentTimeMillis();
+
+        private Entry(Complaint complaint) {
+            this.snapshot = copyOf(complaint);
+            this.state = new FlushState(complaint.getReportCount(), 0);
+        }
+
+        private long pending() {
+            return reports.sum() - state.flushedReports();
+        }
+
+        private Complaint current() {
+            FlushState current = state;
+            Complaint complaint = copyOf(snapshot);
+            complaint.setReportCount((int) (current.dbReportCount() + reports.sum() - current.flushedReports()));
+            return complaint;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package pl.cbdd.complaintapi.service;
+
+import pl.cbdd.complaintapi.exception.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Opaque continuation token for search results ordered by {@code (rank DESC, id DESC)}. The rank is kept
+ * bit for bit, so the next page continues exactly after the last hit.
+ */
+record SearchCursor(float rank, UUID id) {
+
+    String encode() {
+        String raw = Integer.toHexString(Float.floatToIntBits(rank)) + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static SearchCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int bar = raw.indexOf('|');
+            float rank = Float.intBitsToFloat(Integer.parseUnsignedInt(raw.substring(0, bar), 16));
+            return new SearchCursor(rank, UUID.fromString(raw.substring(bar + 1)));
+        } catch (RuntimeException e) {
+            throw new InvalidCursorException("Invalid cursor: " + token);
+        }
+    }
+}
@@ -0,0 +1,256 @@
+package pl.cbdd.complaintapi.similarity;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import pl.cbdd.complaintapi.config.ComplaintProperties;
+import pl.cbdd.complaintapi.dto.ExportFilter;
+import pl.cbdd.complaintapi.model.Complaint;
+import pl.cbdd.complaintapi.repository.ComplaintRepository;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Near-duplicate index over complaint content, one locality-sensitive hashing index per product. Each
+ * complaint's {@link MinHasher MinHash} signature is cut into bands; only complaints sharing a whole band
+ * are compared, so a lookup touches a few buckets instead of every complaint of the product. Complaints
+ * are grouped into clusters named after their first complaint. The index is rebuilt in the background on
+ * startup and kept up to date by the write paths of this instance. It holds at most
+ * {@code max-complaints} complaints, about 2.3 KB each with the default 16 bands of 4 rows.
+ */
+@Slf4j
+@Component
+public class ComplaintSimilarityIndex {
+
+    /**
+     * Buckets stop growing at this size, so a flood of identical complaints does not make every lookup
+     * compare against all of them. Earlier members of the bucket still represent the cluster.
+     */
+    private static final int MAX_BUCKET_SIZE = 256;
+
+    private final ComplaintRepository complaintRepository;
+    private final ComplaintProperties properties;
+    private final ComplaintProperties.Similarity similarity;
+    private final MinHasher minHasher;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ConcurrentMap<String, ProductIndex> products = new ConcurrentHashMap<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicBoolean full = new AtomicBoolean();
+
+    public ComplaintSimilarityIndex(ComplaintRepository complaintRepository, PlatformTransactionManager transactionManager,
+                                    ComplaintProperties properties) {
+        this.complaintRepository = complaintRepository;
+        this.properties = properties;
+        this.similarity = properties.getSimilarity();
+        this.minHasher = new MinHasher(similarity.getBands() * similarity.getRows());
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    public boolean isEnabled() {
+        return similarity.isEnabled();
+    }
+
+    /**
+     * Starts the rebuild without holding up startup. Complaints written meanwhile are indexed by the write
+     * paths as usual; until the rebuild finishes, older complaints are simply not found as near-duplicates.
+     */
+    @PostConstruct
+    void init() {
+        if (isEnabled()) {
+            Thread.ofPlatform().name("similarity-index-rebuild").daemon().start(this::rebuild);
+        }
+    }
+
+    /**
+     * Scans the table in a read-only transaction, which PostgreSQL needs to honour the fetch size instead of
+     * loading every row into memory. Rows past {@code max-complaints} are read but not indexed.
+     */
+    void rebuild() {
+        long start = System.currentTimeMillis();
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> complaintRepository.streamComplaints(
+                    new ExportFilter(null, null, null, null), properties.getExport().getFetchSize(), this::add));
+            log.info("Indexed {} complaints for near-duplicate detection in {} ms", size(),
+                    System.currentTimeMillis() - start);
+        } catch (RuntimeException e) {
+            log.warn("Could not rebuild the near-duplicate index, continuing with {} complaints", size(), e);
+        }
+    }
+
+    /**
+     * Number of indexed complaints.
+     */
+    public int size() {
+        return size.get();
+    }
+
+    /**
+     * Indexes a new complaint, or replaces the content of an indexed one, and returns its cluster: the
+     * stored cluster id if set, else the cluster of the most similar earlier complaint of the product,
+     * else the complaint's own id.
+     */
+    public UUID add(Complaint complaint) {
+        UUID ownCluster = complaint.getClusterId() != null ? complaint.getClusterId() : complaint.getId();
+        if (!isEnabled()) {
+            return ownCluster;
+        }
+        int[] signature = minHasher.signature(complaint.getContent());
+        if (signature == null) {
+            return ownCluster;
+        }
+        return products.computeIfAbsent(complaint.getProductId(), productId -> new ProductIndex())
+                .add(complaint.getId(), signature, complaint.getClusterId());
+    }
+
+    /**
+     * Indexed complaints of the product at least as similar as the configured threshold, most similar first.
+     */
+    public List<Match> similar(UUID id, String productId, int limit) {
+        ProductIndex index = products.get(productId);
+        return index != null ? index.similar(id, limit) : List.of();
+    }
+
+    /**
+     * Clusters of at least {@code minSize} complaints, largest first, of one product or of all products
+     * when {@code productId} is {@code null}.
+     */
+    public List<Cluster> clusters(String productId, int minSize, int limit) {
+        Map<String, ProductIndex> selected = productId == null ? products
+                : products.containsKey(productId) ? Map.of(productId, products.get(productId)) : Map.of();
+        List<Cluster> clusters = new ArrayList<>();
+        selected.forEach((product, index) -> index.collectClusters(product, minSize, clusters));
+        clusters.sort(Comparator.comparingInt((Cluster cluster) -> cluster.complaintIds().size()).reversed());
+        return clusters.size() > limit ? List.copyOf(clusters.subList(0, limit)) : clusters;
+    }
+
+    private boolean reserve() {
+        int max = similarity.getMaxComplaints();
+        if (size.getAndUpdate(current -> current < max ? current + 1 : current) < max) {
+            return true;
+        }
+        if (full.compareAndSet(false, true)) {
+            log.warn("Near-duplicate index is full at {} complaints, new complaints are no longer indexed", max);
+        }
+        return false;
+    }
+
+    public record Match(UUID id, double similarity) {
+    }
+
+    public record Cluster(UUID id, String productId, List<UUID> complaintIds) {
+    }
+
+    private final class ProductIndex {
+        private final Map<Long, List<UUID>> buckets = new HashMap<>();
+        private final Map<UUID, Entry> entries = new HashMap<>();
+        private final Map<UUID, List<UUID>> clusters = new HashMap<>();
+
+        synchronized UUID add(UUID id, int[] signature, UUID storedCluster) {
+            Entry existing = entries.get(id);
+            if (existing != null) {
+                removeFromBuckets(id, existing.signature);
+                existing.signature = signature;
+                addToBuckets(id, signature);
+                return existing.cluster;
+            }
+            if (!reserve()) {
+                return storedCluster != null ? storedCluster : id;
+            }
+            UUID cluster = storedCluster;
+            if (cluster == null) {
+                Match best = matches(id, signature).stream().findFirst().orElse(null);
+                cluster = best != null ? entries.get(best.id()).cluster : id;
+            }
+            entries.put(id, new Entry(signature, cluster));
+            addToBuckets(id, signature);
+            clusters.computeIfAbsent(cluster, c -> new ArrayList<>()).add(id);
+            return cluster;
+        }
+
+        synchronized List<Match> similar(UUID id, int limit) {
+            Entry entry = entries.get(id);
+            if (entry == null) {
+                return List.of();
+            }
+            List<Match> matches = matches(id, entry.signature);
+            return matches.size() > limit ? List.copyOf(matches.subList(0, limit)) : matches;
+        }
+
+        synchronized void collectClusters(String productId, int minSize, List<Cluster> target) {
+            clusters.forEach((cluster, members) -> {
+                if (members.size() >= minSize) {
+                    target.add(new Cluster(cluster, productId, List.copyOf(members)));
+                }
+            });
+        }
+
+        private List<Match> matches(UUID id, int[] signature) {
+            Set<UUID> candidates = new LinkedHashSet<>();
+            for (int band = 0; band < similarity.getBands(); band++) {
+                candidates.addAll(buckets.getOrDefault(bandKey(signature, band), List.of()));
+            }
+            candidates.remove(id);
+            List<Match> matches = new ArrayList<>();
+            for (UUID candidate : candidates) {
+                double score = MinHasher.similarity(signature, entries.get(candidate).signature);
+                if (score >= similarity.getThreshold()) {
+                    matches.add(new Match(candidate, score));
+                }
+            }
+            matches.sort(Comparator.comparingDouble(Match::similarity).reversed());
+            return matches;
+        }
+
+        private void addToBuckets(UUID id, int[] signature) {
+            for (int band = 0; band < similarity.getBands(); band++) {
+                List<UUID> bucket = buckets.computeIfAbsent(bandKey(signature, band), key -> new ArrayList<>(1));
+                if (bucket.size() < MAX_BUCKET_SIZE) {
+                    bucket.add(id);
+                }
+            }
+        }
+
+        private void removeFromBuckets(UUID id, int[] signature) {
+            for (int band = 0; band < similarity.getBands(); band++) {
+                long key = bandKey(signature, band);
+                List<UUID> bucket = buckets.get(key);
+                if (bucket != null && bucket.remove(id) && bucket.isEmpty()) {
+                    buckets.remove(key);
+                }
+            }
+        }
+
+        private long bandKey(int[] signature, int band) {
+            long key = band;
+            int rows = similarity.getRows();
+            for (int row = band * rows; row < (band + 1) * rows; row++) {
+                key = key * 0x9E3779B97F4A7C15L + signature[row];
+            }
+            return key;
+        }
+    }
+
+    private static final class Entry {
+        private int[] signature;
+        private final UUID cluster;
+
+        private Entry(int[] signature, UUID cluster) {
+            this.signature = signature;
+            this.cluster = cluster;
+        }
+    }
+}
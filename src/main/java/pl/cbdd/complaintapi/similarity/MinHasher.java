@@ -0,0 +1,68 @@
+package pl.cbdd.complaintapi.similarity;
+
+import pl.cbdd.complaintapi.search.ComplaintSearchIndex;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * MinHash signatures over the word pairs of a text. The share of equal values in two signatures estimates
+ * the Jaccard similarity of the two sets of word pairs, so rewording a few words of a complaint keeps it close.
+ */
+final class MinHasher {
+
+    private final long[] seeds;
+
+    MinHasher(int size) {
+        SplittableRandom random = new SplittableRandom(0x5DEECE66DL);
+        this.seeds = new long[size];
+        for (int i = 0; i < size; i++) {
+            seeds[i] = random.nextLong();
+        }
+    }
+
+    /**
+     * Signature of {@code text}, or {@code null} when it contains no words.
+     */
+    int[] signature(String text) {
+        List<String> words = ComplaintSearchIndex.tokenize(text);
+        if (words.isEmpty()) {
+            return null;
+        }
+        int[] signature = new int[seeds.length];
+        Arrays.fill(signature, Integer.MAX_VALUE);
+        if (words.size() == 1) {
+            update(signature, words.get(0).hashCode());
+        }
+        for (int i = 1; i < words.size(); i++) {
+            update(signature, 31 * words.get(i - 1).hashCode() + words.get(i).hashCode());
+        }
+        return signature;
+    }
+
+    static double similarity(int[] first, int[] second) {
+        int equal = 0;
+        for (int i = 0; i < first.length; i++) {
+            if (first[i] == second[i]) {
+                equal++;
+            }
+        }
+        return (double) equal / first.length;
+    }
+
+    private void update(int[] signature, int shingle) {
+        for (int i = 0; i < seeds.length; i++) {
+            int hash = (int) (mix(shingle ^ seeds[i]) >>> 33);
+            if (hash < signature[i]) {
+                signature[i] = hash;
+            }
+        }
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
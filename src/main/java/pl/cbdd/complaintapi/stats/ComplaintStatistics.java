@@ -0,0 +1,150 @@
+package pl.cbdd.complaintapi.stats;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import pl.cbdd.complaintapi.config.ComplaintProperties;
+import pl.cbdd.complaintapi.dto.ComplaintStatsResponse;
+import pl.cbdd.complaintapi.dto.ComplaintStatsResponse.CountryStats;
+import pl.cbdd.complaintapi.dto.ComplaintStatsResponse.ProductStats;
+import pl.cbdd.complaintapi.repository.ComplaintRepository;
+import pl.cbdd.complaintapi.service.CountryEnrichmentService;
+import pl.cbdd.complaintapi.service.GeoLocationService;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory complaint statistics, updated on every report instead of aggregating the table on read.
+ * Countries are counted exactly; products go into a {@link CountMinSketch} with the most reported ones
+ * kept in {@link HeavyHitters}, so memory stays bounded however many products there are. The counters
+ * are rebuilt from the database on startup, before the application accepts requests.
+ */
+@Slf4j
+@Component
+public class ComplaintStatistics {
+
+    private final ComplaintRepository complaintRepository;
+    private final ComplaintProperties.Stats properties;
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final LongAdder totalComplaints = new LongAdder();
+    private final LongAdder totalReports = new LongAdder();
+    private final LongAdder createdComplaints = new LongAdder();
+    private final LongAdder duplicateReports = new LongAdder();
+    private final ConcurrentMap<String, CountryCounter> countries = new ConcurrentHashMap<>();
+    private final CountMinSketch productReports;
+    private final HeavyHitters topProducts;
+
+    public ComplaintStatistics(ComplaintRepository complaintRepository, PlatformTransactionManager transactionManager,
+                               ComplaintProperties complaintProperties) {
+        this.complaintRepository = complaintRepository;
+        this.properties = complaintProperties.getStats();
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.productReports = new CountMinSketch(properties.getSketchWidth(), properties.getSketchDepth());
+        this.topProducts = new HeavyHitters(properties.getTopProducts());
+    }
+
+    /**
+     * Counts {@code reports} reports of one complaint, which was just created when {@code newComplaint} is set.
+     */
+    public void recordReports(String productId, String country, int reports, boolean newComplaint) {
+        if (newComplaint) {
+            createdComplaints.increment();
+        }
+        duplicateReports.add(newComplaint ? reports - 1 : reports);
+        if (!properties.isEnabled()) {
+            return;
+        }
+        CountryCounter counter = counter(country);
+        if (newComplaint) {
+            totalComplaints.increment();
+            counter.complaints.increment();
+        }
+        totalReports.add(reports);
+        counter.reports.add(reports);
+        topProducts.offer(productId, productReports.add(productId, reports));
+    }
+
+    /**
+     * Moves complaints that were saved with a pending country to the resolved one. Repeat reports
+     * received while the country was pending are moved on the next restart.
+     */
+    public void recordCountryResolved(String country, int complaints) {
+        if (!properties.isEnabled() || complaints <= 0) {
+            return;
+        }
+        CountryCounter pending = counter(CountryEnrichmentService.PENDING_COUNTRY);
+        pending.complaints.add(-complaints);
+        pending.reports.add(-complaints);
+        CountryCounter resolved = counter(country);
+        resolved.complaints.add(complaints);
+        resolved.reports.add(complaints);
+    }
+
+    public ComplaintStatsResponse snapshot() {
+        List<CountryStats> byCountry = countries.entrySet().stream()
+                .map(entry -> new CountryStats(entry.getKey(), entry.getValue().complaints.sum(), entry.getValue().reports.sum()))
+                .filter(stats -> stats.getComplaints() > 0 || stats.getReports() > 0)
+                .sorted(Comparator.comparingLong(CountryStats::getReports).reversed())
+                .toList();
+        List<ProductStats> products = topProducts.top().stream()
+                .map(entry -> new ProductStats(entry.getKey(), entry.getValue()))
+                .toList();
+        return new ComplaintStatsResponse(totalComplaints.sum(), totalReports.sum(), byCountry, products);
+    }
+
+    /**
+     * Complaints created since startup, counted even when statistics are disabled.
+     */
+    public long createdComplaints() {
+        return createdComplaints.sum();
+    }
+
+    /**
+     * Reports of already existing complaints received since startup, counted even when statistics are disabled.
+     */
+    public long duplicateReports() {
+        return duplicateReports.sum();
+    }
+
+    /**
+     * Both aggregations run in one read-only transaction: PostgreSQL only honours the fetch size of the
+     * per-product scan inside a transaction, and otherwise loads every product group into memory.
+     */
+    @PostConstruct
+    void rebuild() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        readOnlyTransaction.executeWithoutResult(status -> {
+            complaintRepository.aggregateByCountry((country, complaints, reports) -> {
+                CountryCounter counter = counter(country);
+                counter.complaints.add(complaints);
+                counter.reports.add(reports);
+                totalComplaints.add(complaints);
+                totalReports.add(reports);
+            });
+            complaintRepository.aggregateByProduct(properties.getRebuildFetchSize(), (productId, complaints, reports) ->
+                    topProducts.offer(productId, productReports.add(productId, reports)));
+        });
+        log.info("Rebuilt statistics of {} complaints in {} ms", totalComplaints.sum(), System.currentTimeMillis() - start);
+    }
+
+    private CountryCounter counter(String country) {
+        return countries.computeIfAbsent(country != null ? country : GeoLocationService.UNKNOWN_COUNTRY,
+                key -> new CountryCounter());
+    }
+
+    private static final class CountryCounter {
+        private final LongAdder complaints = new LongAdder();
+        private final LongAdder reports = new LongAdder();
+    }
+}
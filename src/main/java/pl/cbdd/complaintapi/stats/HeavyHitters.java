@@ -0,0 +1,105 @@
+package pl.cbdd.complaintapi.stats;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * The {@code capacity} keys with the highest estimated counts seen so far. Keys are offered with their
+ * current estimate from a {@link CountMinSketch}; a new key replaces the smallest tracked one once its
+ * estimate is larger.
+ * <p>
+ * Offers are spread over stripes by calling thread, so concurrent reports, even of the same key, rarely
+ * wait on the same lock. Each stripe keeps its own top {@code capacity}, and {@link #top()} merges them,
+ * keeping the highest estimate seen for each key.
+ */
+final class HeavyHitters {
+
+    private final int capacity;
+    private final Stripe[] stripes;
+    private final int mask;
+
+    HeavyHitters(int capacity) {
+        this(capacity, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param stripes number of stripes, rounded up to a power of two
+     */
+    HeavyHitters(int capacity, int stripes) {
+        this.capacity = capacity;
+        int count = Integer.highestOneBit(Math.max(stripes - 1, 1)) << 1;
+        this.stripes = new Stripe[count];
+        this.mask = count - 1;
+        for (int i = 0; i < count; i++) {
+            this.stripes[i] = new Stripe(capacity);
+        }
+    }
+
+    void offer(String key, long estimate) {
+        stripes[(int) Thread.currentThread().threadId() & mask].offer(key, estimate);
+    }
+
+    /**
+     * Tracked keys by estimated count, highest first.
+     */
+    List<Map.Entry<String, Long>> top() {
+        Map<String, Long> merged = new HashMap<>(capacity * 2);
+        for (Stripe stripe : stripes) {
+            stripe.forEach((key, count) -> merged.merge(key, count, Math::max));
+        }
+        List<Map.Entry<String, Long>> top = new ArrayList<>(merged.size());
+        merged.forEach((key, count) -> top.add(Map.entry(key, count)));
+        top.sort(Map.Entry.<String, Long>comparingByValue().reversed());
+        return top.size() > capacity ? top.subList(0, capacity) : top;
+    }
+
+    private static final class Stripe {
+
+        private final int capacity;
+        private final Map<String, Long> counts;
+        private String minKey;
+
+        private Stripe(int capacity) {
+            this.capacity = capacity;
+            this.counts = new HashMap<>(capacity * 2);
+        }
+
+        private synchronized void offer(String key, long estimate) {
+            if (counts.containsKey(key) || counts.size() < capacity) {
+                // Offers from threads sharing the stripe may arrive out of order.
+                counts.merge(key, estimate, Math::max);
+                if (key.equals(minKey)) {
+                    minKey = null;
+                }
+                return;
+            }
+            if (minKey == null) {
+                minKey = findMin();
+            }
+            if (estimate > counts.get(minKey)) {
+                counts.remove(minKey);
+                counts.put(key, estimate);
+                minKey = null;
+            }
+        }
+
+        private synchronized void forEach(BiConsumer<String, Long> action) {
+            counts.forEach(action);
+        }
+
+        private String findMin() {
+            String min = null;
+            long minCount = Long.MAX_VALUE;
+            for (Map.Entry<String, Long> entry : counts.entrySet()) {
+                if (entry.getValue() < minCount) {
+                    min = entry.getKey();
+                    minCount = entry.getValue();
+                }
+            }
+            return min;
+        }
+    }
+}
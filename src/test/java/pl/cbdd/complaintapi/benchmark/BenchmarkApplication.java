@@ -0,0 +1,85 @@
+package pl.cbdd.complaintapi.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.web.client.RestTemplate;
+import pl.cbdd.complaintapi.ComplaintApiApplication;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Starts the application for benchmarks on the test profile (embedded H2) with the external GeoLocation
+ * API stubbed behind the real {@code GeoLocationService}, circuit breaker and retry.
+ */
+final class BenchmarkApplication {
+
+    static final String STUB_COUNTRY = "Poland";
+
+    private BenchmarkApplication() {
+    }
+
+    /**
+     * @param properties {@code key=value} pairs, applied with command-line precedence so they override the yaml files
+     */
+    static ConfigurableApplicationContext start(String... properties) {
+        return start(WebApplicationType.NONE, properties);
+    }
+
+    /**
+     * Starts the application with an embedded Tomcat on a random port, see {@link #port}.
+     */
+    static ConfigurableApplicationContext startServer(String... properties) {
+        return start(WebApplicationType.SERVLET, Stream.concat(Stream.of("server.port=0"), Arrays.stream(properties))
+                .toArray(String[]::new));
+    }
+
+    static int port(ConfigurableApplicationContext context) {
+        return ((WebServerApplicationContext) context).getWebServer().getPort();
+    }
+
+    private static ConfigurableApplicationContext start(WebApplicationType webApplicationType, String... properties) {
+        String[] args = Stream.concat(Stream.of("logging.level.root=WARN"), Arrays.stream(properties))
+                .map(property -> "--" + property)
+                .toArray(String[]::new);
+        return new SpringApplicationBuilder(ComplaintApiApplication.class, StubGeoLocationApi.class)
+                .profiles("test")
+                .web(webApplicationType)
+                .run(args);
+    }
+
+    /**
+     * Answers every lookup with {@link #STUB_COUNTRY}, after {@code benchmark.geolocation.delay} to simulate a slow API.
+     */
+    @TestConfiguration
+    static class StubGeoLocationApi {
+
+        @Bean
+        @Primary
+        RestTemplate stubGeoLocationRestTemplate(@Value("${benchmark.geolocation.delay:0ms}") Duration delay) {
+            ObjectMapper objectMapper = new ObjectMapper();
+            return new RestTemplate() {
+                @Override
+                public <T> T getForObject(String url, Class<T> responseType, Object... uriVariables) {
+                    if (!delay.isZero()) {
+                        try {
+                            Thread.sleep(delay);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }
+                    return objectMapper.convertValue(Map.of("country", STUB_COUNTRY), responseType);
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package pl.cbdd.complaintapi.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import pl.cbdd.complaintapi.dto.ComplaintResponse;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON serialization of a single {@link ComplaintResponse} and of a {@code Page<ComplaintResponse>} as returned
+ * by {@code GET /api/v1/complaints/all}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ComplaintJsonBenchmark {
+
+    private ObjectMapper objectMapper;
+    private ComplaintResponse complaint;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        complaint = complaint(0);
+    }
+
+    @Benchmark
+    public byte[] complaint() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(complaint);
+    }
+
+    @Benchmark
+    public byte[] page(PageState state) throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(state.page);
+    }
+
+    @State(Scope.Benchmark)
+    public static class PageState {
+
+        @Param({"20", "1000"})
+        public int pageSize;
+
+        private Page<ComplaintResponse> page;
+
+        @Setup
+        public void setUp() {
+            List<ComplaintResponse> content = new ArrayList<>(pageSize);
+            for (int i = 0; i < pageSize; i++) {
+                content.add(complaint(i));
+            }
+            page = new PageImpl<>(content, PageRequest.of(0, pageSize), 100_000);
+        }
+    }
+
+    private static ComplaintResponse complaint(int i) {
+        ComplaintResponse response = new ComplaintResponse();
+        response.setId(UUID.randomUUID());
+        response.setProductId("product-" + i);
+        response.setContent("The product stopped working after " + i + " days");
+        response.setCreatedAt(new Timestamp(System.currentTimeMillis() - i));
+        response.setReporter("reporter-" + i);
+        response.setCountry("Poland");
+        response.setReportCount(1 + i % 5);
+        return response;
+    }
+}
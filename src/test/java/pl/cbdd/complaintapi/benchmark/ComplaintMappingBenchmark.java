@@ -0,0 +1,80 @@
+package pl.cbdd.complaintapi.benchmark;
+
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import pl.cbdd.complaintapi.dto.ComplaintResponse;
+import pl.cbdd.complaintapi.mapper.ComplaintMapper;
+import pl.cbdd.complaintapi.model.Complaint;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reflective ModelMapper against the hand-written {@link ComplaintMapper}, per complaint and per 1,000-row page.
+ * Run with {@code -prof gc} to compare allocation rates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ComplaintMappingBenchmark {
+
+    private static final int PAGE_SIZE = 1000;
+
+    private final ModelMapper modelMapper = new ModelMapper();
+    private final ComplaintMapper complaintMapper = new ComplaintMapper();
+    private List<Complaint> page;
+    private Complaint complaint;
+
+    @Setup
+    public void setUp() {
+        page = new ArrayList<>(PAGE_SIZE);
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            page.add(Complaint.builder()
+                    .id(UUID.randomUUID())
+                    .version(0L)
+                    .productId("product-" + i)
+                    .content("The product stopped working after " + i + " days")
+                    .createdAt(new Timestamp(now - i))
+                    .modifiedAt(new Timestamp(now - i))
+                    .reporter("reporter-" + i)
+                    .country("Poland")
+                    .reportCount(1 + i % 5)
+                    .build());
+        }
+        complaint = page.get(0);
+    }
+
+    @Benchmark
+    public ComplaintResponse modelMapperSingle() {
+        return modelMapper.map(complaint, ComplaintResponse.class);
+    }
+
+    @Benchmark
+    public ComplaintResponse complaintMapperSingle() {
+        return complaintMapper.toResponse(complaint);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PAGE_SIZE)
+    public void modelMapperPage(Blackhole blackhole) {
+        for (Complaint row : page) {
+            blackhole.consume(modelMapper.map(row, ComplaintResponse.class));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PAGE_SIZE)
+    public void complaintMapperPage(Blackhole blackhole) {
+        for (Complaint row : page) {
+            blackhole.consume(complaintMapper.toResponse(row));
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package pl.cbdd.complaintapi.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import pl.cbdd.complaintapi.dto.ComplaintResponse;
+import pl.cbdd.complaintapi.dto.ComplaintWindowResponse;
+import pl.cbdd.complaintapi.service.ComplaintService;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of the first and the 10,000th page of complaints with offset pagination (with and without
+ * the total count) and with cursor pagination, against H2 on the test profile.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ComplaintPaginationBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+    private static final int DEEP_PAGE = 10_000;
+    private static final int ROWS = PAGE_SIZE * (DEEP_PAGE + 1);
+
+    private ConfigurableApplicationContext context;
+    private ComplaintService complaintService;
+    private Pageable firstPage;
+    private Pageable deepPage;
+    private String deepCursor;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        complaintService = context.getBean(ComplaintService.class);
+        insertComplaints(context.getBean(JdbcTemplate.class));
+
+        Sort sort = Sort.by(Sort.Direction.DESC, "id");
+        firstPage = PageRequest.of(0, PAGE_SIZE, sort);
+        deepPage = PageRequest.of(DEEP_PAGE - 1, PAGE_SIZE, sort);
+
+        ComplaintWindowResponse window = complaintService.scrollComplaints(null, PAGE_SIZE * (DEEP_PAGE - 1));
+        deepCursor = window.getNextCursor();
+        if (deepCursor == null || complaintService.getAllComplaints(deepPage).isEmpty()) {
+            throw new IllegalStateException("Benchmark data was not loaded");
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Slice<ComplaintResponse> offsetFirstPage() {
+        return complaintService.getAllComplaints(firstPage);
+    }
+
+    @Benchmark
+    public Slice<ComplaintResponse> offsetDeepPage() {
+        return complaintService.getAllComplaints(deepPage);
+    }
+
+    @Benchmark
+    public Slice<ComplaintResponse> sliceDeepPage() {
+        return complaintService.getComplaintsSlice(deepPage);
+    }
+
+    @Benchmark
+    public ComplaintWindowResponse cursorFirstPage() {
+        return complaintService.scrollComplaints(null, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public ComplaintWindowResponse cursorDeepPage() {
+        return complaintService.scrollComplaints(deepCursor, PAGE_SIZE);
+    }
+
+    private static void insertComplaints(JdbcTemplate jdbcTemplate) {
+        long now = System.currentTimeMillis();
+        List<Object[]> batch = new ArrayList<>(1000);
+        for (int i = 0; i < ROWS; i++) {
+            Timestamp createdAt = new Timestamp(now - i * 1000L);
+            batch.add(new Object[]{UUID.randomUUID(), "product-" + i, "content", createdAt, createdAt, "reporter", "Poland"});
+            if (batch.size() == 1000) {
+                insert(jdbcTemplate, batch);
+                batch.clear();
+            }
+        }
+        insert(jdbcTemplate, batch);
+    }
+
+    private static void insert(JdbcTemplate jdbcTemplate, List<Object[]> batch) {
+        jdbcTemplate.batchUpdate("INSERT INTO complaints (id, version, product_id, content, created_at, modified_at, "
+                + "reporter, country, report_count) VALUES (?, 0, ?, ?, ?, ?, ?, ?, 1)", batch);
+    }
+}
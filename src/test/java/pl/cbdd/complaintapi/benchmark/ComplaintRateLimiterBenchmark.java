@@ -0,0 +1,48 @@
+package pl.cbdd.complaintapi.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import pl.cbdd.complaintapi.config.ComplaintProperties;
+import pl.cbdd.complaintapi.ratelimit.ComplaintRateLimiter;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the rate limit check on {@code POST /api/v1/complaints}, for a client and reporter that stay
+ * within their limits, spread over {@code keys} distinct clients.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ComplaintRateLimiterBenchmark {
+
+    @Param({"1", "10000"})
+    public int keys;
+
+    private ComplaintRateLimiter rateLimiter;
+    private String[] ips;
+    private String[] reporters;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        ComplaintProperties properties = new ComplaintProperties();
+        properties.getRateLimit().getPerIp().setPermitsPerSecond(1e9);
+        properties.getRateLimit().getPerReporter().setPermitsPerSecond(1e9);
+        rateLimiter = new ComplaintRateLimiter(properties);
+        ips = new String[keys];
+        reporters = new String[keys];
+        for (int i = 0; i < keys; i++) {
+            ips[i] = "10.0." + (i >> 8) + "." + (i & 0xFF);
+            reporters[i] = "reporter-" + i;
+        }
+    }
+
+    @Benchmark
+    public void acquire() {
+        int i = next++ % keys;
+        rateLimiter.acquire(ips[i], reporters[i]);
+    }
+}
@@ -0,0 +1,91 @@
+package pl.cbdd.complaintapi.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import pl.cbdd.complaintapi.dto.ComplaintRequest;
+import pl.cbdd.complaintapi.dto.ComplaintResponse;
+import pl.cbdd.complaintapi.service.ComplaintService;
+import pl.cbdd.complaintapi.service.CountryResolver;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The complaint submission path: country resolution against the stubbed GeoLocation API, followed by
+ * {@link ComplaintService#addComplaint} for a first report and for a repeat report, against H2. Client IPs
+ * rotate through a pool, so with more IPs than the GeoLocation cache holds most lookups miss it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ComplaintSubmissionBenchmark {
+
+    /**
+     * Whether repeat reports are counted in the write-behind buffer instead of one upsert per report.
+     */
+    @Param({"false", "true"})
+    public boolean reportBuffer;
+
+    /**
+     * Distinct client IPs; 100,000 is ten times the GeoLocation cache size.
+     */
+    @Param({"1", "100000"})
+    public int clientIps;
+
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicLong ipSequence = new AtomicLong();
+    private String[] ips;
+    private ConfigurableApplicationContext context;
+    private ComplaintService complaintService;
+    private CountryResolver countryResolver;
+    private ComplaintRequest repeatRequest;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start("complaints.report-buffer.enabled=" + reportBuffer);
+        complaintService = context.getBean(ComplaintService.class);
+        countryResolver = context.getBean(CountryResolver.class);
+        ips = new String[clientIps];
+        for (int i = 0; i < clientIps; i++) {
+            ips[i] = "83." + (i >>> 16 & 0xFF) + "." + (i >>> 8 & 0xFF) + "." + (i & 0xFF);
+        }
+
+        repeatRequest = request("product-hot");
+        complaintService.addComplaint(repeatRequest);
+        complaintService.addComplaint(repeatRequest);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public ComplaintResponse firstReport() {
+        ComplaintRequest request = request("product-" + sequence.incrementAndGet());
+        request.setCountry(countryResolver.resolveCountry(nextIp()));
+        return complaintService.addComplaint(request);
+    }
+
+    @Benchmark
+    public ComplaintResponse repeatReport() {
+        repeatRequest.setCountry(countryResolver.resolveCountry(nextIp()));
+        return complaintService.addComplaint(repeatRequest);
+    }
+
+    private String nextIp() {
+        return ips[(int) (ipSequence.getAndIncrement() % ips.length)];
+    }
+
+    private static ComplaintRequest request(String productId) {
+        ComplaintRequest request = new ComplaintRequest();
+        request.setProductId(productId);
+        request.setContent("The product stopped working after two days");
+        request.setReporter("John Doe");
+        request.setCountry(BenchmarkApplication.STUB_COUNTRY);
+        return request;
+    }
+}
@@ -0,0 +1,88 @@
+package pl.cbdd.complaintapi.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Platform against virtual request threads under load: every invocation sends {@link #CONCURRENT_REQUESTS}
+ * concurrent {@code POST /api/v1/complaints} over HTTP while the stubbed GeoLocation API takes
+ * {@link #geolocationDelay} per lookup. Every request comes from a different IP and the country cache is
+ * disabled, so every request waits on the stub.
+ * With platform threads the requests queue behind Tomcat's 200 workers; with virtual threads they are
+ * only bounded by the connection pool.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ComplaintThreadingBenchmark {
+
+    static final int CONCURRENT_REQUESTS = 1000;
+
+    @Param({"false", "true"})
+    public boolean virtualThreads;
+
+    @Param({"0ms", "500ms"})
+    public String geolocationDelay;
+
+    private final AtomicLong sequence = new AtomicLong();
+    private ConfigurableApplicationContext context;
+    private ExecutorService clientExecutor;
+    private HttpClient client;
+    private URI complaintsUri;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.startServer(
+                "spring.threads.virtual.enabled=" + virtualThreads,
+                "benchmark.geolocation.delay=" + geolocationDelay,
+                "geolocation.cache.enabled=false",
+                "complaints.rate-limit.enabled=false",
+                "server.tomcat.accept-count=" + CONCURRENT_REQUESTS);
+        complaintsUri = URI.create("http://localhost:" + BenchmarkApplication.port(context) + "/api/v1/complaints");
+        clientExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        client = HttpClient.newBuilder().executor(clientExecutor).build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        client.close();
+        clientExecutor.close();
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CONCURRENT_REQUESTS)
+    public int submitConcurrently() {
+        CompletableFuture<?>[] responses = new CompletableFuture<?>[CONCURRENT_REQUESTS];
+        for (int i = 0; i < CONCURRENT_REQUESTS; i++) {
+            long n = sequence.incrementAndGet();
+            HttpRequest request = HttpRequest.newBuilder(complaintsUri)
+                    .header("Content-Type", "application/json")
+                    .header("X-Forwarded-For", "10." + (n >> 16 & 0xff) + "." + (n >> 8 & 0xff) + "." + (n & 0xff))
+                    .POST(HttpRequest.BodyPublishers.ofString("{\"productId\":\"product-" + n
+                            + "\",\"content\":\"The product stopped working after two days\",\"reporter\":\"John Doe\"}"))
+                    .build();
+            responses[i] = client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .thenAccept(response -> {
+                        if (response.statusCode() != 200) {
+                            throw new IllegalStateException("Unexpected status " + response.statusCode());
+                        }
+                    });
+        }
+        CompletableFuture.allOf(responses).join();
+        return responses.length;
+    }
+}
@@ -0,0 +1,89 @@
+package pl.cbdd.complaintapi.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import pl.cbdd.complaintapi.geoip.GeoIpRangeTable;
+import pl.cbdd.complaintapi.geoip.GeoIpRangeTableCompiler;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lookup cost of the offline GeoIP table with a table roughly the size of a public country database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GeoIpLookupBenchmark {
+
+    private static final int IPV4_RANGES = 250_000;
+    private static final int IPV6_RANGES = 50_000;
+    private static final int SAMPLES = 1024;
+
+    private GeoIpRangeTable table;
+    private String[] ipv4Samples;
+    private int[] ipv4RawSamples;
+    private String[] ipv6Samples;
+    private int cursor;
+
+    @Setup
+    public void setUp() throws IOException {
+        Random random = new Random(42);
+        Path csv = Files.createTempFile("geoip-benchmark", ".csv");
+        Path compiled = Files.createTempFile("geoip-benchmark", ".bin");
+        try (BufferedWriter writer = Files.newBufferedWriter(csv)) {
+            long step = (1L << 32) / IPV4_RANGES;
+            for (int i = 0; i < IPV4_RANGES; i++) {
+                long start = i * step;
+                writer.write(ipv4(start) + "," + ipv4(start + step - 2) + ",Country" + (i % 250) + "\n");
+            }
+            for (int i = 0; i < IPV6_RANGES; i++) {
+                String prefix = "2a%02x:%04x".formatted(i >>> 16, i & 0xffff);
+                writer.write(prefix + "::," + prefix + ":ffff:ffff:ffff:ffff:ffff:ffff,Country" + (i % 250) + "\n");
+            }
+        }
+        GeoIpRangeTableCompiler.compile(csv, compiled);
+        table = GeoIpRangeTable.open(compiled);
+        Files.delete(csv);
+
+        ipv4Samples = new String[SAMPLES];
+        ipv4RawSamples = new int[SAMPLES];
+        ipv6Samples = new String[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            int address = random.nextInt();
+            ipv4RawSamples[i] = address;
+            ipv4Samples[i] = ipv4(Integer.toUnsignedLong(address));
+            int range = random.nextInt(IPV6_RANGES);
+            ipv6Samples[i] = "2a%02x:%04x::%x".formatted(range >>> 16, range & 0xffff, random.nextInt(0xffff));
+        }
+    }
+
+    @Benchmark
+    public String lookupIpv4String() {
+        return table.lookup(ipv4Samples[next()]);
+    }
+
+    @Benchmark
+    public String lookupIpv4Parsed() {
+        return table.lookupIpv4(ipv4RawSamples[next()]);
+    }
+
+    @Benchmark
+    public String lookupIpv6String() {
+        return table.lookup(ipv6Samples[next()]);
+    }
+
+    private int next() {
+        return cursor = (cursor + 1) & (SAMPLES - 1);
+    }
+
+    private static String ipv4(long address) {
+        return ((address >>> 24) & 0xff) + "." + ((address >>> 16) & 0xff) + "." + ((address >>> 8) & 0xff) + "." + (address & 0xff);
+    }
+}
@@ -0,0 +1,57 @@
+package pl.cbdd.complaintapi.benchmark;
+
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.prometheusmetrics.PrometheusConfig;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import pl.cbdd.complaintapi.metrics.GeoLocationMetrics;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost the metrics add per call on the hot path, recorded into a Prometheus registry: a prebuilt timer
+ * with a percentile histogram, the meter lookup {@code @Timed} does on every service call, and the
+ * outcome tracking around a GeoLocation lookup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MetricsOverheadBenchmark {
+
+    private PrometheusMeterRegistry registry;
+    private Timer timer;
+    private GeoLocationMetrics geoLocationMetrics;
+
+    @Setup
+    public void setUp() {
+        registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        timer = Timer.builder("benchmark.timer").publishPercentileHistogram().register(registry);
+        geoLocationMetrics = new GeoLocationMetrics(registry);
+    }
+
+    @Benchmark
+    public void prebuiltTimer() {
+        timer.record(1_000_000, TimeUnit.NANOSECONDS);
+    }
+
+    @Benchmark
+    public void timedServiceCall() {
+        Timer.builder("complaints.service")
+                .tags(Tags.of("class", "ComplaintServiceImpl", "method", "addComplaint", "exception", "none"))
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(1_000_000, TimeUnit.NANOSECONDS);
+    }
+
+    @Benchmark
+    public String geoLocationLookup() {
+        return geoLocationMetrics.record(() -> {
+            geoLocationMetrics.attempt();
+            return "Poland";
+        });
+    }
+}
@@ -0,0 +1,79 @@
+package pl.cbdd.complaintapi.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import pl.cbdd.complaintapi.config.GeoLocationProperties;
+
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertAll;
+
+class GeoLocationCacheTest {
+
+    @TempDir
+    private Path tempDir;
+
+    private GeoLocationProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        properties = new GeoLocationProperties();
+        properties.getCache().setSnapshotFile(tempDir.resolve("geo-cache.tsv").toString());
+    }
+
+    @Test
+    void shouldReturnCachedCountryAndRecordStats() {
+        GeoLocationCache cache = new GeoLocationCache(properties);
+
+        cache.put("1.1.1.1", "Poland");
+
+        assertAll(
+                () -> assertThat(cache.get("1.1.1.1")).isEqualTo("Poland"),
+                () -> assertThat(cache.get("2.2.2.2")).isNull(),
+                () -> assertThat(cache.stats().hitCount()).isEqualTo(1),
+                () -> assertThat(cache.stats().missCount()).isEqualTo(1)
+        );
+    }
+
+    @Test
+    void shouldCacheUnknownButNotFallbackCountry() {
+        GeoLocationCache cache = new GeoLocationCache(properties);
+
+        cache.put("1.1.1.1", "Unknown");
+        cache.put("2.2.2.2", "Fallback Country");
+
+        assertAll(
+                () -> assertThat(cache.get("1.1.1.1")).isEqualTo("Unknown"),
+                () -> assertThat(cache.get("2.2.2.2")).isNull()
+        );
+    }
+
+    @Test
+    void shouldNotCacheWhenDisabled() {
+        properties.getCache().setEnabled(false);
+        GeoLocationCache cache = new GeoLocationCache(properties);
+
+        cache.put("1.1.1.1", "Poland");
+
+        assertThat(cache.get("1.1.1.1")).isNull();
+    }
+
+    @Test
+    void shouldRestoreEntriesFromSnapshot() {
+        GeoLocationCache cache = new GeoLocationCache(properties);
+        cache.put("1.1.1.1", "Poland");
+        cache.put("2.2.2.2", "Germany");
+        cache.saveSnapshot();
+
+        GeoLocationCache restored = new GeoLocationCache(properties);
+        restored.loadSnapshot();
+
+        assertAll(
+                () -> assertThat(restored.size()).isEqualTo(2),
+                () -> assertThat(restored.get("1.1.1.1")).isEqualTo("Poland"),
+                () -> assertThat(restored.get("2.2.2.2")).isEqualTo("Germany")
+        );
+    }
+}
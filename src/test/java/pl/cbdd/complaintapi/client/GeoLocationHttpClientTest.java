@@ -0,0 +1,138 @@
+package pl.cbdd.complaintapi.client;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+import pl.cbdd.complaintapi.config.GeoLocationProperties;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class GeoLocationHttpClientTest {
+
+    private static final byte[] BODY = "{\"country\":\"Poland\"}".getBytes(StandardCharsets.UTF_8);
+
+    private final Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+    private HttpServer server;
+    private GeoLocationProperties properties;
+    private GeoLocationHttpClient httpClient;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/json", this::respond);
+        server.createContext("/slow", exchange -> {
+            sleep(Duration.ofSeconds(2));
+            respond(exchange);
+        });
+        server.createContext("/trickle", exchange -> {
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream body = exchange.getResponseBody()) {
+                for (int i = 0; i < 10; i++) {
+                    body.write(' ');
+                    body.flush();
+                    sleep(Duration.ofMillis(200));
+                }
+            }
+        });
+        server.start();
+        properties = new GeoLocationProperties();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (httpClient != null) {
+            httpClient.close();
+        }
+        server.stop(0);
+    }
+
+    @Test
+    void shouldReuseKeptAliveConnection() {
+        RestTemplate restTemplate = restTemplate();
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(restTemplate.getForObject(url("/json"), String.class)).contains("Poland");
+        }
+
+        assertAll(
+                () -> assertThat(clientPorts).hasSize(1),
+                () -> assertThat(httpClient.leased()).isZero(),
+                () -> assertThat(httpClient.pending()).isZero(),
+                () -> assertThat(httpClient.idle()).isEqualTo(1),
+                () -> assertThat(httpClient.maxConnections()).isEqualTo(properties.getHttp().getMaxConnections()),
+                () -> assertThat(httpClient.scheduledDeadlines()).isZero()
+        );
+    }
+
+    @Test
+    void shouldFailWhenResponseDoesNotArriveWithinReadTimeout() {
+        properties.getHttp().setReadTimeout(Duration.ofMillis(200));
+        RestTemplate restTemplate = restTemplate();
+
+        long start = System.nanoTime();
+        assertThrows(ResourceAccessException.class, () -> restTemplate.getForObject(url("/slow"), String.class));
+
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(1));
+    }
+
+    @Test
+    void shouldAbortTricklingResponseAtTotalDeadline() {
+        properties.getHttp().setTotalTimeout(Duration.ofMillis(500));
+        RestTemplate restTemplate = restTemplate();
+
+        long start = System.nanoTime();
+        // Aborted while reading the body, which RestTemplate reports as a plain RestClientException.
+        assertThrows(RestClientException.class, () -> restTemplate.getForObject(url("/trickle"), String.class));
+
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofMillis(1500));
+        // The aborted connection is released by the closing response, which may still be running on the deadline thread.
+        long releaseBy = System.nanoTime() + Duration.ofSeconds(1).toNanos();
+        while (httpClient.leased() > 0 && System.nanoTime() < releaseBy) {
+            sleep(Duration.ofMillis(10));
+        }
+        assertThat(httpClient.leased()).isZero();
+    }
+
+    private RestTemplate restTemplate() {
+        httpClient = new GeoLocationHttpClient(properties);
+        return new RestTemplate(httpClient.requestFactory());
+    }
+
+    private String url(String path) {
+        return "http://localhost:" + server.getAddress().getPort() + path;
+    }
+
+    private void respond(HttpExchange exchange) throws IOException {
+        clientPorts.add(exchange.getRemoteAddress().getPort());
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, BODY.length);
+        try (OutputStream body = exchange.getResponseBody()) {
+            body.write(BODY);
+        }
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
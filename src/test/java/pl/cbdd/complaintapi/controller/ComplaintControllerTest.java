@@ -4,32 +4,74 @@ import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+import org.springframework.transaction.CannotCreateTransactionException;
+import pl.cbdd.complaintapi.config.ComplaintProperties;
+import pl.cbdd.complaintapi.dto.ComplaintBatchResponse;
+import pl.cbdd.complaintapi.dto.ComplaintClusterResponse;
 import pl.cbdd.complaintapi.dto.ComplaintRequest;
 import pl.cbdd.complaintapi.dto.ComplaintResponse;
+import pl.cbdd.complaintapi.dto.ComplaintStatsResponse;
+import pl.cbdd.complaintapi.dto.ComplaintWindowResponse;
+import pl.cbdd.complaintapi.dto.ExportFilter;
+import pl.cbdd.complaintapi.dto.ExportFormat;
+import pl.cbdd.complaintapi.exception.InvalidCursorException;
+import pl.cbdd.complaintapi.exception.RateLimitExceededException;
+import pl.cbdd.complaintapi.ratelimit.ComplaintRateLimiter;
+import pl.cbdd.complaintapi.service.ComplaintBatchService;
+import pl.cbdd.complaintapi.service.ComplaintClusterService;
+import pl.cbdd.complaintapi.service.ComplaintExportService;
+import pl.cbdd.complaintapi.service.ComplaintSearchService;
+import pl.cbdd.complaintapi.stats.ComplaintStatistics;
 import pl.cbdd.complaintapi.service.ComplaintService;
-import pl.cbdd.complaintapi.service.GeoLocationService;
+import pl.cbdd.complaintapi.service.CountryEnrichmentService;
+import pl.cbdd.complaintapi.service.CountryResolver;
 
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.zip.GZIPInputStream;
 
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(ComplaintController.class)
+@EnableConfigurationProperties(ComplaintProperties.class)
 class ComplaintControllerTest {
 
     @Autowired
@@ -42,7 +84,28 @@ class ComplaintControllerTest {
     private ComplaintService complaintService;
 
     @MockBean
-    private GeoLocationService geoLocationService;
+    private CountryResolver countryResolver;
+
+    @MockBean
+    private CountryEnrichmentService countryEnrichmentService;
+
+    @MockBean
+    private ComplaintBatchService complaintBatchService;
+
+    @MockBean
+    private ComplaintExportService complaintExportService;
+
+    @MockBean
+    private ComplaintStatistics complaintStatistics;
+
+    @MockBean
+    private ComplaintSearchService complaintSearchService;
+
+    @MockBean
+    private ComplaintClusterService complaintClusterService;
+
+    @MockBean
+    private ComplaintRateLimiter complaintRateLimiter;
 
     @Test
     void addComplaint_ShouldReturnComplaintResponse() throws Exception {
@@ -54,7 +117,7 @@ class ComplaintControllerTest {
         doReturn(UUID.randomUUID()).when(complaintResponse).getId();
         doReturn("Poland").when(complaintResponse).getCountry();
 
-        when(geoLocationService.getCountryByIp(anyString())).thenReturn("Poland");
+        when(countryResolver.resolveCountry(anyString())).thenReturn("Poland");
         when(complaintService.addComplaint(any(ComplaintRequest.class))).thenReturn(complaintResponse);
 
         mockMvc.perform(post("/api/v1/complaints")
@@ -65,6 +128,92 @@ class ComplaintControllerTest {
                 .andExpect(jsonPath("$.country").value("Poland"));
     }
 
+    @Test
+    void addComplaint_ShouldSavePendingCountryAndEnqueueEnrichmentWhenAsync() throws Exception {
+
+        ComplaintResponse complaintResponse = Mockito.mock(ComplaintResponse.class);
+        doReturn(UUID.randomUUID()).when(complaintResponse).getId();
+        doReturn(CountryEnrichmentService.PENDING_COUNTRY).when(complaintResponse).getCountry();
+
+        when(countryEnrichmentService.isEnabled()).thenReturn(true);
+        when(complaintService.addComplaint(any(ComplaintRequest.class))).thenReturn(complaintResponse);
+
+        mockMvc.perform(post("/api/v1/complaints")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("X-Forwarded-For", "123.123.123.123")
+                        .content("{\"productId\":\"product-123\",\"reporter\":\"John Doe\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.country").value(CountryEnrichmentService.PENDING_COUNTRY));
+
+        verify(countryEnrichmentService).enqueue(complaintResponse, "123.123.123.123");
+        verify(countryResolver, never()).resolveCountry(anyString());
+    }
+
+    @Test
+    void search_ShouldPassFiltersAndClampSize() throws Exception {
+
+        when(complaintSearchService.search("battery", "product-123", "Poland", null, 1000))
+                .thenReturn(new ComplaintWindowResponse(List.of(), null, false));
+
+        mockMvc.perform(get("/api/v1/complaints/search")
+                        .param("q", "battery")
+                        .param("productId", "product-123")
+                        .param("country", "Poland")
+                        .param("size", "5000"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andExpect(jsonPath("$.hasNext").value(false));
+    }
+
+    @Test
+    void clusters_ShouldReturnClustersOfProduct() throws Exception {
+
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        when(complaintClusterService.findClusters("product-123", 2, 20))
+                .thenReturn(List.of(new ComplaintClusterResponse(first, "product-123", 2, List.of(first, second))));
+
+        mockMvc.perform(get("/api/v1/complaints/clusters").param("productId", "product-123"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].clusterId").value(first.toString()))
+                .andExpect(jsonPath("$[0].size").value(2))
+                .andExpect(jsonPath("$[0].complaintIds[1]").value(second.toString()));
+    }
+
+    @Test
+    void stats_ShouldReturnSnapshot() throws Exception {
+
+        when(complaintStatistics.snapshot()).thenReturn(new ComplaintStatsResponse(3, 7,
+                List.of(new ComplaintStatsResponse.CountryStats("Poland", 3, 7)),
+                List.of(new ComplaintStatsResponse.ProductStats("product-123", 5))));
+
+        mockMvc.perform(get("/api/v1/complaints/stats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalComplaints").value(3))
+                .andExpect(jsonPath("$.totalReports").value(7))
+                .andExpect(jsonPath("$.countries[0].country").value("Poland"))
+                .andExpect(jsonPath("$.topProducts[0].productId").value("product-123"))
+                .andExpect(jsonPath("$.topProducts[0].reports").value(5));
+    }
+
+    @Test
+    void addComplaint_ShouldReturnTooManyRequestsWithRetryAfterWhenRateLimited() throws Exception {
+
+        doThrow(new RateLimitExceededException("Too many complaints from this reporter", Duration.ofMillis(1500)))
+                .when(complaintRateLimiter).acquire("123.123.123.123", "John Doe");
+
+        mockMvc.perform(post("/api/v1/complaints")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("X-Forwarded-For", "123.123.123.123")
+                        .content("{\"productId\":\"product-123\",\"reporter\":\"John Doe\"}"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "2"))
+                .andExpect(jsonPath("$.errorCode").value("TOO_MANY_REQUESTS"));
+
+        verify(complaintService, never()).addComplaint(any(ComplaintRequest.class));
+        verify(countryResolver, never()).resolveCountry(anyString());
+    }
+
     @Test
     void getComplaint_ShouldReturnComplaintResponse() throws Exception {
 
@@ -81,6 +230,51 @@ class ComplaintControllerTest {
                 .andExpect(jsonPath("$.country").value("Poland"));
     }
 
+    @Test
+    void getComplaint_WithMatchingIfNoneMatch_ShouldReturnNotModifiedWithoutLoadingComplaint() throws Exception {
+
+        UUID id = UUID.randomUUID();
+        String eTag = "\"" + id + "-3\"";
+        when(complaintService.findComplaintVersion(id)).thenReturn(Optional.of(3L));
+
+        mockMvc.perform(get("/api/v1/complaints/{id}", id.toString()).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, eTag))
+                .andExpect(content().string(""));
+
+        verify(complaintService, never()).getComplaint(any());
+    }
+
+    @Test
+    void getComplaint_WithOutdatedIfNoneMatch_ShouldReturnComplaintWithNewETag() throws Exception {
+
+        UUID id = UUID.randomUUID();
+        ComplaintResponse complaintResponse = Mockito.mock(ComplaintResponse.class);
+        doReturn(id).when(complaintResponse).getId();
+        doReturn(4L).when(complaintResponse).getVersion();
+        when(complaintService.findComplaintVersion(id)).thenReturn(Optional.of(4L));
+        when(complaintService.getComplaint(id)).thenReturn(complaintResponse);
+
+        mockMvc.perform(get("/api/v1/complaints/{id}", id.toString()).header(HttpHeaders.IF_NONE_MATCH, "\"" + id + "-3\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + id + "-4\""))
+                .andExpect(jsonPath("$.version").doesNotExist());
+    }
+
+    @Test
+    void getAllComplaints_WithMatchingIfNoneMatch_ShouldReturnNotModified() throws Exception {
+
+        Slice<ComplaintResponse> complaints = new SliceImpl<>(Collections.emptyList(), PageRequest.of(0, 10), true);
+        when(complaintService.getComplaintsSlice(any(Pageable.class))).thenReturn(complaints);
+
+        String eTag = mockMvc.perform(get("/api/v1/complaints/all").param("total", "none"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/api/v1/complaints/all").param("total", "none").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+    }
+
     @Test
     void getAllComplaints_ShouldReturnListOfComplaints() throws Exception {
 
@@ -104,6 +298,177 @@ class ComplaintControllerTest {
                         "\"sorted\":false},\"numberOfElements\":1,\"empty\":false}"));
     }
 
+    @Test
+    void getAllComplaints_WithoutTotal_ShouldReturnSlice() throws Exception {
+
+        Slice<ComplaintResponse> complaints = new SliceImpl<>(Collections.emptyList(), PageRequest.of(0, 10), true);
+
+        when(complaintService.getComplaintsSlice(any(Pageable.class))).thenReturn(complaints);
+
+        mockMvc.perform(get("/api/v1/complaints/all").param("total", "none"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").doesNotExist())
+                .andExpect(jsonPath("$.last").value(false));
+
+        verify(complaintService, never()).getAllComplaints(any(Pageable.class));
+    }
+
+    @Test
+    void getComplaint_WhenConnectionPoolExhausted_ShouldReturnServiceUnavailable() throws Exception {
+
+        UUID id = UUID.randomUUID();
+        when(complaintService.getComplaint(id))
+                .thenThrow(new CannotCreateTransactionException("Connection is not available, request timed out"));
+
+        mockMvc.perform(get("/api/v1/complaints/{id}", id.toString()))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"))
+                .andExpect(jsonPath("$.errorCode").value("SERVICE_UNAVAILABLE"));
+    }
+
+    @Test
+    void getAllComplaints_WithUnknownTotalMode_ShouldReturnBadRequest() throws Exception {
+
+        mockMvc.perform(get("/api/v1/complaints/all").param("total", "sometimes"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errorCode").value("BAD_REQUEST"));
+    }
+
+    @Test
+    void scrollComplaints_ShouldReturnWindowWithNextCursor() throws Exception {
+
+        ComplaintResponse complaintResponse = Mockito.mock(ComplaintResponse.class);
+        doReturn("Poland").when(complaintResponse).getCountry();
+
+        when(complaintService.scrollComplaints("abc", 1000))
+                .thenReturn(new ComplaintWindowResponse(Collections.singletonList(complaintResponse), "def", true));
+
+        mockMvc.perform(get("/api/v1/complaints/scroll").param("cursor", "abc").param("size", "5000"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].country").value("Poland"))
+                .andExpect(jsonPath("$.nextCursor").value("def"))
+                .andExpect(jsonPath("$.hasNext").value(true));
+    }
+
+    @Test
+    void scrollComplaints_WithInvalidCursor_ShouldReturnBadRequest() throws Exception {
+
+        when(complaintService.scrollComplaints(anyString(), anyInt()))
+                .thenThrow(new InvalidCursorException("Invalid cursor"));
+
+        mockMvc.perform(get("/api/v1/complaints/scroll").param("cursor", "broken"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errorCode").value("BAD_REQUEST"));
+    }
+
+    @Test
+    void addComplaints_WithJsonArray_ShouldReturnBatchResults() throws Exception {
+
+        when(complaintBatchService.ingest(anyList(), eq("10.0.0.1")))
+                .thenReturn(new ComplaintBatchResponse(1, 1, 0, 0, false, Collections.emptyList()));
+
+        mockMvc.perform(post("/api/v1/complaints/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("X-Forwarded-For", "10.0.0.1")
+                        .content("[{\"productId\":\"product-1\",\"content\":\"Broken\",\"reporter\":\"John Doe\"}]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.received").value(1))
+                .andExpect(jsonPath("$.created").value(1));
+    }
+
+    @Test
+    void addComplaints_WithNdjson_ShouldStreamToBatchService() throws Exception {
+
+        when(complaintBatchService.ingestNdjson(any(BufferedReader.class), anyString()))
+                .thenReturn(new ComplaintBatchResponse(2, 2, 0, 0, false, Collections.emptyList()));
+
+        mockMvc.perform(post("/api/v1/complaints/batch")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("{\"productId\":\"product-1\"}\n{\"productId\":\"product-2\"}\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.received").value(2));
+
+        verify(complaintBatchService, never()).ingest(anyList(), anyString());
+    }
+
+    @Test
+    void addComplaints_ShouldTakeOneClientIpPermitPerBatch() throws Exception {
+
+        doThrow(new RateLimitExceededException("Too many complaints from this client IP", Duration.ofMillis(500)))
+                .when(complaintRateLimiter).acquire("123.123.123.123", null);
+
+        mockMvc.perform(post("/api/v1/complaints/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("X-Forwarded-For", "123.123.123.123")
+                        .content("[{\"productId\":\"product-1\"}]"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"));
+        mockMvc.perform(post("/api/v1/complaints/batch")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .header("X-Forwarded-For", "123.123.123.123")
+                        .content("{\"productId\":\"product-1\"}\n"))
+                .andExpect(status().isTooManyRequests());
+
+        verify(complaintBatchService, never()).ingest(anyList(), anyString());
+        verify(complaintBatchService, never()).ingestNdjson(any(BufferedReader.class), anyString());
+    }
+
+    @Test
+    void exportComplaints_WithGzip_ShouldCompressStreamedRows() throws Exception {
+
+        UUID after = UUID.randomUUID();
+        doAnswer(invocation -> {
+            invocation.<OutputStream>getArgument(2).write("{\"productId\":\"product-1\"}\n".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(complaintExportService).export(any(ExportFilter.class), eq(ExportFormat.CSV), any(OutputStream.class));
+
+        byte[] body = mockMvc.perform(get("/api/v1/complaints/export")
+                        .param("format", "csv")
+                        .param("after", after.toString())
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING))
+                .andExpect(content().contentTypeCompatibleWith("text/csv"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            assertEquals("{\"productId\":\"product-1\"}\n", new String(gzip.readAllBytes(), StandardCharsets.UTF_8));
+        }
+        verify(complaintExportService).export(eq(new ExportFilter(after, null, null, null)), eq(ExportFormat.CSV), any(OutputStream.class));
+    }
+
+    @Test
+    void exportComplaints_WithGzipRefused_ShouldStreamUncompressed() throws Exception {
+
+        doAnswer(invocation -> {
+            invocation.<OutputStream>getArgument(2).write("{\"productId\":\"product-1\"}\n".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(complaintExportService).export(any(ExportFilter.class), eq(ExportFormat.NDJSON), any(OutputStream.class));
+
+        mockMvc.perform(get("/api/v1/complaints/export")
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0, identity"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING))
+                .andExpect(content().string("{\"productId\":\"product-1\"}\n"));
+    }
+
+    @Test
+    void acceptsGzip_ShouldHonourQualityValues() {
+
+        assertAll(
+                () -> assertTrue(ComplaintController.acceptsGzip("gzip")),
+                () -> assertTrue(ComplaintController.acceptsGzip("deflate, GZIP;q=0.5")),
+                () -> assertTrue(ComplaintController.acceptsGzip("br, *")),
+                () -> assertFalse(ComplaintController.acceptsGzip(null)),
+                () -> assertFalse(ComplaintController.acceptsGzip("gzip;q=0")),
+                () -> assertFalse(ComplaintController.acceptsGzip("gzip; q=0.000, *")),
+                () -> assertFalse(ComplaintController.acceptsGzip("*;q=0")),
+                () -> assertFalse(ComplaintController.acceptsGzip("identity"))
+        );
+    }
+
     @Test
     void updateComplaint_ShouldReturnUpdatedComplaintResponse() throws Exception {
 
@@ -112,7 +477,7 @@ class ComplaintControllerTest {
         doReturn(id).when(complaintResponse).getId();
         doReturn("new content").when(complaintResponse).getContent();
         doReturn("Poland").when(complaintResponse).getCountry();
-        doReturn(complaintResponse).when(complaintService).updateComplaint(any());
+        doReturn(complaintResponse).when(complaintService).updateComplaint(any(), isNull());
 
         mockMvc.perform(put("/api/v1/complaints")
                         .contentType(MediaType.APPLICATION_JSON)
@@ -128,4 +493,33 @@ class ComplaintControllerTest {
                 .andExpect(jsonPath("$.content").value("new content"))
                 .andExpect(jsonPath("$.country").value("Poland"));
     }
-}
\ No newline at end of file
+
+    @Test
+    void updateComplaint_WithIfMatch_ShouldPassExpectedVersion() throws Exception {
+
+        UUID id = UUID.randomUUID();
+        doReturn(id).when(complaintResponse).getId();
+        doReturn(6L).when(complaintResponse).getVersion();
+        doReturn(complaintResponse).when(complaintService).updateComplaint(any(), eq(5L));
+
+        mockMvc.perform(put("/api/v1/complaints")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.IF_MATCH, "\"" + id + "-5\"")
+                        .content("{\"id\":\"" + id + "\",\"content\":\"new content\"}"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + id + "-6\""));
+    }
+
+    @Test
+    void updateComplaint_WithIfMatchForAnotherComplaint_ShouldReturnPreconditionFailed() throws Exception {
+
+        mockMvc.perform(put("/api/v1/complaints")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.IF_MATCH, "\"" + UUID.randomUUID() + "-5\"")
+                        .content("{\"id\":\"" + UUID.randomUUID() + "\",\"content\":\"new content\"}"))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(jsonPath("$.errorCode").value("PRECONDITION_FAILED"));
+
+        verify(complaintService, never()).updateComplaint(any(), any());
+    }
+}
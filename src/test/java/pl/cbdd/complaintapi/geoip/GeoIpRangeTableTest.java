@@ -0,0 +1,114 @@
+package pl.cbdd.complaintapi.geoip;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class GeoIpRangeTableTest {
+
+    @TempDir
+    private Path tempDir;
+
+    private GeoIpRangeTable table;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        table = compile("""
+                # start,end,country
+                10.0.0.0,10.0.0.255,Poland
+                1.0.0.0,1.0.0.255,Australia
+                255.255.255.0,255.255.255.255,Nowhere
+                2001:db8::,2001:db8::ffff,Germany
+                2a00::,2a00:ffff:ffff:ffff:ffff:ffff:ffff:ffff,"Korea, Republic of"
+                """);
+    }
+
+    @Test
+    void shouldResolveIpv4Ranges() {
+        assertAll(
+                () -> assertThat(table.lookup("10.0.0.0")).isEqualTo("Poland"),
+                () -> assertThat(table.lookup("10.0.0.128")).isEqualTo("Poland"),
+                () -> assertThat(table.lookup("10.0.0.255")).isEqualTo("Poland"),
+                () -> assertThat(table.lookup("1.0.0.1")).isEqualTo("Australia"),
+                () -> assertThat(table.lookup("255.255.255.255")).isEqualTo("Nowhere"),
+                () -> assertThat(table.lookup("10.0.1.0")).isNull(),
+                () -> assertThat(table.lookup("0.0.0.1")).isNull()
+        );
+    }
+
+    @Test
+    void shouldResolveIpv6Ranges() {
+        assertAll(
+                () -> assertThat(table.lookup("2001:db8::1")).isEqualTo("Germany"),
+                () -> assertThat(table.lookup("2001:db8::ffff")).isEqualTo("Germany"),
+                () -> assertThat(table.lookup("2001:db8::1:0")).isNull(),
+                () -> assertThat(table.lookup("2a00:1450::1")).isEqualTo("\"Korea, Republic of\""),
+                () -> assertThat(table.lookup("::ffff:10.0.0.7")).isEqualTo("Poland")
+        );
+    }
+
+    @Test
+    void shouldReturnNullForInvalidAddresses() {
+        assertAll(
+                () -> assertThat(table.lookup(null)).isNull(),
+                () -> assertThat(table.lookup("")).isNull(),
+                () -> assertThat(table.lookup("10.0.0")).isNull(),
+                () -> assertThat(table.lookup("10.0.0.256")).isNull(),
+                () -> assertThat(table.lookup("example.com")).isNull(),
+                () -> assertThat(table.lookup("10.0.0.1, 10.0.0.2")).isNull(),
+                () -> assertThat(table.lookup("proxy:8080")).isNull(),
+                () -> assertThat(table.lookup("2001:db8::1::2")).isNull(),
+                () -> assertThat(table.lookup("2001:db8:0:0:0:0:0:1:2")).isNull(),
+                () -> assertThat(table.lookup("2001:db8:::1")).isNull(),
+                () -> assertThat(table.lookup("2001:db8::12345")).isNull(),
+                () -> assertThat(table.lookup("fe80::1%eth0")).isNull()
+        );
+    }
+
+    @Test
+    void shouldParseIpv6LiteralsLikeInetAddress() throws UnknownHostException {
+        for (String ip : List.of("::", "::1", "1::", "2001:db8::ffff", "2001:DB8:0:0:8:800:200C:417A",
+                "ff01::101", "::ffff:10.0.0.7", "64:ff9b::192.0.2.33", "1:2:3:4:5:6:7::")) {
+            byte[] expected = InetAddress.getByName(ip).getAddress();
+            if (expected.length == 4) {
+                expected = ByteBuffer.allocate(16).putShort(10, (short) 0xFFFF).put(12, expected).array();
+            }
+            assertThat(GeoIpRangeTable.parseIpv6(ip)).as(ip).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void shouldRejectHostNamesInRangeFile() {
+        assertThrows(IllegalArgumentException.class, () -> compile("""
+                proxy:8080,2001:db8::ffff,Germany
+                """));
+    }
+
+    @Test
+    void shouldRejectOverlappingRanges() {
+        assertThrows(IllegalArgumentException.class, () -> compile("""
+                10.0.0.0,10.0.0.255,Poland
+                10.0.0.128,10.0.1.0,Germany
+                """));
+    }
+
+    private GeoIpRangeTable compile(String csv) throws IOException {
+        Path csvFile = tempDir.resolve("ranges.csv");
+        Path compiled = tempDir.resolve("ranges.bin");
+        Files.writeString(csvFile, csv);
+        GeoIpRangeTableCompiler.compile(csvFile, compiled);
+        return GeoIpRangeTable.open(compiled);
+    }
+}
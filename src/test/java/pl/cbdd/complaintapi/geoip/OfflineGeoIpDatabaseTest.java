@@ -0,0 +1,68 @@
+package pl.cbdd.complaintapi.geoip;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import pl.cbdd.complaintapi.config.GeoLocationProperties;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OfflineGeoIpDatabaseTest {
+
+    @TempDir
+    private Path tempDir;
+
+    private Path rangeFile;
+    private GeoLocationProperties properties;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        rangeFile = tempDir.resolve("ranges.csv");
+        Files.writeString(rangeFile, "10.0.0.0,10.0.0.255,Poland\n");
+
+        properties = new GeoLocationProperties();
+        properties.setProvider(GeoLocationProperties.Provider.OFFLINE);
+        properties.getOffline().setRangeFile(rangeFile.toString());
+    }
+
+    @Test
+    void shouldNotLoadWhenProviderIsHttp() {
+        properties.setProvider(GeoLocationProperties.Provider.HTTP);
+        OfflineGeoIpDatabase database = new OfflineGeoIpDatabase(properties);
+
+        database.init();
+
+        assertThat(database.lookup("10.0.0.1")).isNull();
+    }
+
+    @Test
+    void shouldHotReloadChangedRangeFile() throws IOException {
+        OfflineGeoIpDatabase database = new OfflineGeoIpDatabase(properties);
+        database.init();
+        assertThat(database.lookup("10.0.0.1")).isEqualTo("Poland");
+
+        Files.writeString(rangeFile, "10.0.0.0,10.0.0.255,Germany\n");
+        Files.setLastModifiedTime(rangeFile, FileTime.from(Instant.now().plusSeconds(60)));
+        database.reloadIfChanged();
+
+        assertThat(database.lookup("10.0.0.1")).isEqualTo("Germany");
+    }
+
+    @Test
+    void shouldKeepPreviousTableWhenReloadFails() throws IOException {
+        OfflineGeoIpDatabase database = new OfflineGeoIpDatabase(properties);
+        database.init();
+
+        Files.writeString(rangeFile, "not a range\n");
+        Files.setLastModifiedTime(rangeFile, FileTime.from(Instant.now().plusSeconds(60)));
+        database.reloadIfChanged();
+
+        assertThat(database.lookup("10.0.0.1")).isEqualTo("Poland");
+    }
+}
@@ -0,0 +1,242 @@
+package pl.cbdd.complaintapi.integration;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultMatcher;
+import pl.cbdd.complaintapi.service.GeoLocationService;
+import pl.cbdd.complaintapi.sql.SqlStatementRecorder;
+import pl.cbdd.complaintapi.sql.SqlStatementRecorderConfig;
+import pl.cbdd.complaintapi.sql.SqlStatements;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static net.ttddyy.dsproxy.QueryType.INSERT;
+import static net.ttddyy.dsproxy.QueryType.SELECT;
+import static net.ttddyy.dsproxy.QueryType.UPDATE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Statement budget of every {@code ComplaintController} endpoint: the JDBC round trips one request may
+ * issue, counted below Hibernate and {@code JdbcTemplate}. A change that adds a lookup, a lazy load or a
+ * per-item query fails here instead of in production.
+ * <p>
+ * Budgets are for the H2 test database. On PostgreSQL the write path uses {@code ON CONFLICT} upserts
+ * and needs fewer round trips.
+ */
+@SpringBootTest(properties = "complaints.rate-limit.enabled=false")
+@AutoConfigureMockMvc
+@Import(SqlStatementRecorderConfig.class)
+@ActiveProfiles("test")
+class ComplaintSqlBudgetTest {
+
+    private static final String CONTENT = "The screen flickers and then goes black";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private SqlStatementRecorder recorder;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @MockBean
+    private GeoLocationService geoLocationService;
+
+    private final String productId = "product-" + UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        when(geoLocationService.getCountryByIp(any())).thenReturn("Poland");
+    }
+
+    @Test
+    void addComplaint_ShouldCreateInThreeRoundTripsAndRepeatInTwo() throws Exception {
+        SqlStatements created = record(addComplaint("reporter-1"), status().isOk());
+        SqlStatements repeated = record(addComplaint("reporter-1"), status().isOk());
+
+        assertAll(
+                () -> assertThat(created.count()).as(created.toString()).isLessThanOrEqualTo(3),
+                () -> assertThat(created.count(INSERT)).as(created.toString()).isEqualTo(1),
+                () -> assertThat(repeated.count()).as(repeated.toString()).isLessThanOrEqualTo(2),
+                () -> assertThat(repeated.count(INSERT)).as(repeated.toString()).isZero(),
+                () -> assertThat(repeated.rows(UPDATE)).as(repeated.toString()).isEqualTo(1)
+        );
+    }
+
+    @Test
+    void addComplaints_ShouldNotIssueStatementsPerItem() throws Exception {
+        SqlStatements small = record(addComplaints("small", 5), status().isOk());
+        SqlStatements large = record(addComplaints("large", 100), status().isOk());
+
+        assertAll(
+                () -> assertThat(small.count()).as(small.toString()).isLessThanOrEqualTo(3),
+                () -> assertThat(large.count()).as(large.toString()).isEqualTo(small.count()),
+                () -> assertThat(large.rows(INSERT)).as(large.toString()).isEqualTo(100)
+        );
+    }
+
+    @Test
+    void getComplaint_ShouldLoadOnceAndServeRepeatsAndRevalidationsFromCache() throws Exception {
+        String id = createComplaints(1).get(0);
+
+        recorder.start();
+        MvcResult first = mockMvc.perform(get("/api/v1/complaints/{id}", id)).andExpect(status().isOk()).andReturn();
+        SqlStatements miss = recorder.stop();
+        String eTag = first.getResponse().getHeader(HttpHeaders.ETAG);
+        SqlStatements hit = record(get("/api/v1/complaints/{id}", id), status().isOk());
+        SqlStatements revalidated = record(get("/api/v1/complaints/{id}", id).header(HttpHeaders.IF_NONE_MATCH, eTag),
+                status().isNotModified());
+
+        assertAll(
+                () -> assertThat(miss.count()).as(miss.toString()).isEqualTo(1),
+                () -> assertThat(miss.rows(SELECT)).as(miss.toString()).isEqualTo(1),
+                () -> assertThat(hit.count()).as(hit.toString()).isZero(),
+                () -> assertThat(revalidated.count()).as(revalidated.toString()).isZero()
+        );
+    }
+
+    @Test
+    void getAll_ShouldReadOnePageAndCountOnlyWhenAsked() throws Exception {
+        createComplaints(3);
+
+        SqlStatements exact = record(get("/api/v1/complaints/all").param("size", "2"), status().isOk());
+        SqlStatements estimated = record(get("/api/v1/complaints/all").param("size", "2").param("total", "estimated"), status().isOk());
+        SqlStatements none = record(get("/api/v1/complaints/all").param("size", "2").param("total", "none"), status().isOk());
+
+        assertAll(
+                () -> assertThat(exact.count()).as(exact.toString()).isLessThanOrEqualTo(2),
+                () -> assertThat(estimated.count()).as(estimated.toString()).isLessThanOrEqualTo(2),
+                () -> assertThat(none.count()).as(none.toString()).isEqualTo(1),
+                () -> assertThat(none.rows(SELECT)).as(none.toString()).isEqualTo(3)
+        );
+    }
+
+    @Test
+    void scroll_ShouldReadOneRowBeyondThePage() throws Exception {
+        createComplaints(3);
+
+        SqlStatements statements = record(get("/api/v1/complaints/scroll").param("size", "2"), status().isOk());
+
+        assertAll(
+                () -> assertThat(statements.count()).as(statements.toString()).isEqualTo(1),
+                () -> assertThat(statements.rows(SELECT)).as(statements.toString()).isEqualTo(3)
+        );
+    }
+
+    @Test
+    void search_ShouldLoadAllHitsOfThePageInOneQuery() throws Exception {
+        createComplaints(5);
+
+        SqlStatements statements = record(get("/api/v1/complaints/search").param("q", "flickers")
+                .param("productId", productId), status().isOk());
+
+        assertThat(statements.count()).as(statements.toString()).isLessThanOrEqualTo(1);
+    }
+
+    @Test
+    void similar_ShouldLoadTheComplaintAndItsMatchesInTwoQueries() throws Exception {
+        String id = createComplaints(5).get(0);
+
+        SqlStatements statements = record(get("/api/v1/complaints/{id}/similar", id), status().isOk());
+
+        assertThat(statements.count()).as(statements.toString()).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    void clustersAndStats_ShouldBeServedFromMemory() throws Exception {
+        createComplaints(2);
+
+        SqlStatements clusters = record(get("/api/v1/complaints/clusters"), status().isOk());
+        SqlStatements stats = record(get("/api/v1/complaints/stats"), status().isOk());
+
+        assertAll(
+                () -> assertThat(clusters.count()).as(clusters.toString()).isZero(),
+                () -> assertThat(stats.count()).as(stats.toString()).isZero()
+        );
+    }
+
+    @Test
+    void export_ShouldStreamAllRowsFromOneQuery() throws Exception {
+        createComplaints(25);
+
+        SqlStatements statements = record(get("/api/v1/complaints/export").param("productId", productId), status().isOk());
+
+        assertAll(
+                () -> assertThat(statements.count()).as(statements.toString()).isEqualTo(1),
+                () -> assertThat(statements.rows(SELECT)).as(statements.toString()).isEqualTo(25)
+        );
+    }
+
+    @Test
+    void updateComplaint_ShouldLoadAndUpdateOnce() throws Exception {
+        String id = createComplaints(1).get(0);
+
+        SqlStatements statements = record(put("/api/v1/complaints")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(Map.of("id", id, "content", "The screen is fine now"))), status().isOk());
+
+        assertAll(
+                () -> assertThat(statements.count()).as(statements.toString()).isLessThanOrEqualTo(2),
+                () -> assertThat(statements.count(UPDATE)).as(statements.toString()).isEqualTo(1)
+        );
+    }
+
+    private SqlStatements record(RequestBuilder request, ResultMatcher expectedStatus) throws Exception {
+        recorder.start();
+        mockMvc.perform(request).andExpect(expectedStatus);
+        return recorder.stop();
+    }
+
+    private RequestBuilder addComplaint(String reporter) throws Exception {
+        return post("/api/v1/complaints")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header("X-Forwarded-For", "123.123.123.123")
+                .content(objectMapper.writeValueAsString(Map.of("productId", productId, "reporter", reporter, "content", CONTENT)));
+    }
+
+    private RequestBuilder addComplaints(String reporterPrefix, int count) throws Exception {
+        List<Map<String, String>> items = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            items.add(Map.of("productId", productId, "reporter", reporterPrefix + "-" + i, "content", CONTENT));
+        }
+        return post("/api/v1/complaints/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header("X-Forwarded-For", "123.123.123.123")
+                .content(objectMapper.writeValueAsString(items));
+    }
+
+    private List<String> createComplaints(int count) throws Exception {
+        String body = mockMvc.perform(addComplaints("reporter", count))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        List<String> ids = new ArrayList<>();
+        for (JsonNode result : objectMapper.readTree(body).get("results")) {
+            ids.add(result.get("id").asText());
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,191 @@
+package pl.cbdd.complaintapi.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * The requests of a load test run. Operations are drawn from a weighted mix with a seeded random, so the
+ * same seed sends the same sequence of operations and payloads. Complaints that were seeded or created
+ * during the run are remembered for the duplicate, get and update operations.
+ */
+final class ComplaintWorkload {
+
+    private static final int KNOWN_COMPLAINTS = 1 << 16;
+    private static final int PRODUCTS = 1_000;
+    private static final int CLIENT_IPS = 50_000;
+    private static final int SEED_CHUNK = 500;
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+    private static final String[] CONTENTS = {
+            "The screen flickers and then goes black after a few minutes",
+            "Battery drains within two hours even when the device is idle",
+            "Package arrived damaged and the charger was missing",
+            "The app crashes every time I open the settings page",
+            "Refund was promised three weeks ago and has not arrived"
+    };
+
+    enum Operation {
+        CREATE("POST /api/v1/complaints (new)"),
+        DUPLICATE("POST /api/v1/complaints (duplicate)"),
+        GET("GET /api/v1/complaints/{id}"),
+        LIST("GET /api/v1/complaints/scroll"),
+        UPDATE("PUT /api/v1/complaints");
+
+        private final String endpoint;
+
+        Operation(String endpoint) {
+            this.endpoint = endpoint;
+        }
+
+        String endpoint() {
+            return endpoint;
+        }
+    }
+
+    private final URI complaintsUri;
+    private final HttpClient client;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Operation[] operations;
+    private final int[] cumulativeWeights;
+    private final AtomicReferenceArray<KnownComplaint> known = new AtomicReferenceArray<>(KNOWN_COMPLAINTS);
+    private final AtomicLong knownCount = new AtomicLong();
+    private final String runId = Long.toString(System.currentTimeMillis(), 36);
+    private long sequence;
+
+    ComplaintWorkload(URI baseUri, HttpClient client, Map<Operation, Integer> mix) {
+        this.complaintsUri = baseUri.resolve("/api/v1/complaints");
+        this.client = client;
+        this.operations = mix.keySet().toArray(Operation[]::new);
+        this.cumulativeWeights = new int[operations.length];
+        int sum = 0;
+        for (int i = 0; i < operations.length; i++) {
+            sum += mix.get(operations[i]);
+            cumulativeWeights[i] = sum;
+        }
+    }
+
+    /**
+     * Parses a mix such as {@code create=20,get=80}.
+     */
+    static Map<Operation, Integer> parseMix(String mix) {
+        Map<Operation, Integer> weights = new LinkedHashMap<>();
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split("=");
+            weights.put(Operation.valueOf(parts[0].trim().toUpperCase()), Integer.parseInt(parts[1].trim()));
+        }
+        return weights;
+    }
+
+    /**
+     * Creates {@code count} complaints through the batch endpoint so reads have data from the start.
+     */
+    void seed(int count, SplittableRandom random) throws IOException, InterruptedException {
+        for (int offset = 0; offset < count; offset += SEED_CHUNK) {
+            List<Map<String, String>> items = new ArrayList<>();
+            for (int i = offset; i < Math.min(count, offset + SEED_CHUNK); i++) {
+                items.add(complaint(random));
+            }
+            HttpRequest request = HttpRequest.newBuilder(complaintsUri.resolve("complaints/batch"))
+                    .timeout(REQUEST_TIMEOUT)
+                    .header("Content-Type", "application/json")
+                    .header("X-Forwarded-For", clientIp(random))
+                    .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(items)))
+                    .build();
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("Seeding failed with status " + response.statusCode() + ": " + response.body());
+            }
+            JsonNode results = objectMapper.readTree(response.body()).get("results");
+            for (JsonNode result : results) {
+                Map<String, String> item = items.get(result.get("index").asInt());
+                remember(new KnownComplaint(UUID.fromString(result.get("id").asText()), item.get("productId"), item.get("reporter")));
+            }
+        }
+    }
+
+    Operation nextOperation(SplittableRandom random) {
+        int pick = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (pick < cumulativeWeights[i]) {
+                return operations[i];
+            }
+        }
+        throw new IllegalStateException();
+    }
+
+    HttpRequest request(Operation operation, SplittableRandom random) throws IOException {
+        HttpRequest.Builder builder = HttpRequest.newBuilder().timeout(REQUEST_TIMEOUT)
+                .header("X-Forwarded-For", clientIp(random));
+        return switch (operation) {
+            case CREATE -> post(builder, complaint(random));
+            case DUPLICATE -> {
+                KnownComplaint complaint = randomKnown(random);
+                yield post(builder, Map.of("productId", complaint.productId(), "reporter", complaint.reporter(),
+                        "content", CONTENTS[random.nextInt(CONTENTS.length)]));
+            }
+            case GET -> builder.uri(complaintsUri.resolve("complaints/" + randomKnown(random).id())).GET().build();
+            case LIST -> builder.uri(complaintsUri.resolve("complaints/scroll?size=20")).GET().build();
+            case UPDATE -> builder.uri(complaintsUri)
+                    .header("Content-Type", "application/json")
+                    .PUT(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(Map.of(
+                            "id", randomKnown(random).id().toString(),
+                            "content", CONTENTS[random.nextInt(CONTENTS.length)] + " (updated)"))))
+                    .build();
+        };
+    }
+
+    /**
+     * Remembers complaints created during the run.
+     */
+    void onResponse(Operation operation, HttpResponse<String> response) throws IOException {
+        if (operation == Operation.CREATE && response.statusCode() == 200) {
+            JsonNode body = objectMapper.readTree(response.body());
+            remember(new KnownComplaint(UUID.fromString(body.get("id").asText()), body.get("productId").asText(),
+                    body.get("reporter").asText()));
+        }
+    }
+
+    private HttpRequest post(HttpRequest.Builder builder, Map<String, String> complaint) throws IOException {
+        return builder.uri(complaintsUri)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(complaint)))
+                .build();
+    }
+
+    private Map<String, String> complaint(SplittableRandom random) {
+        return Map.of("productId", "product-" + random.nextInt(PRODUCTS),
+                "reporter", "loadtest-" + runId + "-" + sequence++,
+                "content", CONTENTS[random.nextInt(CONTENTS.length)]);
+    }
+
+    private void remember(KnownComplaint complaint) {
+        known.set((int) (knownCount.getAndIncrement() % KNOWN_COMPLAINTS), complaint);
+    }
+
+    private KnownComplaint randomKnown(SplittableRandom random) {
+        int bound = (int) Math.min(knownCount.get(), KNOWN_COMPLAINTS);
+        return known.get(random.nextInt(bound));
+    }
+
+    private static String clientIp(SplittableRandom random) {
+        int n = random.nextInt(CLIENT_IPS);
+        return "10." + (n >> 16 & 0xff) + "." + (n >> 8 & 0xff) + "." + (n & 0xff);
+    }
+
+    private record KnownComplaint(UUID id, String productId, String reporter) {
+    }
+}
@@ -0,0 +1,107 @@
+package pl.cbdd.complaintapi.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency and outcome of every request of one run, per operation. Latency is measured from the time the
+ * request was scheduled to be sent, not from when it was sent, so requests delayed behind a stalled
+ * server are not left out (coordinated omission).
+ */
+final class LatencyReport {
+
+    private static final long MAX_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(2);
+
+    private final Map<ComplaintWorkload.Operation, Stats> stats = new EnumMap<>(ComplaintWorkload.Operation.class);
+
+    LatencyReport() {
+        for (ComplaintWorkload.Operation operation : ComplaintWorkload.Operation.values()) {
+            stats.put(operation, new Stats());
+        }
+    }
+
+    void record(ComplaintWorkload.Operation operation, int status, long latencyNanos) {
+        Stats operationStats = stats.get(operation);
+        operationStats.latencies.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(latencyNanos), MAX_LATENCY_MICROS));
+        operationStats.statuses.computeIfAbsent(status, key -> new LongAdder()).increment();
+        if (status >= 400) {
+            operationStats.errors.increment();
+        }
+    }
+
+    /**
+     * A request that failed without a response, such as a refused connection or a timeout.
+     */
+    void recordFailure(ComplaintWorkload.Operation operation, long latencyNanos) {
+        record(operation, 0, latencyNanos);
+        stats.get(operation).errors.increment();
+    }
+
+    /**
+     * A request that was not sent because too many were already waiting for a response.
+     */
+    void recordDropped(ComplaintWorkload.Operation operation) {
+        Stats operationStats = stats.get(operation);
+        operationStats.dropped.increment();
+        operationStats.errors.increment();
+    }
+
+    Result result(Duration elapsed) {
+        List<EndpointResult> endpoints = new ArrayList<>();
+        Histogram total = new Histogram(MAX_LATENCY_MICROS, 3);
+        long totalErrors = 0;
+        long totalDropped = 0;
+        for (Map.Entry<ComplaintWorkload.Operation, Stats> entry : stats.entrySet()) {
+            Stats operationStats = entry.getValue();
+            Histogram latencies = operationStats.latencies.copy();
+            total.add(latencies);
+            totalErrors += operationStats.errors.sum();
+            totalDropped += operationStats.dropped.sum();
+            Map<String, Long> statuses = new TreeMap<>();
+            operationStats.statuses.forEach((status, count) -> statuses.put(status == 0 ? "none" : status.toString(), count.sum()));
+            endpoints.add(endpointResult(entry.getKey().endpoint(), latencies, operationStats.errors.sum(),
+                    operationStats.dropped.sum(), statuses, elapsed));
+        }
+        return new Result(elapsed.toMillis() / 1000.0, endpoints,
+                endpointResult("total", total, totalErrors, totalDropped, Map.of(), elapsed));
+    }
+
+    private static EndpointResult endpointResult(String endpoint, Histogram latencies, long errors, long dropped,
+                                                 Map<String, Long> statuses, Duration elapsed) {
+        long requests = latencies.getTotalCount() + dropped;
+        return new EndpointResult(endpoint, requests, requests / (elapsed.toMillis() / 1000.0), errors,
+                requests == 0 ? 0 : (double) errors / requests, dropped,
+                millis(latencies, 50), millis(latencies, 95), millis(latencies, 99), millis(latencies, 99.9),
+                latencies.getTotalCount() == 0 ? 0 : latencies.getMaxValue() / 1000.0, statuses);
+    }
+
+    private static double millis(Histogram latencies, double percentile) {
+        return latencies.getTotalCount() == 0 ? 0 : latencies.getValueAtPercentile(percentile) / 1000.0;
+    }
+
+    private static final class Stats {
+
+        private final Histogram latencies = new ConcurrentHistogram(MAX_LATENCY_MICROS, 3);
+        private final ConcurrentHashMap<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder dropped = new LongAdder();
+    }
+
+    record Result(double durationSeconds, List<EndpointResult> endpoints, EndpointResult total) {
+    }
+
+    record EndpointResult(String endpoint, long requests, double throughput, long errors, double errorRate,
+                          long dropped, double p50Ms, double p95Ms, double p99Ms, double p999Ms, double maxMs,
+                          Map<String, Long> statuses) {
+    }
+}
@@ -0,0 +1,74 @@
+package pl.cbdd.complaintapi.loadtest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * An upper limit on one metric of one endpoint, parsed from specs such as {@code get.p99=250,total.errors=1}:
+ * an operation of the mix or {@code total}, then {@code p50}, {@code p95}, {@code p99}, {@code p99.9} or
+ * {@code max} in milliseconds, or {@code errors} in percent of requests.
+ */
+record LatencySlo(String operation, String metric, double limit) {
+
+    private static final Set<String> METRICS = Set.of("p50", "p95", "p99", "p99.9", "max", "errors");
+    private static final String TOTAL = "total";
+
+    /**
+     * @param spec comma-separated {@code operation.metric=limit} entries, or {@code none}
+     */
+    static List<LatencySlo> parse(String spec) {
+        List<LatencySlo> slos = new ArrayList<>();
+        if (spec.isBlank() || spec.equalsIgnoreCase("none")) {
+            return slos;
+        }
+        for (String entry : spec.split(",")) {
+            String[] parts = entry.trim().split("=");
+            int dot = parts[0].indexOf('.');
+            if (parts.length != 2 || dot < 0) {
+                throw new IllegalArgumentException("Invalid SLO '" + entry.trim() + "', expected operation.metric=limit");
+            }
+            String operation = parts[0].substring(0, dot).trim().toLowerCase(Locale.ROOT);
+            String metric = parts[0].substring(dot + 1).trim().toLowerCase(Locale.ROOT);
+            if (!operation.equals(TOTAL)) {
+                ComplaintWorkload.Operation.valueOf(operation.toUpperCase(Locale.ROOT));
+            }
+            if (!METRICS.contains(metric)) {
+                throw new IllegalArgumentException("Unknown SLO metric '" + metric + "', expected one of " + METRICS);
+            }
+            slos.add(new LatencySlo(operation, metric, Double.parseDouble(parts[1].trim())));
+        }
+        return slos;
+    }
+
+    static List<Check> evaluate(List<LatencySlo> slos, LatencyReport.Result result) {
+        return slos.stream().map(slo -> slo.check(result)).toList();
+    }
+
+    /**
+     * An endpoint that received no requests has nothing to measure, so its objectives count as met.
+     */
+    private Check check(LatencyReport.Result result) {
+        String endpoint = operation.equals(TOTAL) ? TOTAL
+                : ComplaintWorkload.Operation.valueOf(operation.toUpperCase(Locale.ROOT)).endpoint();
+        LatencyReport.EndpointResult measured = operation.equals(TOTAL) ? result.total()
+                : result.endpoints().stream().filter(e -> e.endpoint().equals(endpoint)).findFirst().orElse(null);
+        Double actual = measured == null || measured.requests() == 0 ? null : switch (metric) {
+            case "p50" -> measured.p50Ms();
+            case "p95" -> measured.p95Ms();
+            case "p99" -> measured.p99Ms();
+            case "p99.9" -> measured.p999Ms();
+            case "max" -> measured.maxMs();
+            default -> measured.errorRate() * 100;
+        };
+        return new Check(endpoint, metric, limit, actual, actual == null || actual <= limit);
+    }
+
+    record Check(String endpoint, String metric, double limit, Double actual, boolean met) {
+
+        String unit() {
+            return metric.equals("errors") ? "%" : " ms";
+        }
+    }
+}
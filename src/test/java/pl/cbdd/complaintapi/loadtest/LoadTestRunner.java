@@ -0,0 +1,274 @@
+package pl.cbdd.complaintapi.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import pl.cbdd.complaintapi.ComplaintApiApplication;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-loop load test: sends a mix of complaint requests at a fixed rate, whatever the response times, and
+ * reports p50/p95/p99/p99.9 latency and error rates per endpoint. The run fails when an endpoint misses one
+ * of its {@link LatencySlo objectives} in {@code loadtest.slo}. Unless {@code loadtest.target} points
+ * at a running instance, the application is started in-process on {@code loadtest.profile} with the
+ * GeoLocation API served by a local stub. Run it with {@code mvn -Ploadtest verify}; see the README.
+ */
+public final class LoadTestRunner {
+
+    private static final Duration DRAIN_TIMEOUT = Duration.ofSeconds(30);
+
+    private LoadTestRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Config config = Config.fromSystemProperties();
+        List<LatencySlo> slos = LatencySlo.parse(config.sloSpec());
+        List<LatencySlo.Check> missed;
+        ConfigurableApplicationContext context = null;
+        StubGeoLocationServer stub = null;
+        try {
+            URI target;
+            if (config.target().isBlank()) {
+                stub = new StubGeoLocationServer(config.geolocationDelay());
+                context = startApplication(config.profile(), stub.baseUrl());
+                target = URI.create("http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort());
+            } else {
+                target = URI.create(config.target());
+            }
+            LatencyReport.Result result = run(config, target);
+            List<LatencySlo.Check> checks = LatencySlo.evaluate(slos, result);
+            print(config, result);
+            printSlos(checks);
+            write(config, result, checks);
+            missed = checks.stream().filter(check -> !check.met()).toList();
+        } finally {
+            if (context != null) {
+                context.close();
+            }
+            if (stub != null) {
+                stub.close();
+            }
+        }
+        if (!missed.isEmpty()) {
+            throw new IllegalStateException("Missed " + missed.size() + " of " + slos.size() + " latency SLOs");
+        }
+    }
+
+    private static ConfigurableApplicationContext startApplication(String profile, String geolocationBaseUrl) {
+        // Rate limits are off: the load comes from a few reporters and IPs repeatedly, which is not what they model.
+        return new SpringApplicationBuilder(ComplaintApiApplication.class)
+                .profiles(profile)
+                .run("--server.port=0",
+                        "--logging.level.root=WARN",
+                        "--geolocation.http.base-url=" + geolocationBaseUrl,
+                        "--complaints.rate-limit.enabled=false");
+    }
+
+    private static LatencyReport.Result run(Config config, URI target) throws Exception {
+        SplittableRandom random = new SplittableRandom(config.seed());
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+             HttpClient client = HttpClient.newBuilder()
+                     .version(HttpClient.Version.HTTP_1_1)
+                     .connectTimeout(Duration.ofSeconds(5))
+                     .executor(executor)
+                     .build()) {
+            ComplaintWorkload workload = new ComplaintWorkload(target, client, config.mix());
+            workload.seed(config.seedComplaints(), random);
+
+            System.out.printf("Warming up for %s at %d requests/s against %s%n", config.warmup(), config.rate(), target);
+            drive(config, workload, client, executor, random, config.warmup(), new LatencyReport());
+
+            System.out.printf("Measuring for %s%n", config.duration());
+            LatencyReport report = new LatencyReport();
+            long start = System.nanoTime();
+            drive(config, workload, client, executor, random, config.duration(), report);
+            return report.result(Duration.ofNanos(System.nanoTime() - start));
+        }
+    }
+
+    /**
+     * Sends one request every {@code 1/rate} seconds. Latency counts from the scheduled send time, so a
+     * late or stalled send is charged to the request instead of silently lowering the rate.
+     */
+    private static void drive(Config config, ComplaintWorkload workload, HttpClient client, ExecutorService executor,
+                              SplittableRandom random, Duration duration, LatencyReport report) throws Exception {
+        AtomicInteger inFlight = new AtomicInteger();
+        long interval = TimeUnit.SECONDS.toNanos(1) / config.rate();
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        for (long i = 0; ; i++) {
+            long scheduledAt = start + i * interval;
+            if (scheduledAt >= end) {
+                break;
+            }
+            long wait = scheduledAt - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            ComplaintWorkload.Operation operation = workload.nextOperation(random);
+            HttpRequest request = workload.request(operation, random);
+            if (inFlight.incrementAndGet() > config.maxInFlight()) {
+                inFlight.decrementAndGet();
+                report.recordDropped(operation);
+                continue;
+            }
+            executor.execute(() -> {
+                try {
+                    HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+                    report.record(operation, response.statusCode(), System.nanoTime() - scheduledAt);
+                    workload.onResponse(operation, response);
+                } catch (IOException e) {
+                    report.recordFailure(operation, System.nanoTime() - scheduledAt);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    inFlight.decrementAndGet();
+                }
+            });
+        }
+        long drainDeadline = System.nanoTime() + DRAIN_TIMEOUT.toNanos();
+        while (inFlight.get() > 0 && System.nanoTime() < drainDeadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private static void print(Config config, LatencyReport.Result result) {
+        System.out.printf("%nTarget %d requests/s for %.0f s, seed %d, mix %s%n", config.rate(), result.durationSeconds(),
+                config.seed(), config.mixSpec());
+        String format = "%-38s %9s %8s %8s %9s %9s %9s %9s %9s%n";
+        System.out.printf(format, "Endpoint", "Requests", "Req/s", "Errors", "p50 ms", "p95 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (LatencyReport.EndpointResult endpoint : result.endpoints()) {
+            printRow(format, endpoint);
+        }
+        printRow(format, result.total());
+
+        LatencyReport.Result baseline = readBaseline(config);
+        if (baseline != null) {
+            System.out.printf("%nAgainst baseline %s%n", config.baseline());
+            System.out.printf("%-38s %12s %12s %14s%n", "Endpoint", "p99 ms", "p99.9 ms", "Error rate");
+            Map<String, LatencyReport.EndpointResult> previous = new LinkedHashMap<>();
+            baseline.endpoints().forEach(endpoint -> previous.put(endpoint.endpoint(), endpoint));
+            previous.put("total", baseline.total());
+            for (LatencyReport.EndpointResult endpoint : result.endpoints()) {
+                printDelta(endpoint, previous.get(endpoint.endpoint()));
+            }
+            printDelta(result.total(), previous.get("total"));
+        }
+    }
+
+    private static void printSlos(List<LatencySlo.Check> checks) {
+        if (checks.isEmpty()) {
+            return;
+        }
+        System.out.printf("%nService level objectives%n");
+        System.out.printf("%-38s %-7s %12s %12s  %s%n", "Endpoint", "Metric", "Limit", "Actual", "Result");
+        for (LatencySlo.Check check : checks) {
+            System.out.printf(Locale.ROOT, "%-38s %-7s %12s %12s  %s%n", check.endpoint(), check.metric(),
+                    String.format(Locale.ROOT, "%.2f%s", check.limit(), check.unit()),
+                    check.actual() == null ? "-" : String.format(Locale.ROOT, "%.2f%s", check.actual(), check.unit()),
+                    check.met() ? "met" : "MISSED");
+        }
+    }
+
+    private static void printRow(String format, LatencyReport.EndpointResult endpoint) {
+        System.out.printf(Locale.ROOT, format, endpoint.endpoint(), endpoint.requests(),
+                String.format(Locale.ROOT, "%.1f", endpoint.throughput()),
+                String.format(Locale.ROOT, "%.2f%%", endpoint.errorRate() * 100),
+                ms(endpoint.p50Ms()), ms(endpoint.p95Ms()), ms(endpoint.p99Ms()), ms(endpoint.p999Ms()), ms(endpoint.maxMs()));
+    }
+
+    private static void printDelta(LatencyReport.EndpointResult current, LatencyReport.EndpointResult previous) {
+        if (previous == null) {
+            return;
+        }
+        System.out.printf(Locale.ROOT, "%-38s %+12.2f %+12.2f %+13.2f%%%n", current.endpoint(),
+                current.p99Ms() - previous.p99Ms(), current.p999Ms() - previous.p999Ms(),
+                (current.errorRate() - previous.errorRate()) * 100);
+    }
+
+    private static String ms(double millis) {
+        return String.format(Locale.ROOT, "%.2f", millis);
+    }
+
+    private static void write(Config config, LatencyReport.Result result, List<LatencySlo.Check> checks) throws IOException {
+        if (config.resultFile().isBlank()) {
+            return;
+        }
+        Map<String, Object> output = new LinkedHashMap<>();
+        output.put("config", config);
+        output.put("result", result);
+        output.put("slo", checks);
+        new ObjectMapper()
+                .findAndRegisterModules()
+                .disable(SerializationFeature.WRITE_DURATIONS_AS_TIMESTAMPS)
+                .enable(SerializationFeature.INDENT_OUTPUT)
+                .writeValue(new File(config.resultFile()), output);
+        System.out.printf("%nResults written to %s%n", config.resultFile());
+    }
+
+    private static LatencyReport.Result readBaseline(Config config) {
+        if (config.baseline().isBlank()) {
+            return null;
+        }
+        try {
+            ObjectMapper objectMapper = new ObjectMapper();
+            return objectMapper.treeToValue(objectMapper.readTree(new File(config.baseline())).get("result"), LatencyReport.Result.class);
+        } catch (IOException e) {
+            System.out.printf("Could not read baseline %s: %s%n", config.baseline(), e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Settings from {@code loadtest.*} system properties; the {@code loadtest} Maven profile passes them on.
+     */
+    record Config(String profile, String target, int rate, Duration warmup, Duration duration, String mixSpec,
+                  long seed, int seedComplaints, int maxInFlight, Duration geolocationDelay, String resultFile,
+                  String baseline, String sloSpec) {
+
+        static Config fromSystemProperties() {
+            return new Config(
+                    property("profile", "test"),
+                    property("target", ""),
+                    Integer.parseInt(property("rate", "200")),
+                    Duration.parse(property("warmup", "PT15S")),
+                    Duration.parse(property("duration", "PT60S")),
+                    property("mix", "create=20,duplicate=20,get=40,list=15,update=5"),
+                    Long.parseLong(property("seed", "42")),
+                    Integer.parseInt(property("seed-complaints", "1000")),
+                    Integer.parseInt(property("max-in-flight", "2000")),
+                    Duration.parse(property("geolocation-delay", "PT0.02S")),
+                    property("result-file", ""),
+                    property("baseline", ""),
+                    property("slo", "create.p99=500,duplicate.p99=500,get.p99=250,list.p99=500,update.p99=500,total.errors=1"));
+        }
+
+        Map<ComplaintWorkload.Operation, Integer> mix() {
+            return ComplaintWorkload.parseMix(mixSpec);
+        }
+
+        private static String property(String name, String defaultValue) {
+            String value = System.getProperty("loadtest." + name);
+            return value == null || value.isBlank() && !defaultValue.isEmpty() ? defaultValue : value;
+        }
+    }
+}
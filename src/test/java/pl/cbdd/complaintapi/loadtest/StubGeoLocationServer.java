@@ -0,0 +1,52 @@
+package pl.cbdd.complaintapi.loadtest;
+
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Local HTTP stand-in for the GeoLocation API. The application reaches it through its real HTTP client,
+ * connection pool, circuit breaker and retry. Every lookup answers {@link #COUNTRY} after {@code delay}.
+ */
+final class StubGeoLocationServer implements AutoCloseable {
+
+    static final String COUNTRY = "Poland";
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    StubGeoLocationServer(Duration delay) throws IOException {
+        byte[] body = ("{\"country\":\"" + COUNTRY + "\"}").getBytes(StandardCharsets.UTF_8);
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.setExecutor(executor);
+        server.createContext("/json/", exchange -> {
+            try (exchange) {
+                if (!delay.isZero()) {
+                    Thread.sleep(delay);
+                }
+                exchange.getResponseHeaders().set("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, body.length);
+                exchange.getResponseBody().write(body);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        server.start();
+    }
+
+    String baseUrl() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.close();
+    }
+}
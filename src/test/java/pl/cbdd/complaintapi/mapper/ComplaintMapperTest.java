@@ -0,0 +1,59 @@
+package pl.cbdd.complaintapi.mapper;
+
+import org.junit.jupiter.api.Test;
+import org.modelmapper.ModelMapper;
+import pl.cbdd.complaintapi.dto.ComplaintRequest;
+import pl.cbdd.complaintapi.dto.ComplaintResponse;
+import pl.cbdd.complaintapi.model.Complaint;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertAll;
+
+class ComplaintMapperTest {
+
+    private final ComplaintMapper complaintMapper = new ComplaintMapper();
+
+    @Test
+    void shouldMapComplaintToResponseLikeModelMapper() {
+        Complaint complaint = Complaint.builder()
+                .id(UUID.randomUUID())
+                .version(3L)
+                .productId("product-1")
+                .content("content")
+                .createdAt(Timestamp.from(Instant.now()))
+                .modifiedAt(Timestamp.from(Instant.now()))
+                .reporter("John Doe")
+                .country("Poland")
+                .reportCount(4)
+                .build();
+
+        ComplaintResponse expected = new ModelMapper().map(complaint, ComplaintResponse.class);
+
+        assertThat(complaintMapper.toResponse(complaint)).usingRecursiveComparison().isEqualTo(expected);
+    }
+
+    @Test
+    void shouldMapRequestToNewComplaint() {
+        ComplaintRequest request = new ComplaintRequest();
+        request.setProductId("product-1");
+        request.setContent("content");
+        request.setReporter("John Doe");
+        request.setCountry("Poland");
+
+        Complaint complaint = complaintMapper.toComplaint(request);
+
+        assertAll(
+                () -> assertThat(complaint.getId()).isNull(),
+                () -> assertThat(complaint.getProductId()).isEqualTo("product-1"),
+                () -> assertThat(complaint.getContent()).isEqualTo("content"),
+                () -> assertThat(complaint.getReporter()).isEqualTo("John Doe"),
+                () -> assertThat(complaint.getCountry()).isEqualTo("Poland"),
+                () -> assertThat(complaint.getReportCount()).isEqualTo(1),
+                () -> assertThat(complaint.getCreatedAt()).isNotNull()
+        );
+    }
+}
@@ -0,0 +1,62 @@
+package pl.cbdd.complaintapi.metrics;
+
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class GeoLocationMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final GeoLocationMetrics metrics = new GeoLocationMetrics(registry);
+
+    @Test
+    void shouldTagLookupsByOutcome() {
+        metrics.record(() -> {
+            metrics.attempt();
+            return "Poland";
+        });
+        metrics.record(() -> {
+            metrics.attempt();
+            metrics.attempt();
+            return "Poland";
+        });
+        metrics.record(() -> {
+            metrics.attempt();
+            metrics.fallback(new IllegalStateException("API failure"));
+            return "Fallback Country";
+        });
+        metrics.record(() -> {
+            metrics.fallback(CallNotPermittedException.createCallNotPermittedException(CircuitBreaker.ofDefaults("geo")));
+            return "Fallback Country";
+        });
+        assertThrows(IllegalStateException.class, () -> metrics.record(() -> {
+            throw new IllegalStateException("API failure");
+        }));
+
+        assertAll(
+                () -> assertThat(count("success")).isEqualTo(1),
+                () -> assertThat(count("retry")).isEqualTo(1),
+                () -> assertThat(count("fallback")).isEqualTo(1),
+                () -> assertThat(count("circuit_open")).isEqualTo(1),
+                () -> assertThat(count("error")).isEqualTo(1)
+        );
+    }
+
+    @Test
+    void shouldIgnoreReportsOutsideOfRecordedLookup() {
+        metrics.attempt();
+        metrics.fallback(new IllegalStateException("API failure"));
+
+        assertThat(registry.get("geolocation.lookup").timers())
+                .allSatisfy(timer -> assertThat(timer.count()).isZero());
+    }
+
+    private long count(String outcome) {
+        return registry.get("geolocation.lookup").tag("outcome", outcome).timer().count();
+    }
+}
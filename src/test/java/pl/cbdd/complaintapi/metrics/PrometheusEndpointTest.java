@@ -0,0 +1,44 @@
+package pl.cbdd.complaintapi.metrics;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.UUID;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+@ActiveProfiles("test")
+class PrometheusEndpointTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void shouldExposeHotPathMetrics() throws Exception {
+        mockMvc.perform(get("/api/v1/complaints/{id}", UUID.randomUUID()))
+                .andExpect(status().isNotFound());
+
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("status=\"404\",uri=\"/api/v1/complaints/{id}\",le=")))
+                .andExpect(content().string(containsString("complaints_service_seconds_bucket{")))
+                .andExpect(content().string(containsString("method=\"getComplaint\"")))
+                .andExpect(content().string(containsString("geolocation_lookup_seconds_bucket{outcome=\"circuit_open\"")))
+                .andExpect(content().string(containsString("complaints_submitted_total{result=\"duplicate\"}")))
+                .andExpect(content().string(containsString("complaints_concurrency_limit ")))
+                .andExpect(content().string(containsString("cache_gets_total{cache=\"geolocation\",result=\"hit\"}")))
+                .andExpect(content().string(containsString("hikaricp_connections_active")))
+                .andExpect(content().string(containsString("resilience4j_circuitbreaker_state{")));
+    }
+}
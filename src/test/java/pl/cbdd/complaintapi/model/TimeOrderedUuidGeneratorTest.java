@@ -0,0 +1,55 @@
+package pl.cbdd.complaintapi.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertAll;
+
+class TimeOrderedUuidGeneratorTest {
+
+    @Test
+    void shouldGenerateVersion7UuidWithCurrentTimestamp() {
+        long before = System.currentTimeMillis();
+        UUID uuid = TimeOrderedUuidGenerator.next();
+        long after = System.currentTimeMillis();
+
+        assertAll(
+                () -> assertThat(uuid.version()).isEqualTo(7),
+                () -> assertThat(uuid.variant()).isEqualTo(2),
+                () -> assertThat(TimeOrderedUuidGenerator.timestampOf(uuid)).isBetween(before, after + 1)
+        );
+    }
+
+    @Test
+    void shouldBeStrictlyIncreasingWithinOneMillisecond() {
+        List<UUID> uuids = IntStream.range(0, 100_000)
+                .mapToObj(i -> TimeOrderedUuidGenerator.next())
+                .toList();
+
+        for (int i = 1; i < uuids.size(); i++) {
+            assertThat(uuids.get(i)).isGreaterThan(uuids.get(i - 1));
+        }
+    }
+
+    @Test
+    void shouldNotRepeatAcrossThreads() {
+        Set<UUID> uuids = ConcurrentHashMap.newKeySet();
+        List<UUID> all = Collections.synchronizedList(new ArrayList<>());
+
+        IntStream.range(0, 50_000).parallel().forEach(i -> {
+            UUID uuid = TimeOrderedUuidGenerator.next();
+            uuids.add(uuid);
+            all.add(uuid);
+        });
+
+        assertThat(uuids).hasSameSizeAs(all);
+    }
+}
@@ -0,0 +1,79 @@
+package pl.cbdd.complaintapi.overload;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertAll;
+
+class AdaptiveConcurrencyLimitTest {
+
+    private static final long MILLI = 1_000_000L;
+
+    @Test
+    void shouldShedRequestsBeyondTheirShareOfTheLimit() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 5, 100, 2.0);
+        for (int i = 0; i < 8; i++) {
+            limit.tryAcquire(1.0);
+        }
+
+        assertAll(
+                () -> assertThat(limit.tryAcquire(0.8)).isFalse(),
+                () -> assertThat(limit.tryAcquire(1.0)).isTrue(),
+                () -> assertThat(limit.inFlight()).isEqualTo(9),
+                () -> assertThat(limit.rejected()).isEqualTo(1)
+        );
+    }
+
+    @Test
+    void shouldGrowWhileLatencyStaysFlat() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 5, 100, 2.0);
+
+        saturate(limit, 20, MILLI);
+
+        assertAll(
+                () -> assertThat(limit.limit()).isGreaterThan(10),
+                () -> assertThat(limit.inFlight()).isZero()
+        );
+    }
+
+    @Test
+    void shouldShrinkWhenLatencyRises() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(50, 5, 50, 2.0);
+        saturate(limit, 5, MILLI);
+        assertThat(limit.limit()).isEqualTo(50);
+
+        saturate(limit, 5, 20 * MILLI);
+
+        assertThat(limit.limit()).isLessThan(25);
+    }
+
+    @Test
+    void shouldBackOffOnDroppedRequestsButNotBelowMinimum() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(20, 15, 100, 2.0);
+
+        limit.tryAcquire(1.0);
+        limit.release(MILLI, true);
+        int afterOneDrop = limit.limit();
+        for (int i = 0; i < 10; i++) {
+            limit.tryAcquire(1.0);
+            limit.release(MILLI, true);
+        }
+
+        assertAll(
+                () -> assertThat(afterOneDrop).isEqualTo(18),
+                () -> assertThat(limit.limit()).isEqualTo(15)
+        );
+    }
+
+    private static void saturate(AdaptiveConcurrencyLimit limit, int rounds, long rttNanos) {
+        for (int round = 0; round < rounds; round++) {
+            int admitted = 0;
+            while (limit.tryAcquire(1.0)) {
+                admitted++;
+            }
+            for (int i = 0; i < admitted; i++) {
+                limit.release(rttNanos, false);
+            }
+        }
+    }
+}
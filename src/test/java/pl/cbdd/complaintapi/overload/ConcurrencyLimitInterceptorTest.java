@@ -0,0 +1,67 @@
+package pl.cbdd.complaintapi.overload;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.mock.http.MockHttpInputMessage;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.DispatcherServlet;
+import pl.cbdd.complaintapi.config.ComplaintProperties;
+import pl.cbdd.complaintapi.exception.ComplaintCreationException;
+
+import java.sql.SQLTransientConnectionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConcurrencyLimitInterceptorTest {
+
+    private ConcurrencyLimitInterceptor interceptor;
+
+    @BeforeEach
+    void setUp() {
+        interceptor = new ConcurrencyLimitInterceptor(new ComplaintProperties());
+    }
+
+    @Test
+    void shouldBackOffWhenConnectionPoolIsExhausted() {
+        complete(503, new CannotGetJdbcConnectionException("Connection is not available",
+                new SQLTransientConnectionException("timeout")));
+
+        assertThat(interceptor.limit()).isLessThan(50);
+    }
+
+    @Test
+    void shouldBackOffWhenOverloadIsWrapped() {
+        complete(400, new ComplaintCreationException("Failed to add complaint",
+                new CannotGetJdbcConnectionException("Connection is not available")));
+
+        assertThat(interceptor.limit()).isLessThan(50);
+    }
+
+    @Test
+    void shouldNotBackOffOnClientMistakesAnsweredWithServerError() {
+        complete(500, new HttpMessageNotReadableException("Malformed JSON", new MockHttpInputMessage(new byte[0])));
+
+        assertThat(interceptor.limit()).isGreaterThanOrEqualTo(50);
+    }
+
+    @Test
+    void shouldNotBackOffOnClientErrors() {
+        complete(404, null);
+
+        assertThat(interceptor.limit()).isGreaterThanOrEqualTo(50);
+    }
+
+    private void complete(int status, Exception resolved) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/complaints/1");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        interceptor.preHandle(request, response, null);
+        if (resolved != null) {
+            request.setAttribute(DispatcherServlet.EXCEPTION_ATTRIBUTE, resolved);
+        }
+        response.setStatus(status);
+        interceptor.afterCompletion(request, response, null, null);
+    }
+}
@@ -0,0 +1,52 @@
+package pl.cbdd.complaintapi.overload;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import pl.cbdd.complaintapi.config.ComplaintProperties;
+import pl.cbdd.complaintapi.exception.ServiceOverloadedException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ExportLimitInterceptorTest {
+
+    private final MockHttpServletResponse response = new MockHttpServletResponse();
+    private ExportLimitInterceptor interceptor;
+
+    @BeforeEach
+    void setUp() {
+        ComplaintProperties properties = new ComplaintProperties();
+        properties.getExport().setMaxConcurrent(1);
+        interceptor = new ExportLimitInterceptor(properties);
+    }
+
+    @Test
+    void shouldRejectExportsBeyondLimitUntilOneCompletes() {
+        MockHttpServletRequest first = exportRequest();
+        interceptor.preHandle(first, response, null);
+
+        assertThrows(ServiceOverloadedException.class, () -> interceptor.preHandle(exportRequest(), response, null));
+        assertThat(interceptor.rejected()).isEqualTo(1);
+
+        interceptor.afterCompletion(first, response, null, null);
+
+        assertThat(interceptor.preHandle(exportRequest(), response, null)).isTrue();
+    }
+
+    @Test
+    void shouldReleaseOnlyOncePerExport() {
+        MockHttpServletRequest request = exportRequest();
+        interceptor.preHandle(request, response, null);
+
+        interceptor.afterCompletion(request, response, null, null);
+        interceptor.afterCompletion(request, response, null, null);
+
+        assertThat(interceptor.inFlight()).isZero();
+    }
+
+    private static MockHttpServletRequest exportRequest() {
+        return new MockHttpServletRequest("GET", "/api/v1/complaints/export");
+    }
+}
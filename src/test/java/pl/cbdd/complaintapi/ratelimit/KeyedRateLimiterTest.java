@@ -0,0 +1,86 @@
+package pl.cbdd.complaintapi.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertAll;
+
+class KeyedRateLimiterTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    @Test
+    void shouldAllowBurstThenRefillAtRate() {
+        KeyedRateLimiter limiter = new KeyedRateLimiter(2, 3, 100);
+        long now = 10 * SECOND;
+
+        assertAll(
+                () -> assertThat(limiter.acquire("1.1.1.1", now)).isZero(),
+                () -> assertThat(limiter.acquire("1.1.1.1", now)).isZero(),
+                () -> assertThat(limiter.acquire("1.1.1.1", now)).isZero(),
+                () -> assertThat(limiter.acquire("1.1.1.1", now)).isEqualTo(SECOND / 2),
+                () -> assertThat(limiter.acquire("2.2.2.2", now)).isZero(),
+                () -> assertThat(limiter.acquire("1.1.1.1", now + SECOND / 2)).isZero(),
+                () -> assertThat(limiter.acquire("1.1.1.1", now + SECOND / 2)).isPositive(),
+                () -> assertThat(limiter.rejected()).isEqualTo(2)
+        );
+    }
+
+    @Test
+    void shouldEvictOnlyRefilledBuckets() {
+        KeyedRateLimiter limiter = new KeyedRateLimiter(1, 2, 100);
+        long now = 10 * SECOND;
+        limiter.acquire("idle", now);
+        limiter.acquire("busy", now + 5 * SECOND);
+        limiter.acquire("busy", now + 5 * SECOND);
+
+        int evicted = limiter.evictIdle(now + 5 * SECOND);
+
+        assertAll(
+                () -> assertThat(evicted).isEqualTo(1),
+                () -> assertThat(limiter.size()).isEqualTo(1)
+        );
+    }
+
+    @Test
+    void shouldLetUntrackedKeysThroughWhenFull() {
+        KeyedRateLimiter limiter = new KeyedRateLimiter(1, 1, 1);
+        long now = 10 * SECOND;
+        limiter.acquire("first", now);
+
+        assertAll(
+                () -> assertThat(limiter.acquire("second", now)).isZero(),
+                () -> assertThat(limiter.acquire("second", now)).isZero(),
+                () -> assertThat(limiter.size()).isEqualTo(1)
+        );
+    }
+
+    @Test
+    void shouldGrantExactlyBurstUnderContention() throws Exception {
+        KeyedRateLimiter limiter = new KeyedRateLimiter(0.001, 50, 100);
+        long now = System.nanoTime();
+        AtomicInteger granted = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 400; i++) {
+            executor.submit(() -> {
+                start.await();
+                if (limiter.acquire("reporter", now) == 0) {
+                    granted.incrementAndGet();
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(granted.get()).isEqualTo(50);
+    }
+}
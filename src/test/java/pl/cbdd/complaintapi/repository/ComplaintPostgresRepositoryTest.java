@@ -0,0 +1,124 @@
+package pl.cbdd.complaintapi.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import pl.cbdd.complaintapi.model.Complaint;
+import pl.cbdd.complaintapi.repository.ComplaintUpsertRepository.UpsertedComplaint;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertAll;
+
+/**
+ * Runs the PostgreSQL-only statements of the repository fragments against a real PostgreSQL, with the
+ * schema created by the Liquibase changelog. Skipped where Docker is not available.
+ */
+@DataJpaTest(properties = "spring.jpa.hibernate.ddl-auto=none")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Testcontainers(disabledWithoutDocker = true)
+class ComplaintPostgresRepositoryTest {
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15");
+
+    @Autowired
+    private ComplaintRepository complaintRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void shouldInsertThenIncrementWithOnConflictReturning() {
+        String productId = uniqueProduct();
+
+        Complaint first = complaintRepository.upsertReport(complaint(productId, "John Doe"));
+        Complaint second = complaintRepository.upsertReport(complaint(productId, "John Doe"));
+
+        assertAll(
+                () -> assertThat(first.getId().version()).isEqualTo(7),
+                () -> assertThat(first.getReportCount()).isEqualTo(1),
+                () -> assertThat(first.getVersion()).isZero(),
+                () -> assertThat(second.getId()).isEqualTo(first.getId()),
+                () -> assertThat(second.getReportCount()).isEqualTo(2),
+                () -> assertThat(second.getVersion()).isEqualTo(1),
+                () -> assertThat(second.getCountry()).isEqualTo("Poland")
+        );
+    }
+
+    @Test
+    void shouldUpsertBatchAndReadBackOnlyUpsertedKeysInInputOrder() {
+        String firstProduct = uniqueProduct();
+        String secondProduct = uniqueProduct();
+        Complaint johnOnFirst = complaintRepository.upsertReport(complaint(firstProduct, "John Doe"));
+        complaintRepository.upsertReport(complaint(firstProduct, "Jane Doe"));
+        complaintRepository.upsertReport(complaint(secondProduct, "John Doe"));
+
+        Complaint repeated = complaint(firstProduct, "John Doe");
+        repeated.setReportCount(3);
+        Complaint created = complaint(secondProduct, "Jane Doe");
+        created.setReportCount(2);
+
+        List<UpsertedComplaint> upserted = complaintRepository.upsertReports(List.of(created, repeated));
+        List<Complaint> stored = upserted.stream().map(UpsertedComplaint::complaint).toList();
+
+        assertAll(
+                () -> assertThat(upserted).extracting(UpsertedComplaint::inserted).containsExactly(true, false),
+                () -> assertThat(stored).extracting(Complaint::getProductId).containsExactly(secondProduct, firstProduct),
+                () -> assertThat(stored).extracting(Complaint::getReporter).containsExactly("Jane Doe", "John Doe"),
+                () -> assertThat(stored.get(0).getReportCount()).isEqualTo(2),
+                () -> assertThat(stored.get(1).getId()).isEqualTo(johnOnFirst.getId()),
+                () -> assertThat(stored.get(1).getReportCount()).isEqualTo(4)
+        );
+    }
+
+    @Test
+    void shouldEstimateCountFromStatisticsOnceAnalyzed() {
+        complaintRepository.upsertReport(complaint(uniqueProduct(), "John Doe"));
+        jdbcTemplate.execute("ANALYZE complaints");
+
+        long exact = complaintRepository.count();
+
+        assertThat(complaintRepository.estimateCount()).isEqualTo(exact);
+    }
+
+    @Test
+    void shouldRankOnlyTheMostRecentMatches() {
+        String productId = uniqueProduct();
+        Complaint oldest = complaintRepository.upsertReport(complaint(productId, "John Doe"));
+        Complaint middle = complaintRepository.upsertReport(complaint(productId, "Jane Doe"));
+        Complaint newest = complaintRepository.upsertReport(complaint(productId, "Jan Kowalski"));
+
+        List<ComplaintSearchRepository.SearchHit> hits = complaintRepository.searchContent("broken arrival",
+                productId, null, null, null, 2, 10);
+
+        assertThat(hits).extracting(hit -> hit.complaint().getId())
+                .containsExactlyInAnyOrder(newest.getId(), middle.getId())
+                .doesNotContain(oldest.getId());
+    }
+
+    private static String uniqueProduct() {
+        return "product-" + UUID.randomUUID();
+    }
+
+    private static Complaint complaint(String productId, String reporter) {
+        return Complaint.builder()
+                .productId(productId)
+                .reporter(reporter)
+                .content("Broken on arrival")
+                .country("Poland")
+                .build();
+    }
+}
@@ -0,0 +1,135 @@
+package pl.cbdd.complaintapi.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.test.context.ActiveProfiles;
+import pl.cbdd.complaintapi.model.Complaint;
+import pl.cbdd.complaintapi.model.ComplaintKey;
+import pl.cbdd.complaintapi.repository.ComplaintUpsertRepository.UpsertedComplaint;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@DataJpaTest
+@ActiveProfiles("test")
+class ComplaintUpsertRepositoryImplTest {
+
+    @Autowired
+    private ComplaintRepository complaintRepository;
+
+    @Test
+    void shouldInsertNewComplaint() {
+        Complaint saved = complaintRepository.upsertReport(complaint("product-1", "John Doe"));
+
+        assertAll(
+                () -> assertThat(saved.getId()).isNotNull(),
+                () -> assertThat(saved.getId().version()).isEqualTo(7),
+                () -> assertThat(saved.getReportCount()).isEqualTo(1),
+                () -> assertThat(saved.getVersion()).isZero(),
+                () -> assertThat(saved.getCountry()).isEqualTo("Poland"),
+                () -> assertThat(saved.getCreatedAt()).isNotNull()
+        );
+    }
+
+    @Test
+    void shouldIncrementReportCountOfExistingComplaint() {
+        Complaint first = complaintRepository.upsertReport(complaint("product-1", "John Doe"));
+        Complaint second = complaintRepository.upsertReport(complaint("product-1", "John Doe"));
+        Complaint other = complaintRepository.upsertReport(complaint("product-1", "Jane Doe"));
+
+        assertAll(
+                () -> assertThat(second.getId()).isEqualTo(first.getId()),
+                () -> assertThat(second.getReportCount()).isEqualTo(2),
+                () -> assertThat(second.getVersion()).isEqualTo(1),
+                () -> assertThat(other.getId()).isNotEqualTo(first.getId()),
+                () -> assertThat(other.getReportCount()).isEqualTo(1),
+                () -> assertThat(complaintRepository.count()).isEqualTo(2)
+        );
+    }
+
+    @Test
+    void shouldApplyReportCountDeltasInBatch() {
+        Complaint first = complaintRepository.upsertReport(complaint("product-1", "John Doe"));
+        Complaint second = complaintRepository.upsertReport(complaint("product-2", "John Doe"));
+
+        complaintRepository.incrementReportCounts(Map.of(
+                ComplaintKey.of(first), 5L,
+                ComplaintKey.of(second), 1L));
+
+        assertAll(
+                () -> assertThat(complaintRepository.findById(first.getId()).orElseThrow().getReportCount()).isEqualTo(6),
+                () -> assertThat(complaintRepository.findById(second.getId()).orElseThrow().getReportCount()).isEqualTo(2)
+        );
+    }
+
+    @Test
+    void shouldUpsertReportsInBatchInInputOrder() {
+        Complaint existing = complaintRepository.upsertReport(complaint("product-1", "John Doe"));
+        Complaint repeated = complaint("product-1", "John Doe");
+        repeated.setReportCount(3);
+        Complaint created = complaint("product-2", "John Doe");
+        created.setReportCount(2);
+
+        List<UpsertedComplaint> upserted = complaintRepository.upsertReports(List.of(created, repeated));
+        List<Complaint> stored = upserted.stream().map(UpsertedComplaint::complaint).toList();
+
+        assertAll(
+                () -> assertThat(upserted).extracting(UpsertedComplaint::inserted).containsExactly(true, false),
+                () -> assertThat(stored).extracting(Complaint::getProductId).containsExactly("product-2", "product-1"),
+                () -> assertThat(stored.get(0).getReportCount()).isEqualTo(2),
+                () -> assertThat(stored.get(0).getId().version()).isEqualTo(7),
+                () -> assertThat(stored.get(1).getId()).isEqualTo(existing.getId()),
+                () -> assertThat(stored.get(1).getReportCount()).isEqualTo(4),
+                () -> assertThat(complaintRepository.count()).isEqualTo(2)
+        );
+    }
+
+    @Test
+    void shouldReadBackOnlyTheUpsertedKeysOfCrossingProductsAndReporters() {
+        Complaint johnOnFirst = complaintRepository.upsertReport(complaint("product-1", "John Doe"));
+        Complaint janeOnSecond = complaintRepository.upsertReport(complaint("product-2", "Jane Doe"));
+        complaintRepository.upsertReport(complaint("product-1", "Jane Doe"));
+        complaintRepository.upsertReport(complaint("product-2", "John Doe"));
+
+        Complaint johnAgain = complaint("product-1", "John Doe");
+        johnAgain.setReportCount(1);
+        Complaint janeAgain = complaint("product-2", "Jane Doe");
+        janeAgain.setReportCount(1);
+
+        List<Complaint> stored = complaintRepository.upsertReports(List.of(johnAgain, janeAgain)).stream()
+                .map(UpsertedComplaint::complaint)
+                .toList();
+
+        assertAll(
+                () -> assertThat(stored).extracting(Complaint::getId)
+                        .containsExactly(johnOnFirst.getId(), janeOnSecond.getId()),
+                () -> assertThat(stored).extracting(Complaint::getReportCount).containsExactly(2, 2)
+        );
+    }
+
+    @Test
+    void shouldRejectComplaintWithoutReporterBeforeWriting() {
+        assertAll(
+                () -> assertThrows(InvalidDataAccessApiUsageException.class,
+                        () -> complaintRepository.upsertReport(complaint("product-1", null))),
+                () -> assertThrows(InvalidDataAccessApiUsageException.class,
+                        () -> complaintRepository.upsertReports(List.of(complaint(null, "John Doe")))),
+                () -> assertThat(complaintRepository.count()).isZero()
+        );
+    }
+
+    private static Complaint complaint(String productId, String reporter) {
+        return Complaint.builder()
+                .productId(productId)
+                .reporter(reporter)
+                .content("Broken on arrival")
+                .country("Poland")
+                .build();
+    }
+}
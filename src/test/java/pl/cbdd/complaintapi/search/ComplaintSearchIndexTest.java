@@ -0,0 +1,106 @@
+package pl.cbdd.complaintapi.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import pl.cbdd.complaintapi.config.ComplaintProperties;
+import pl.cbdd.complaintapi.model.Complaint;
+import pl.cbdd.complaintapi.repository.ComplaintRepository;
+
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
+
+@ExtendWith(MockitoExtension.class)
+class ComplaintSearchIndexTest {
+
+    @Mock
+    private ComplaintRepository complaintRepository;
+
+    private ComplaintSearchIndex index;
+
+    @BeforeEach
+    void setUp() throws InterruptedException {
+        CountDownLatch rebuilt = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            rebuilt.countDown();
+            return null;
+        }).when(complaintRepository).streamComplaints(any(), anyInt(), any());
+        index = new ComplaintSearchIndex(complaintRepository, new ComplaintProperties());
+        index.init();
+        assertThat(rebuilt.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void shouldSplitOnNonLetterCharactersAndLowercase() {
+        assertThat(ComplaintSearchIndex.tokenize("Bateria się PRZEGRZEWA, battery-overheating!"))
+                .containsExactly("bateria", "się", "przegrzewa", "battery", "overheating");
+    }
+
+    @Test
+    void shouldRequireEveryWordAndRankFrequentMatchesFirst() {
+        UUID once = index(UUID.randomUUID(), "The battery is overheating after an hour of charging");
+        UUID twice = index(UUID.randomUUID(), "Battery overheating, battery swollen");
+        index(UUID.randomUUID(), "The screen is overheating");
+
+        assertThat(index.search("battery OVERHEATING", null, null))
+                .extracting(ComplaintSearchIndex.Hit::id)
+                .containsExactly(twice, once);
+    }
+
+    @Test
+    void shouldNotOverwriteNewerContentWhileRebuilding() {
+        UUID id = index(UUID.randomUUID(), "Broken screen");
+        doAnswer(invocation -> {
+            invocation.<Consumer<Complaint>>getArgument(2).accept(
+                    Complaint.builder().id(id).content("Broken battery").build());
+            return null;
+        }).when(complaintRepository).streamComplaints(any(), anyInt(), any());
+
+        index.rebuild();
+
+        assertAll(
+                () -> assertThat(index.search("battery", null, null)).isEmpty(),
+                () -> assertThat(index.search("screen", null, null)).extracting(ComplaintSearchIndex.Hit::id).containsExactly(id)
+        );
+    }
+
+    @Test
+    void shouldReplaceContentWhenReindexed() {
+        UUID id = index(UUID.randomUUID(), "Broken battery");
+
+        index(id, "Broken screen");
+
+        assertAll(
+                () -> assertThat(index.search("battery", null, null)).isEmpty(),
+                () -> assertThat(index.search("screen", null, null)).extracting(ComplaintSearchIndex.Hit::id).containsExactly(id),
+                () -> assertThat(index.size()).isEqualTo(1)
+        );
+    }
+
+    @Test
+    void shouldContinueAfterCursor() {
+        for (int i = 0; i < 5; i++) {
+            index(UUID.randomUUID(), "battery");
+        }
+        var all = index.search("battery", null, null);
+
+        var rest = index.search("battery", all.get(1).rank(), all.get(1).id());
+
+        assertThat(rest).containsExactlyElementsOf(all.subList(2, 5));
+    }
+
+    private UUID index(UUID id, String content) {
+        index.index(Complaint.builder().id(id).content(content).build());
+        return id;
+    }
+}
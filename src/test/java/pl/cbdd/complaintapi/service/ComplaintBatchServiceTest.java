@@ -0,0 +1,243 @@
+package pl.cbdd.complaintapi.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import pl.cbdd.complaintapi.cache.ComplaintResponseCache;
+import pl.cbdd.complaintapi.config.ComplaintProperties;
+import pl.cbdd.complaintapi.dto.ComplaintBatchItem;
+import pl.cbdd.complaintapi.dto.ComplaintBatchResponse;
+import pl.cbdd.complaintapi.dto.ComplaintBatchResult;
+import pl.cbdd.complaintapi.dto.ComplaintBatchResult.Status;
+import pl.cbdd.complaintapi.exception.ComplaintCreationException;
+import pl.cbdd.complaintapi.mapper.ComplaintMapper;
+import pl.cbdd.complaintapi.model.Complaint;
+import pl.cbdd.complaintapi.ratelimit.ComplaintRateLimiter;
+import pl.cbdd.complaintapi.repository.ComplaintRepository;
+import pl.cbdd.complaintapi.search.ComplaintSearchIndex;
+import pl.cbdd.complaintapi.similarity.ComplaintSimilarityIndex;
+import pl.cbdd.complaintapi.stats.ComplaintStatistics;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({ComplaintBatchService.class, ComplaintResponseCache.class, ComplaintStatistics.class,
+        ComplaintSearchIndex.class, ComplaintClusterService.class, ComplaintSimilarityIndex.class, ComplaintMapper.class})
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@EnableConfigurationProperties(ComplaintProperties.class)
+class ComplaintBatchServiceTest {
+
+    private static final String CLIENT_IP = "83.0.0.1";
+
+    @Autowired
+    private ComplaintBatchService complaintBatchService;
+
+    @Autowired
+    private ComplaintRepository complaintRepository;
+
+    @Autowired
+    private ComplaintProperties properties;
+
+    @MockBean
+    private CountryResolver countryResolver;
+
+    @MockBean
+    private ReportCountBuffer reportCountBuffer;
+
+    @MockBean
+    private ComplaintRateLimiter complaintRateLimiter;
+
+    @MockBean
+    private CountryEnrichmentService countryEnrichmentService;
+
+    @BeforeEach
+    void setUp() {
+        when(countryResolver.resolveCountry(anyString())).thenReturn("Poland");
+        when(complaintRateLimiter.tryAcquireReporter(anyString())).thenReturn(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        complaintRepository.deleteAll();
+        properties.getBatch().setChunkSize(500);
+        properties.getBatch().setMaxItems(10_000);
+        properties.getBatch().setMaxDistinctIps(100);
+    }
+
+    @Test
+    void shouldDeduplicateWithinBatchAndResolveEachIpOnce() {
+        ComplaintBatchResponse response = complaintBatchService.ingest(List.of(
+                item("product-1", "John Doe", null),
+                item("product-1", "John Doe", null),
+                item("product-2", "John Doe", "10.0.0.1")), CLIENT_IP);
+
+        List<ComplaintBatchResult> results = response.getResults();
+        assertAll(
+                () -> assertThat(response.getReceived()).isEqualTo(3),
+                () -> assertThat(response.getCreated()).isEqualTo(2),
+                () -> assertThat(response.getReported()).isEqualTo(1),
+                () -> assertThat(results).extracting(ComplaintBatchResult::getStatus)
+                        .containsExactly(Status.CREATED, Status.REPORTED, Status.CREATED),
+                () -> assertThat(results.get(1).getId()).isEqualTo(results.get(0).getId()),
+                () -> assertThat(results.get(1).getReportCount()).isEqualTo(2),
+                () -> assertThat(complaintRepository.count()).isEqualTo(2),
+                () -> verify(countryResolver, times(1)).resolveCountry(CLIENT_IP),
+                () -> verify(countryResolver, times(1)).resolveCountry("10.0.0.1")
+        );
+    }
+
+    @Test
+    void shouldReportExistingComplaint() {
+        Complaint existing = complaintRepository.upsertReport(Complaint.builder()
+                .productId("product-1").reporter("John Doe").content("Broken").country("Poland").build());
+
+        ComplaintBatchResponse response = complaintBatchService.ingest(
+                List.of(item("product-1", "John Doe", null)), CLIENT_IP);
+
+        ComplaintBatchResult result = response.getResults().get(0);
+        assertAll(
+                () -> assertThat(result.getStatus()).isEqualTo(Status.REPORTED),
+                () -> assertThat(result.getId()).isEqualTo(existing.getId()),
+                () -> assertThat(result.getReportCount()).isEqualTo(2)
+        );
+    }
+
+    @Test
+    void shouldLeaveCountriesOfNewComplaintsToAsyncEnrichment() {
+        when(countryEnrichmentService.isEnabled()).thenReturn(true);
+        complaintRepository.upsertReport(Complaint.builder()
+                .productId("product-1").reporter("John Doe").content("Broken").country("Poland").build());
+
+        ComplaintBatchResponse response = complaintBatchService.ingest(List.of(
+                item("product-1", "John Doe", null),
+                item("product-2", "John Doe", "10.0.0.1")), CLIENT_IP);
+
+        Complaint created = complaintRepository.findById(response.getResults().get(1).getId()).orElseThrow();
+        assertAll(
+                () -> assertThat(response.getResults()).extracting(ComplaintBatchResult::getStatus)
+                        .containsExactly(Status.REPORTED, Status.CREATED),
+                () -> assertThat(created.getCountry()).isEqualTo(CountryEnrichmentService.PENDING_COUNTRY),
+                () -> verify(countryEnrichmentService).enqueue(argThat((Complaint complaint) ->
+                        complaint.getId().equals(created.getId())), eq("10.0.0.1")),
+                () -> verify(countryEnrichmentService, times(1)).enqueue(any(Complaint.class), anyString()),
+                () -> verify(countryResolver, never()).resolveCountry(anyString())
+        );
+    }
+
+    @Test
+    void shouldFailInvalidAndMalformedItemsIndividually() throws Exception {
+        properties.getBatch().setChunkSize(2);
+        String ndjson = """
+                {"productId":"product-1","content":"Broken","reporter":"John Doe"}
+                {"productId":"product-2","content":"Broken"}
+                not json
+
+                {"productId":"product-3","content":"Broken","reporter":"John Doe"}
+                {"productId":"product-4","content":"Broken","reporter":"John Doe"}
+                """;
+
+        ComplaintBatchResponse response = complaintBatchService.ingestNdjson(
+                new BufferedReader(new StringReader(ndjson)), CLIENT_IP);
+
+        assertAll(
+                () -> assertThat(response.getReceived()).isEqualTo(5),
+                () -> assertThat(response.getResults()).extracting(ComplaintBatchResult::getStatus)
+                        .containsExactly(Status.CREATED, Status.FAILED, Status.FAILED, Status.CREATED, Status.CREATED),
+                () -> assertThat(response.getResults().get(2).getError()).startsWith("Malformed complaint"),
+                () -> assertThat(complaintRepository.count()).isEqualTo(3)
+        );
+    }
+
+    @Test
+    void shouldChargeEachReporterOnceAndFailRateLimitedReporters() {
+        when(complaintRateLimiter.tryAcquireReporter("Spammer")).thenReturn(false);
+
+        ComplaintBatchResponse response = complaintBatchService.ingest(List.of(
+                item("product-1", "John Doe", null),
+                item("product-2", "John Doe", null),
+                item("product-1", "Spammer", null)), CLIENT_IP);
+
+        assertAll(
+                () -> assertThat(response.getResults()).extracting(ComplaintBatchResult::getStatus)
+                        .containsExactly(Status.CREATED, Status.CREATED, Status.FAILED),
+                () -> assertThat(response.getResults().get(2).getError()).isEqualTo("Too many complaints from this reporter"),
+                () -> verify(complaintRateLimiter, times(1)).tryAcquireReporter("John Doe"),
+                () -> assertThat(complaintRepository.count()).isEqualTo(2)
+        );
+    }
+
+    @Test
+    void shouldFailItemsBeyondDistinctIpLimitWithoutResolvingThem() {
+        properties.getBatch().setMaxDistinctIps(2);
+
+        ComplaintBatchResponse response = complaintBatchService.ingest(List.of(
+                item("product-1", "John Doe", "10.0.0.1"),
+                item("product-2", "John Doe", "10.0.0.2"),
+                item("product-3", "John Doe", "10.0.0.3"),
+                item("product-4", "John Doe", "10.0.0.1")), CLIENT_IP);
+
+        assertAll(
+                () -> assertThat(response.getResults()).extracting(ComplaintBatchResult::getStatus)
+                        .containsExactly(Status.CREATED, Status.CREATED, Status.FAILED, Status.CREATED),
+                () -> verify(countryResolver, never()).resolveCountry("10.0.0.3")
+        );
+    }
+
+    @Test
+    void shouldCutOffNdjsonStreamAtLimit() throws Exception {
+        properties.getBatch().setMaxItems(1);
+        String ndjson = """
+                {"productId":"product-1","content":"Broken","reporter":"John Doe"}
+                {"productId":"product-2","content":"Broken","reporter":"John Doe"}
+                """;
+
+        ComplaintBatchResponse response = complaintBatchService.ingestNdjson(
+                new BufferedReader(new StringReader(ndjson)), CLIENT_IP);
+
+        assertAll(
+                () -> assertThat(response.isTruncated()).isTrue(),
+                () -> assertThat(response.getReceived()).isEqualTo(1),
+                () -> assertThat(complaintRepository.count()).isEqualTo(1)
+        );
+    }
+
+    @Test
+    void shouldRejectJsonBatchOverLimit() {
+        properties.getBatch().setMaxItems(1);
+        List<ComplaintBatchItem> items = Collections.nCopies(2, item("product-1", "John Doe", null));
+
+        assertThrows(ComplaintCreationException.class, () -> complaintBatchService.ingest(items, CLIENT_IP));
+        assertThat(complaintRepository.count()).isZero();
+    }
+
+    private static ComplaintBatchItem item(String productId, String reporter, String ip) {
+        return new ComplaintBatchItem(productId, "Broken", reporter, ip);
+    }
+}
@@ -0,0 +1,131 @@
+package pl.cbdd.complaintapi.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import pl.cbdd.complaintapi.cache.ComplaintResponseCache;
+import pl.cbdd.complaintapi.config.ComplaintProperties;
+import pl.cbdd.complaintapi.mapper.ComplaintMapper;
+import pl.cbdd.complaintapi.model.Complaint;
+import pl.cbdd.complaintapi.repository.ComplaintRepository;
+import pl.cbdd.complaintapi.similarity.ComplaintSimilarityIndex;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ComplaintClusterServiceTest {
+
+    @Mock
+    private ComplaintRepository complaintRepository;
+
+    @Mock
+    private ComplaintSimilarityIndex complaintSimilarityIndex;
+
+    @Mock
+    private ComplaintResponseCache complaintResponseCache;
+
+    @Mock
+    private ReportCountBuffer reportCountBuffer;
+
+    private ComplaintProperties properties;
+    private ComplaintClusterService complaintClusterService;
+    private Complaint complaint;
+
+    @BeforeEach
+    void setUp() {
+        properties = new ComplaintProperties();
+        complaintClusterService = new ComplaintClusterService(complaintRepository, complaintSimilarityIndex,
+                complaintResponseCache, reportCountBuffer, new ComplaintMapper(), properties);
+        complaint = Complaint.builder().id(UUID.randomUUID()).productId("product-1").content("Broken").version(0L).build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        complaintClusterService.stop();
+    }
+
+    @Test
+    void shouldAttachNearDuplicateWhenEnabled() {
+        properties.getSimilarity().setAttachOnIngest(true);
+        UUID cluster = UUID.randomUUID();
+        when(complaintSimilarityIndex.add(complaint)).thenReturn(cluster);
+
+        complaintClusterService.index(complaint);
+
+        assertAll(
+                () -> verify(complaintRepository).updateClusterId(complaint.getId(), cluster),
+                () -> verify(reportCountBuffer).invalidate(complaint),
+                () -> verify(complaintResponseCache).evict(complaint.getId())
+        );
+    }
+
+    @Test
+    void shouldOnlyIndexWhenAttachIsDisabled() {
+        when(complaintSimilarityIndex.add(complaint)).thenReturn(UUID.randomUUID());
+
+        complaintClusterService.index(complaint);
+
+        assertAll(
+                () -> verify(complaintRepository, never()).updateClusterId(any(), any()),
+                () -> assertThat(complaint.getClusterId()).isNull()
+        );
+    }
+
+    @Test
+    void shouldNotAttachComplaintStartingItsOwnCluster() {
+        properties.getSimilarity().setAttachOnIngest(true);
+        when(complaintSimilarityIndex.add(complaint)).thenReturn(complaint.getId());
+
+        complaintClusterService.index(complaint);
+
+        verify(complaintRepository, never()).updateClusterId(any(), any());
+    }
+
+    @Test
+    void shouldIndexOffCallingThreadAndSurviveFailures() throws InterruptedException {
+        when(complaintSimilarityIndex.isEnabled()).thenReturn(true);
+        complaintClusterService.start();
+        Complaint next = Complaint.builder().id(UUID.randomUUID()).productId("product-1").content("Broken").build();
+        CountDownLatch indexed = new CountDownLatch(2);
+        List<String> threads = new CopyOnWriteArrayList<>();
+        when(complaintSimilarityIndex.add(any())).thenAnswer(invocation -> {
+            threads.add(Thread.currentThread().getName());
+            indexed.countDown();
+            if (invocation.getArgument(0) == complaint) {
+                throw new IllegalStateException("index failure");
+            }
+            return next.getId();
+        });
+
+        complaintClusterService.onCreated(complaint);
+        complaintClusterService.onCreated(next);
+
+        assertAll(
+                () -> assertThat(indexed.await(5, TimeUnit.SECONDS)).isTrue(),
+                () -> assertThat(threads).containsOnly("similarity-indexer")
+        );
+    }
+
+    @Test
+    void shouldNotQueueWhenIndexIsDisabled() {
+        complaintClusterService.start();
+
+        complaintClusterService.onCreated(complaint);
+
+        verify(complaintSimilarityIndex, never()).add(any());
+    }
+}
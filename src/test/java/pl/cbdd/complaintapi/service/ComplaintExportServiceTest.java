@@ -0,0 +1,111 @@
+package pl.cbdd.complaintapi.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import pl.cbdd.complaintapi.config.ComplaintProperties;
+import pl.cbdd.complaintapi.dto.ExportFilter;
+import pl.cbdd.complaintapi.dto.ExportFormat;
+import pl.cbdd.complaintapi.mapper.ComplaintMapper;
+import pl.cbdd.complaintapi.model.Complaint;
+import pl.cbdd.complaintapi.repository.ComplaintRepository;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertAll;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({ComplaintExportService.class, ComplaintMapper.class})
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@EnableConfigurationProperties(ComplaintProperties.class)
+class ComplaintExportServiceTest {
+
+    @Autowired
+    private ComplaintExportService complaintExportService;
+
+    @Autowired
+    private ComplaintRepository complaintRepository;
+
+    @Autowired
+    private ComplaintProperties properties;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void tearDown() {
+        complaintRepository.deleteAll();
+        properties.getExport().setFetchSize(1000);
+    }
+
+    @Test
+    void shouldExportNdjsonInIdOrderAndResumeAfterLastId() throws Exception {
+        properties.getExport().setFetchSize(2);
+        List<Complaint> saved = List.of(
+                save("product-1", "Broken", "Poland", Instant.parse("2024-01-01T10:00:00Z")),
+                save("product-2", "Late", "Germany", Instant.parse("2024-01-02T10:00:00Z")),
+                save("product-3", "Missing", "Poland", Instant.parse("2024-01-03T10:00:00Z")));
+
+        List<String> lines = export(new ExportFilter(null, null, null, null), ExportFormat.NDJSON);
+        String lastOfFirstTwo = lines.get(1).substring(7, 43);
+        List<String> resumed = export(new ExportFilter(UUID.fromString(lastOfFirstTwo), null, null, null), ExportFormat.NDJSON);
+
+        assertAll(
+                () -> assertThat(lines).hasSize(3),
+                () -> assertThat(lines).allMatch(line -> line.startsWith("{\"id\":\"")),
+                () -> assertThat(lines).extracting(line -> line.substring(7, 43)).isSorted()
+                        .containsExactlyInAnyOrderElementsOf(saved.stream().map(c -> c.getId().toString()).toList()),
+                () -> assertThat(resumed).containsExactly(lines.get(2))
+        );
+    }
+
+    @Test
+    void shouldExportFilteredCsvWithQuotedFields() throws Exception {
+        Complaint quoted = save("product-1", "Broken, \"badly\"", "Poland", Instant.parse("2024-01-02T10:00:00Z"));
+        save("product-1", "Too old", "Poland", Instant.parse("2023-12-31T10:00:00Z"));
+        save("product-2", "Other product", "Poland", Instant.parse("2024-01-02T10:00:00Z"));
+
+        List<String> lines = export(new ExportFilter(null, "product-1", "Poland", Instant.parse("2024-01-01T00:00:00Z")),
+                ExportFormat.CSV);
+
+        assertThat(lines).containsExactly(
+                ComplaintExportService.CSV_HEADER,
+                quoted.getId() + ",product-1,\"Broken, \"\"badly\"\"\",2024-01-02T10:00:00Z," + quoted.getReporter() + ",Poland,1");
+    }
+
+    private List<String> export(ExportFilter filter, ExportFormat format) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        complaintExportService.export(filter, format, out);
+        return out.toString(StandardCharsets.UTF_8).lines().toList();
+    }
+
+    private Complaint save(String productId, String content, String country, Instant createdAt) {
+        Complaint complaint = complaintRepository.save(Complaint.builder()
+                .productId(productId)
+                .content(content)
+                .reporter("reporter-" + content.length())
+                .country(country)
+                .modifiedAt(Timestamp.from(createdAt))
+                .reportCount(1)
+                .build());
+        jdbcTemplate.update("UPDATE complaints SET created_at = ? WHERE id = ?", Timestamp.from(createdAt), complaint.getId());
+        return complaint;
+    }
+}
@@ -0,0 +1,95 @@
+package pl.cbdd.complaintapi.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import pl.cbdd.complaintapi.cache.ComplaintResponseCache;
+import pl.cbdd.complaintapi.dto.ComplaintResponse;
+import pl.cbdd.complaintapi.dto.ComplaintWindowResponse;
+import pl.cbdd.complaintapi.exception.InvalidCursorException;
+import pl.cbdd.complaintapi.mapper.ComplaintMapper;
+import pl.cbdd.complaintapi.model.Complaint;
+import pl.cbdd.complaintapi.repository.ComplaintRepository;
+import pl.cbdd.complaintapi.search.ComplaintSearchIndex;
+import pl.cbdd.complaintapi.stats.ComplaintStatistics;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({ComplaintServiceImpl.class, ComplaintMapper.class})
+class ComplaintScrollTest {
+
+    @Autowired
+    private ComplaintService complaintService;
+
+    @Autowired
+    private ComplaintRepository complaintRepository;
+
+    @MockBean
+    private ReportCountBuffer reportCountBuffer;
+
+    @MockBean
+    private ComplaintResponseCache complaintResponseCache;
+
+    @MockBean
+    private ComplaintStatistics complaintStatistics;
+
+    @MockBean
+    private ComplaintSearchIndex complaintSearchIndex;
+
+    @MockBean
+    private ComplaintClusterService complaintClusterService;
+
+    @Test
+    void shouldVisitEveryComplaintOnceNewestFirst() {
+        for (int i = 0; i < 25; i++) {
+            complaintRepository.save(Complaint.builder()
+                    .productId("product-" + i)
+                    .content("content")
+                    .reporter("John Doe")
+                    .country("Poland")
+                    .reportCount(1)
+                    .modifiedAt(Timestamp.from(Instant.now()))
+                    .build());
+        }
+
+        List<ComplaintResponse> visited = new ArrayList<>();
+        ComplaintWindowResponse window = complaintService.scrollComplaints(null, 10);
+        visited.addAll(window.getContent());
+        while (window.isHasNext()) {
+            window = complaintService.scrollComplaints(window.getNextCursor(), 10);
+            visited.addAll(window.getContent());
+        }
+
+        assertThat(visited).hasSize(25);
+        assertThat(visited).extracting(ComplaintResponse::getId).doesNotHaveDuplicates();
+        assertThat(visited).isSortedAccordingTo(Comparator.comparing(ComplaintResponse::getCreatedAt).reversed());
+        assertThat(window.getNextCursor()).isNull();
+        assertThat(visited).extracting(ComplaintResponse::getId).isSortedAccordingTo(Comparator.reverseOrder());
+    }
+
+    @Test
+    void shouldRoundTripCursor() {
+        ComplaintCursor cursor = new ComplaintCursor(Timestamp.valueOf("2024-05-01 10:15:30.123456789"), UUID.randomUUID());
+
+        assertThat(ComplaintCursor.decode(cursor.encode())).isEqualTo(cursor);
+    }
+
+    @Test
+    void shouldRejectMalformedCursor() {
+        assertThatThrownBy(() -> complaintService.scrollComplaints("not-a-cursor", 10))
+                .isInstanceOf(InvalidCursorException.class);
+    }
+}
@@ -0,0 +1,111 @@
+package pl.cbdd.complaintapi.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import pl.cbdd.complaintapi.config.ComplaintProperties;
+import pl.cbdd.complaintapi.dto.ComplaintResponse;
+import pl.cbdd.complaintapi.dto.ComplaintWindowResponse;
+import pl.cbdd.complaintapi.exception.InvalidSearchQueryException;
+import pl.cbdd.complaintapi.mapper.ComplaintMapper;
+import pl.cbdd.complaintapi.model.Complaint;
+import pl.cbdd.complaintapi.repository.ComplaintRepository;
+import pl.cbdd.complaintapi.search.ComplaintSearchIndex;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({ComplaintSearchService.class, ComplaintSearchIndex.class, ComplaintMapper.class})
+@EnableConfigurationProperties(ComplaintProperties.class)
+class ComplaintSearchServiceTest {
+
+    @Autowired
+    private ComplaintSearchService complaintSearchService;
+
+    @Autowired
+    private ComplaintSearchIndex complaintSearchIndex;
+
+    @Autowired
+    private ComplaintRepository complaintRepository;
+
+    @AfterEach
+    void tearDown() {
+        complaintRepository.deleteAll();
+    }
+
+    @Test
+    void shouldUseInProcessIndexWithoutPostgres() {
+        assertThat(complaintSearchIndex.isEnabled()).isTrue();
+    }
+
+    @Test
+    void shouldFilterByProductAndCountry() {
+        Complaint match = save("product-1", "Poland", "Battery overheating");
+        save("product-2", "Poland", "Battery overheating");
+        save("product-1", "Germany", "Battery overheating");
+        save("product-1", "Poland", "Cracked screen");
+
+        ComplaintWindowResponse window = complaintSearchService.search("battery", "product-1", "Poland", null, 10);
+
+        assertAll(
+                () -> assertThat(window.getContent()).extracting(ComplaintResponse::getId).containsExactly(match.getId()),
+                () -> assertThat(window.isHasNext()).isFalse()
+        );
+    }
+
+    @Test
+    void shouldVisitEveryHitOnceAcrossPages() {
+        List<Complaint> saved = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            saved.add(save("product-" + i, "Poland", "Overheating " + "charger ".repeat(i % 3)));
+        }
+
+        List<ComplaintResponse> visited = new ArrayList<>();
+        String cursor = null;
+        do {
+            ComplaintWindowResponse window = complaintSearchService.search("overheating", null, null, cursor, 10);
+            visited.addAll(window.getContent());
+            cursor = window.getNextCursor();
+        } while (cursor != null);
+
+        assertAll(
+                () -> assertThat(visited).extracting(ComplaintResponse::getId)
+                        .containsExactlyInAnyOrderElementsOf(saved.stream().map(Complaint::getId).toList()),
+                () -> assertThat(visited.get(0).getContent()).isEqualTo("Overheating ")
+        );
+    }
+
+    @Test
+    void shouldRejectQueryWithoutWords() {
+        assertThrows(InvalidSearchQueryException.class, () -> complaintSearchService.search(" ?! ", null, null, null, 10));
+    }
+
+    private Complaint save(String productId, String country, String content) {
+        Complaint complaint = complaintRepository.save(Complaint.builder()
+                .productId(productId)
+                .content(content)
+                .reporter("reporter-" + UUID.randomUUID())
+                .country(country)
+                .modifiedAt(Timestamp.from(Instant.now()))
+                .reportCount(1)
+                .build());
+        complaintSearchIndex.index(complaint);
+        return complaint;
+    }
+}
@@ -5,15 +5,21 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.modelmapper.ModelMapper;
+import pl.cbdd.complaintapi.cache.ComplaintResponseCache;
+import pl.cbdd.complaintapi.config.ComplaintProperties;
 import pl.cbdd.complaintapi.dto.ComplaintRequest;
 import pl.cbdd.complaintapi.dto.ComplaintResponse;
 import pl.cbdd.complaintapi.dto.UpdateComplaintRequest;
 import pl.cbdd.complaintapi.exception.ComplaintCreationException;
 import pl.cbdd.complaintapi.exception.ComplaintNotFoundException;
+import pl.cbdd.complaintapi.exception.ComplaintPreconditionFailedException;
+import pl.cbdd.complaintapi.mapper.ComplaintMapper;
 import pl.cbdd.complaintapi.model.Complaint;
 import pl.cbdd.complaintapi.repository.ComplaintRepository;
+import pl.cbdd.complaintapi.search.ComplaintSearchIndex;
+import pl.cbdd.complaintapi.stats.ComplaintStatistics;
 
 import java.sql.Timestamp;
 import java.time.Instant;
@@ -24,6 +30,7 @@ import java.util.UUID;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertAll;
@@ -37,8 +44,23 @@ class ComplaintServiceImplTest {
     @Mock
     private ComplaintRepository complaintRepository;
 
+    @Spy
+    private ComplaintMapper complaintMapper;
+
+    @Mock
+    private ReportCountBuffer reportCountBuffer;
+
+    @Spy
+    private ComplaintResponseCache complaintResponseCache = new ComplaintResponseCache(new ComplaintProperties());
+
+    @Mock
+    private ComplaintStatistics complaintStatistics;
+
+    @Mock
+    private ComplaintSearchIndex complaintSearchIndex;
+
     @Mock
-    private ModelMapper modelMapper;
+    private ComplaintClusterService complaintClusterService;
 
     @InjectMocks
     private ComplaintServiceImpl complaintService;
@@ -73,78 +95,106 @@ class ComplaintServiceImplTest {
 
     @Test
     void shouldAddNewComplaintWhenNoExistingComplaint() {
-        when(complaintRepository.findByProductIdAndReporter(anyString(), anyString())).thenReturn(Optional.empty());
-        when(complaintRepository.save(any(Complaint.class))).thenAnswer(invocation -> {
-            Complaint savedComplaint = invocation.getArgument(0);
-            savedComplaint.setId(complaintId);
-            return savedComplaint;
-        });
-        when(modelMapper.map(any(Complaint.class), eq(ComplaintResponse.class))).thenReturn(new ComplaintResponse());
+        when(complaintRepository.upsertReport(any(Complaint.class))).thenReturn(complaint);
 
         ComplaintResponse response = complaintService.addComplaint(complaintRequest);
 
         assertAll(
                 () -> assertThat(response).isNotNull(),
-                () -> verify(complaintRepository).save(any(Complaint.class))
+                () -> verify(complaintRepository).upsertReport(argThat(toSave ->
+                        toSave.getProductId().equals("prod1")
+                                && toSave.getReporter().equals("reporter@example.com")
+                                && toSave.getContent().equals("New complaint content")
+                                && toSave.getCountry().equals("Poland")
+                                && toSave.getReportCount() == 1))
         );
     }
 
     @Test
     void shouldIncrementReportCountWhenComplaintExists() {
-        when(complaintRepository.findByProductIdAndReporter(anyString(), anyString())).thenReturn(Optional.of(complaint));
-        when(complaintRepository.findById(any(UUID.class))).thenReturn(Optional.of(complaint));
-        when(modelMapper.map(any(Complaint.class), eq(ComplaintResponse.class))).thenReturn(new ComplaintResponse());
+        complaint.setReportCount(2);
+        when(complaintRepository.upsertReport(any(Complaint.class))).thenReturn(complaint);
 
         ComplaintResponse response = complaintService.addComplaint(complaintRequest);
 
         assertAll(
-                () -> assertThat(response).isNotNull(),
-                () -> assertThat(complaint.getReportCount()).isEqualTo(2),
-                () -> verify(complaintRepository).save(complaint)
+                () -> assertThat(response.getReportCount()).isEqualTo(2),
+                () -> verify(complaintRepository).upsertReport(any(Complaint.class))
         );
     }
 
     @Test
     void shouldThrowExceptionWhenSavingComplaintFails() {
-        when(complaintRepository.findByProductIdAndReporter(anyString(), anyString())).thenReturn(Optional.empty());
-        when(complaintRepository.save(any(Complaint.class))).thenThrow(new RuntimeException("Database error"));
+        when(complaintRepository.upsertReport(any(Complaint.class))).thenThrow(new RuntimeException("Database error"));
 
         ComplaintCreationException exception = assertThrows(ComplaintCreationException.class, () -> complaintService.addComplaint(complaintRequest));
 
         assertAll(
                 () -> assertThat(exception.getMessage()).contains("Failed to add complaint"),
-                () -> verify(complaintRepository).save(any(Complaint.class))
+                () -> verify(complaintRepository).upsertReport(any(Complaint.class))
         );
     }
 
+    @Test
+    void shouldNotWrapConnectionPoolExhaustion() {
+        CannotGetJdbcConnectionException poolExhausted = new CannotGetJdbcConnectionException("Connection is not available");
+        when(complaintRepository.upsertReport(any(Complaint.class))).thenThrow(poolExhausted);
+
+        CannotGetJdbcConnectionException exception = assertThrows(CannotGetJdbcConnectionException.class,
+                () -> complaintService.addComplaint(complaintRequest));
+
+        assertThat(exception).isSameAs(poolExhausted);
+    }
+
     @Test
     void shouldNotCreateNewComplaintWhenDuplicateExists() {
-        when(complaintRepository.findByProductIdAndReporter(anyString(), anyString())).thenReturn(Optional.of(complaint));
-        when(complaintRepository.findById(any(UUID.class))).thenReturn(Optional.of(complaint));
-        when(modelMapper.map(any(Complaint.class), eq(ComplaintResponse.class))).thenReturn(new ComplaintResponse());
+        complaint.setReportCount(2);
+        when(complaintRepository.upsertReport(any(Complaint.class))).thenReturn(complaint);
 
         ComplaintResponse response = complaintService.addComplaint(complaintRequest);
 
         assertAll(
                 () -> assertThat(response).isNotNull(),
-                () -> assertThat(complaint.getReportCount()).isEqualTo(2),
-                () -> verify(complaintRepository).save(complaint)
+                () -> verify(complaintRepository, never()).save(any(Complaint.class)),
+                () -> verify(complaintRepository, never()).findByProductIdAndReporter(anyString(), anyString()),
+                () -> verify(complaintRepository, never()).findById(any(UUID.class))
+        );
+    }
+
+    @Test
+    void shouldAnswerBufferedRepeatWithoutDatabaseWrite() {
+        complaint.setReportCount(7);
+        when(reportCountBuffer.recordRepeat("prod1", "reporter@example.com")).thenReturn(Optional.of(complaint));
+
+        ComplaintResponse response = complaintService.addComplaint(complaintRequest);
+
+        assertAll(
+                () -> assertThat(response).isNotNull(),
+                () -> verify(complaintRepository, never()).upsertReport(any(Complaint.class))
         );
     }
 
+    @Test
+    void shouldTrackUpsertedComplaintInReportBuffer() {
+        when(complaintRepository.upsertReport(any(Complaint.class))).thenReturn(complaint);
+
+        complaintService.addComplaint(complaintRequest);
+
+        verify(reportCountBuffer).track(complaint);
+    }
+
     @Test
     void shouldThrowExceptionWhenComplaintNotFound() {
         when(complaintRepository.findById(any(UUID.class))).thenReturn(Optional.empty());
 
-        assertThrows(ComplaintNotFoundException.class, () -> complaintService.updateComplaint(updateComplaintRequest));
+        assertThrows(ComplaintNotFoundException.class, () -> complaintService.updateComplaint(updateComplaintRequest, null));
     }
 
     @Test
     void shouldUpdateComplaintContent() {
         when(complaintRepository.findById(any(UUID.class))).thenReturn(Optional.of(complaint));
-        when(modelMapper.map(any(Complaint.class), eq(ComplaintResponse.class))).thenReturn(new ComplaintResponse());
 
-        ComplaintResponse response = complaintService.updateComplaint(updateComplaintRequest);
+        ComplaintResponse response = complaintService.updateComplaint(updateComplaintRequest, null);
 
         assertAll(
                 () -> assertThat(response).isNotNull(),
@@ -158,7 +208,7 @@ class ComplaintServiceImplTest {
         when(complaintRepository.findById(any(UUID.class))).thenReturn(Optional.of(complaint));
         when(complaintRepository.save(any(Complaint.class))).thenThrow(new RuntimeException("Database error"));
 
-        RuntimeException exception = assertThrows(RuntimeException.class, () -> complaintService.updateComplaint(updateComplaintRequest));
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> complaintService.updateComplaint(updateComplaintRequest, null));
 
         assertAll(
                 () -> assertThat(exception.getMessage()).contains("Database error"),
@@ -166,6 +216,59 @@ class ComplaintServiceImplTest {
         );
     }
 
+    @Test
+    void shouldServeRepeatReadsFromCache() {
+        when(complaintRepository.findById(complaintId)).thenReturn(Optional.of(complaint));
+
+        ComplaintResponse first = complaintService.getComplaint(complaintId);
+        ComplaintResponse second = complaintService.getComplaint(complaintId);
+
+        assertAll(
+                () -> assertThat(second).isSameAs(first),
+                () -> assertThat(complaintResponseCache.stats().hitCount()).isEqualTo(1),
+                () -> verify(complaintRepository, times(1)).findById(complaintId)
+        );
+    }
+
+    @Test
+    void shouldEvictCachedComplaintWhenUpdatedOrReported() {
+        when(complaintRepository.findById(complaintId)).thenReturn(Optional.of(complaint));
+        when(complaintRepository.upsertReport(any(Complaint.class))).thenReturn(complaint);
+
+        complaintService.getComplaint(complaintId);
+        complaintService.updateComplaint(updateComplaintRequest, null);
+        ComplaintResponse afterUpdate = complaintService.getComplaint(complaintId);
+        complaintService.addComplaint(complaintRequest);
+        complaintService.getComplaint(complaintId);
+
+        assertAll(
+                () -> assertThat(afterUpdate.getContent()).isEqualTo("Updated content"),
+                () -> assertThat(complaintResponseCache.stats().hitCount()).isZero(),
+                () -> verify(complaintRepository, times(4)).findById(complaintId)
+        );
+    }
+
+    @Test
+    void shouldRejectUpdateWhenExpectedVersionIsOutdated() {
+        complaint.setVersion(4L);
+        when(complaintRepository.findById(any(UUID.class))).thenReturn(Optional.of(complaint));
+
+        assertThrows(ComplaintPreconditionFailedException.class, () -> complaintService.updateComplaint(updateComplaintRequest, 3L));
+
+        verify(complaintRepository, never()).save(any(Complaint.class));
+    }
+
+    @Test
+    void shouldAnswerVersionFromCacheWithoutQuery() {
+        complaint.setVersion(2L);
+        when(complaintRepository.findById(complaintId)).thenReturn(Optional.of(complaint));
+        complaintService.getComplaint(complaintId);
+
+        assertThat(complaintService.findComplaintVersion(complaintId)).contains(2L);
+
+        verify(complaintRepository, never()).findVersionById(any(UUID.class));
+    }
+
     @Test
     void shouldThrowExceptionWhenGettingNonExistentComplaint() {
         when(complaintRepository.findById(any(UUID.class))).thenReturn(Optional.empty());
@@ -188,7 +291,6 @@ class ComplaintServiceImplTest {
     @Test
     void shouldReturnAllComplaintsWhenTheyExist() {
         when(complaintRepository.findAll(any(Pageable.class))).thenReturn(new PageImpl<>(List.of(complaint)));
-        when(modelMapper.map(any(Complaint.class), eq(ComplaintResponse.class))).thenReturn(new ComplaintResponse());
 
         Page<ComplaintResponse> response = complaintService.getAllComplaints(Pageable.unpaged());
 
@@ -201,11 +303,10 @@ class ComplaintServiceImplTest {
     @Test
     void shouldNotUpdateComplaintWhenContentIsNull() {
         when(complaintRepository.findById(any(UUID.class))).thenReturn(Optional.of(complaint));
-        when(modelMapper.map(any(Complaint.class), eq(ComplaintResponse.class))).thenReturn(new ComplaintResponse());
 
         updateComplaintRequest.setContent(null);
 
-        ComplaintResponse response = complaintService.updateComplaint(updateComplaintRequest);
+        ComplaintResponse response = complaintService.updateComplaint(updateComplaintRequest, null);
 
         assertAll(
                 () -> assertThat(response).isNotNull(),
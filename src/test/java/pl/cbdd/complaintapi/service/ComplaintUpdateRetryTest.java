@@ -0,0 +1,77 @@
+package pl.cbdd.complaintapi.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.context.ActiveProfiles;
+import pl.cbdd.complaintapi.dto.ComplaintResponse;
+import pl.cbdd.complaintapi.dto.UpdateComplaintRequest;
+import pl.cbdd.complaintapi.model.Complaint;
+import pl.cbdd.complaintapi.repository.ComplaintRepository;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ComplaintUpdateRetryTest {
+
+    @Autowired
+    private ComplaintService complaintService;
+
+    @MockBean
+    private ComplaintRepository complaintRepository;
+
+    private final UUID id = UUID.randomUUID();
+
+    @Test
+    void shouldRetryUpdateAfterOptimisticLockConflict() {
+        when(complaintRepository.findById(id)).thenAnswer(invocation -> Optional.of(complaint()));
+        when(complaintRepository.save(any(Complaint.class)))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Complaint.class, id))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        ComplaintResponse response = complaintService.updateComplaint(request(), null);
+
+        assertThat(response.getContent()).isEqualTo("new content");
+        verify(complaintRepository, times(2)).findById(id);
+    }
+
+    @Test
+    void shouldGiveUpAfterMaxAttempts() {
+        when(complaintRepository.findById(id)).thenAnswer(invocation -> Optional.of(complaint()));
+        when(complaintRepository.save(any(Complaint.class)))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Complaint.class, id));
+
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> complaintService.updateComplaint(request(), null));
+        verify(complaintRepository, times(3)).findById(id);
+    }
+
+    private Complaint complaint() {
+        return Complaint.builder()
+                .id(id)
+                .version(0L)
+                .productId("product-1")
+                .content("old content")
+                .reporter("John Doe")
+                .country("Poland")
+                .reportCount(1)
+                .build();
+    }
+
+    private UpdateComplaintRequest request() {
+        UpdateComplaintRequest request = new UpdateComplaintRequest();
+        request.setId(id.toString());
+        request.setContent("new content");
+        return request;
+    }
+}
@@ -0,0 +1,112 @@
+package pl.cbdd.complaintapi.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.env.MockEnvironment;
+import pl.cbdd.complaintapi.cache.ComplaintResponseCache;
+import pl.cbdd.complaintapi.config.GeoLocationProperties;
+import pl.cbdd.complaintapi.dto.ComplaintResponse;
+import pl.cbdd.complaintapi.repository.ComplaintRepository;
+import pl.cbdd.complaintapi.stats.ComplaintStatistics;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static pl.cbdd.complaintapi.service.CountryEnrichmentService.PENDING_COUNTRY;
+
+@ExtendWith(MockitoExtension.class)
+class CountryEnrichmentServiceTest {
+
+    @Mock
+    private CountryResolver countryResolver;
+
+    @Mock
+    private ComplaintRepository complaintRepository;
+
+    @Mock
+    private ComplaintResponseCache complaintResponseCache;
+
+    @Mock
+    private ComplaintStatistics complaintStatistics;
+
+    @Mock
+    private ReportCountBuffer reportCountBuffer;
+
+    private GeoLocationProperties properties;
+    private CountryEnrichmentService enrichmentService;
+
+    @BeforeEach
+    void setUp() {
+        properties = new GeoLocationProperties();
+        enrichmentService = new CountryEnrichmentService(countryResolver, complaintRepository, complaintResponseCache,
+                reportCountBuffer, complaintStatistics, properties,
+                new MockEnvironment());
+    }
+
+    @Test
+    void shouldResolveEachIpOnceAndUpdateByCountry() {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        UUID third = UUID.randomUUID();
+        when(countryResolver.resolveCountry("1.1.1.1")).thenReturn("Poland");
+        when(countryResolver.resolveCountry("2.2.2.2")).thenReturn("Germany");
+
+        enrichmentService.enrich(List.of(
+                new CountryEnrichmentService.EnrichmentTask(first, "1.1.1.1", System.currentTimeMillis()),
+                new CountryEnrichmentService.EnrichmentTask(second, "1.1.1.1", System.currentTimeMillis()),
+                new CountryEnrichmentService.EnrichmentTask(third, "2.2.2.2", System.currentTimeMillis())));
+
+        assertAll(
+                () -> verify(countryResolver).resolveCountry("1.1.1.1"),
+                () -> verify(complaintRepository).updatePendingCountry(List.of(first, second), "Poland", PENDING_COUNTRY),
+                () -> verify(complaintRepository).updatePendingCountry(List.of(third), "Germany", PENDING_COUNTRY),
+                () -> verify(complaintResponseCache).evictAll(List.of(first, second)),
+                () -> verify(complaintResponseCache).evictAll(List.of(third)),
+                () -> verify(reportCountBuffer).invalidateAll(List.of(first, second))
+        );
+    }
+
+    @Test
+    void shouldReportNoLagOnceQueueIsEmpty() {
+        when(countryResolver.resolveCountry("1.1.1.1")).thenReturn("Poland");
+
+        enrichmentService.enrich(List.of(new CountryEnrichmentService.EnrichmentTask(UUID.randomUUID(), "1.1.1.1",
+                System.currentTimeMillis() - 60_000)));
+
+        assertThat(enrichmentService.lag()).isZero();
+    }
+
+    @Test
+    void shouldIgnoreComplaintsThatAreNotPending() {
+        ComplaintResponse complaint = new ComplaintResponse();
+        complaint.setId(UUID.randomUUID());
+        complaint.setCountry("Poland");
+
+        enrichmentService.enqueue(complaint, "1.1.1.1");
+
+        verifyNoInteractions(countryResolver, complaintRepository);
+    }
+
+    @Test
+    void shouldEnrichInBackgroundWhenAsyncEnabled() throws InterruptedException {
+        properties.getEnrichment().setAsync(true);
+        when(countryResolver.resolveCountry("1.1.1.1")).thenReturn("Poland");
+        enrichmentService.start();
+
+        ComplaintResponse complaint = new ComplaintResponse();
+        complaint.setId(UUID.randomUUID());
+        complaint.setCountry(PENDING_COUNTRY);
+        enrichmentService.enqueue(complaint, "1.1.1.1");
+
+        verify(complaintRepository, timeout(2000)).updatePendingCountry(List.of(complaint.getId()), "Poland", PENDING_COUNTRY);
+        enrichmentService.stop();
+        assertThat(enrichmentService.backlog()).isZero();
+    }
+}
@@ -0,0 +1,182 @@
+package pl.cbdd.complaintapi.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import pl.cbdd.complaintapi.cache.GeoLocationCache;
+import pl.cbdd.complaintapi.geoip.OfflineGeoIpDatabase;
+import pl.cbdd.complaintapi.metrics.GeoLocationMetrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CountryResolverTest {
+
+    @Mock
+    private GeoLocationService geoLocationService;
+
+    @Mock
+    private GeoLocationCache geoLocationCache;
+
+    @Mock
+    private OfflineGeoIpDatabase offlineGeoIpDatabase;
+
+    @Spy
+    private GeoLocationMetrics geoLocationMetrics = new GeoLocationMetrics(new SimpleMeterRegistry());
+
+    @InjectMocks
+    private CountryResolver countryResolver;
+
+    @Test
+    void shouldReturnCachedCountryWithoutCallingApi() {
+        when(geoLocationCache.get("1.1.1.1")).thenReturn("Poland");
+
+        String country = countryResolver.resolveCountry("1.1.1.1");
+
+        assertAll(
+                () -> assertThat(country).isEqualTo("Poland"),
+                () -> verify(geoLocationService, never()).getCountryByIp(anyString())
+        );
+    }
+
+    @Test
+    void shouldCallApiAndCacheResultOnMiss() {
+        when(geoLocationService.getCountryByIp("1.1.1.1")).thenReturn("Poland");
+
+        String country = countryResolver.resolveCountry("1.1.1.1");
+
+        assertAll(
+                () -> assertThat(country).isEqualTo("Poland"),
+                () -> verify(geoLocationCache).put("1.1.1.1", "Poland")
+        );
+    }
+
+    @Test
+    void shouldPreferOfflineDatabaseWhenEnabled() {
+        when(offlineGeoIpDatabase.isEnabled()).thenReturn(true);
+        when(offlineGeoIpDatabase.lookup("1.1.1.1")).thenReturn("Australia");
+
+        String country = countryResolver.resolveCountry("1.1.1.1");
+
+        assertAll(
+                () -> assertThat(country).isEqualTo("Australia"),
+                () -> verifyNoInteractions(geoLocationService, geoLocationCache)
+        );
+    }
+
+    @Test
+    void shouldFallBackToApiOnOfflineMiss() {
+        when(offlineGeoIpDatabase.isEnabled()).thenReturn(true);
+        when(geoLocationService.getCountryByIp("1.1.1.1")).thenReturn("Poland");
+
+        String country = countryResolver.resolveCountry("1.1.1.1");
+
+        assertThat(country).isEqualTo("Poland");
+    }
+
+    @Test
+    void shouldCoalesceConcurrentLookupsForSameIp() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(geoLocationService.getCountryByIp("1.1.1.1")).thenAnswer(invocation -> {
+            release.await();
+            return "Poland";
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                results.add(executor.submit(() -> countryResolver.resolveCountry("1.1.1.1")));
+            }
+            await(() -> countryResolver.coalescedLookups() == 3);
+            release.countDown();
+
+            for (Future<String> result : results) {
+                assertThat(result.get(2, TimeUnit.SECONDS)).isEqualTo("Poland");
+            }
+            verify(geoLocationService, times(1)).getCountryByIp("1.1.1.1");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void shouldShareFailureWithCoalescedCallers() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(geoLocationService.getCountryByIp("1.1.1.1")).thenAnswer(invocation -> {
+            release.await();
+            throw new IllegalStateException("API failure");
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<String> first = executor.submit(() -> countryResolver.resolveCountry("1.1.1.1"));
+            Future<String> second = executor.submit(() -> countryResolver.resolveCountry("1.1.1.1"));
+            await(() -> countryResolver.coalescedLookups() == 1);
+            release.countDown();
+
+            assertAll(
+                    () -> assertThat(assertThrows(ExecutionException.class, () -> first.get(2, TimeUnit.SECONDS)))
+                            .hasCauseInstanceOf(IllegalStateException.class),
+                    () -> assertThat(assertThrows(ExecutionException.class, () -> second.get(2, TimeUnit.SECONDS)))
+                            .hasCauseInstanceOf(IllegalStateException.class),
+                    () -> verify(geoLocationService, times(1)).getCountryByIp("1.1.1.1"),
+                    () -> verify(geoLocationCache, never()).put(anyString(), anyString())
+            );
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void shouldReleaseCoalescedCallersWhenLookupThrowsError() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(geoLocationService.getCountryByIp("1.1.1.1")).thenAnswer(invocation -> {
+            release.await();
+            throw new NoClassDefFoundError("com/example/GeoClient");
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<String> first = executor.submit(() -> countryResolver.resolveCountry("1.1.1.1"));
+            Future<String> second = executor.submit(() -> countryResolver.resolveCountry("1.1.1.1"));
+            await(() -> countryResolver.coalescedLookups() == 1);
+            release.countDown();
+
+            assertAll(
+                    () -> assertThat(assertThrows(ExecutionException.class, () -> first.get(2, TimeUnit.SECONDS)))
+                            .hasCauseInstanceOf(NoClassDefFoundError.class),
+                    () -> assertThat(assertThrows(ExecutionException.class, () -> second.get(2, TimeUnit.SECONDS)))
+                            .hasCauseInstanceOf(NoClassDefFoundError.class)
+            );
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 2000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(condition.getAsBoolean()).isTrue();
+    }
+}
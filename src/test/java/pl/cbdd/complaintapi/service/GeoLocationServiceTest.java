@@ -5,7 +5,10 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 import org.springframework.web.client.RestTemplate;
+import pl.cbdd.complaintapi.config.GeoLocationProperties;
+import pl.cbdd.complaintapi.metrics.GeoLocationMetrics;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.anyString;
@@ -21,6 +24,12 @@ class GeoLocationServiceTest {
     @Mock
     private GeoLocationResponse geoLocationResponse;
 
+    @Mock
+    private GeoLocationMetrics geoLocationMetrics;
+
+    @Spy
+    private GeoLocationProperties geoLocationProperties = new GeoLocationProperties();
+
     @InjectMocks
     private GeoLocationService geoLocationService;
 
@@ -39,6 +48,18 @@ class GeoLocationServiceTest {
         assertEquals("Poland", country);
     }
 
+    @Test
+    void shouldCallConfiguredBaseUrl() {
+        geoLocationProperties.getHttp().setBaseUrl("http://localhost:8089");
+        doReturn("Poland").when(geoLocationResponse).getCountry();
+        when(restTemplate.getForObject("http://localhost:8089/json/127.0.0.1?fields=country", GeoLocationResponse.class))
+                .thenReturn(geoLocationResponse);
+
+        String country = geoLocationService.getCountryByIp("127.0.0.1");
+
+        assertEquals("Poland", country);
+    }
+
     @Test
     void shouldReturnUnknownWhenNoCountryInResponse() {
         doReturn(null).when(geoLocationResponse).getCountry();
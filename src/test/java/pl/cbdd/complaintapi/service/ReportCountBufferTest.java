@@ -0,0 +1,196 @@
+package pl.cbdd.complaintapi.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import pl.cbdd.complaintapi.cache.ComplaintResponseCache;
+import pl.cbdd.complaintapi.config.ComplaintProperties;
+import pl.cbdd.complaintapi.dto.ComplaintResponse;
+import pl.cbdd.complaintapi.model.Complaint;
+import pl.cbdd.complaintapi.model.ComplaintKey;
+import pl.cbdd.complaintapi.repository.ComplaintRepository;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReportCountBufferTest {
+
+    private static final ComplaintKey KEY = new ComplaintKey("prod1", "reporter@example.com");
+
+    @Mock
+    private ComplaintRepository complaintRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ComplaintProperties properties;
+    private ComplaintResponseCache complaintResponseCache;
+    private ReportCountBuffer buffer;
+
+    @BeforeEach
+    void setUp() {
+        properties = new ComplaintProperties();
+        properties.getReportBuffer().setEnabled(true);
+        complaintResponseCache = new ComplaintResponseCache(properties);
+        buffer = new ReportCountBuffer(complaintRepository, new TransactionTemplate(transactionManager),
+                complaintResponseCache, properties);
+    }
+
+    @Test
+    void shouldNotBufferNewComplaints() {
+        buffer.track(complaint(1));
+
+        assertThat(buffer.recordRepeat(KEY.productId(), KEY.reporter())).isEmpty();
+    }
+
+    @Test
+    void shouldCountRepeatsInMemoryUntilFlush() {
+        buffer.track(complaint(2));
+
+        buffer.recordRepeat(KEY.productId(), KEY.reporter());
+        Complaint third = buffer.recordRepeat(KEY.productId(), KEY.reporter()).orElseThrow();
+
+        assertAll(
+                () -> assertThat(third.getReportCount()).isEqualTo(4),
+                () -> assertThat(buffer.pendingReports()).isEqualTo(2),
+                () -> verifyNoInteractions(complaintRepository)
+        );
+    }
+
+    @Test
+    void shouldFlushAccumulatedDeltaInOneBatch() {
+        buffer.track(complaint(2));
+        buffer.recordRepeat(KEY.productId(), KEY.reporter());
+        buffer.recordRepeat(KEY.productId(), KEY.reporter());
+
+        buffer.flush();
+        Complaint afterFlush = buffer.recordRepeat(KEY.productId(), KEY.reporter()).orElseThrow();
+
+        assertAll(
+                () -> verify(complaintRepository).incrementReportCounts(Map.of(KEY, 2L)),
+                () -> assertThat(afterFlush.getReportCount()).isEqualTo(5),
+                () -> assertThat(buffer.pendingReports()).isEqualTo(1)
+        );
+    }
+
+    @Test
+    void shouldEvictComplaintsCachedBeforeTheirCountsWereFlushed() {
+        Complaint complaint = complaint(2);
+        buffer.track(complaint);
+        buffer.recordRepeat(KEY.productId(), KEY.reporter());
+        complaintResponseCache.evict(complaint.getId());
+        ComplaintResponse beforeFlush = complaintResponseCache.get(complaint.getId(), id -> response(complaint, 2));
+
+        buffer.flush();
+        ComplaintResponse afterFlush = complaintResponseCache.get(complaint.getId(), id -> response(complaint, 3));
+
+        assertAll(
+                () -> assertThat(beforeFlush.getReportCount()).isEqualTo(2),
+                () -> assertThat(afterFlush.getReportCount()).isEqualTo(3)
+        );
+    }
+
+    @Test
+    void shouldKeepPendingReportsWhenFlushFails() {
+        buffer.track(complaint(2));
+        buffer.recordRepeat(KEY.productId(), KEY.reporter());
+        doThrow(new IllegalStateException("Database down")).when(complaintRepository).incrementReportCounts(anyMap());
+
+        buffer.flush();
+
+        assertThat(buffer.pendingReports()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldDropIdleComplaintsAfterFlush() {
+        properties.getReportBuffer().setIdleTimeout(Duration.ZERO);
+        buffer.track(complaint(2));
+        buffer.recordRepeat(KEY.productId(), KEY.reporter());
+
+        buffer.flush();
+
+        assertAll(
+                () -> verify(complaintRepository).incrementReportCounts(Map.of(KEY, 1L)),
+                () -> assertThat(buffer.bufferedComplaints()).isZero(),
+                () -> assertThat(buffer.recordRepeat(KEY.productId(), KEY.reporter())).isEmpty()
+        );
+    }
+
+    @Test
+    void shouldReplaceSnapshotWhenNoFlushRanSinceTheRowWasRead() {
+        buffer.track(complaint(2));
+        buffer.recordRepeat(KEY.productId(), KEY.reporter());
+        long flushMark = buffer.flushMark();
+
+        buffer.refresh(complaint(5), flushMark);
+
+        assertThat(buffer.recordRepeat(KEY.productId(), KEY.reporter()).orElseThrow().getReportCount()).isEqualTo(7);
+    }
+
+    @Test
+    void shouldStopBufferingWhenFlushRanSinceTheRowWasRead() {
+        buffer.track(complaint(2));
+        buffer.recordRepeat(KEY.productId(), KEY.reporter());
+        long flushMark = buffer.flushMark();
+        buffer.flush();
+        buffer.recordRepeat(KEY.productId(), KEY.reporter());
+
+        buffer.refresh(complaint(5), flushMark);
+        // Retired entries get one more flush interval for in-flight reports, like idle ones.
+        buffer.flush();
+        buffer.flush();
+
+        assertAll(
+                () -> assertThat(buffer.recordRepeat(KEY.productId(), KEY.reporter())).isEmpty(),
+                () -> verify(complaintRepository, times(2)).incrementReportCounts(Map.of(KEY, 1L))
+        );
+    }
+
+    @Test
+    void shouldWritePendingReportsOfInvalidatedComplaint() {
+        Complaint complaint = complaint(2);
+        buffer.track(complaint);
+        buffer.recordRepeat(KEY.productId(), KEY.reporter());
+
+        buffer.invalidateAll(List.of(complaint.getId()));
+        buffer.flush();
+        buffer.flush();
+
+        assertAll(
+                () -> assertThat(buffer.recordRepeat(KEY.productId(), KEY.reporter())).isEmpty(),
+                () -> verify(complaintRepository).incrementReportCounts(Map.of(KEY, 1L))
+        );
+    }
+
+    private static ComplaintResponse response(Complaint complaint, int reportCount) {
+        ComplaintResponse response = new ComplaintResponse();
+        response.setId(complaint.getId());
+        response.setProductId(complaint.getProductId());
+        response.setReporter(complaint.getReporter());
+        response.setReportCount(reportCount);
+        return response;
+    }
+
+    private static Complaint complaint(int reportCount) {
+        return Complaint.builder()
+                .id(UUID.randomUUID())
+                .productId(KEY.productId())
+                .reporter(KEY.reporter())
+                .content("Broken on arrival")
+                .country("Poland")
+                .reportCount(reportCount)
+                .build();
+    }
+}
@@ -0,0 +1,148 @@
+package pl.cbdd.complaintapi.similarity;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import pl.cbdd.complaintapi.config.ComplaintProperties;
+import pl.cbdd.complaintapi.model.Complaint;
+import pl.cbdd.complaintapi.repository.ComplaintRepository;
+
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class ComplaintSimilarityIndexTest {
+
+    private static final String REPORT = "The battery of my phone gets very hot while charging overnight and the case "
+            + "starts to bulge after a few days of normal use";
+
+    @Mock
+    private ComplaintRepository complaintRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ComplaintProperties properties;
+    private ComplaintSimilarityIndex index;
+
+    @BeforeEach
+    void setUp() {
+        properties = new ComplaintProperties();
+        properties.getSimilarity().setEnabled(true);
+        index = new ComplaintSimilarityIndex(complaintRepository, transactionManager, properties);
+    }
+
+    @Test
+    void shouldJoinClusterOfRewordedComplaint() {
+        UUID first = UUID.randomUUID();
+        index.add(complaint(first, "product-1", REPORT));
+
+        UUID reworded = UUID.randomUUID();
+        UUID cluster = index.add(complaint(reworded, "product-1", REPORT.replace("very hot", "really hot")));
+
+        assertAll(
+                () -> assertThat(cluster).isEqualTo(first),
+                () -> assertThat(index.similar(reworded, "product-1", 10))
+                        .singleElement()
+                        .satisfies(match -> {
+                            assertThat(match.id()).isEqualTo(first);
+                            assertThat(match.similarity()).isGreaterThan(0.5);
+                        }),
+                () -> assertThat(index.clusters("product-1", 2, 10))
+                        .singleElement()
+                        .satisfies(c -> assertThat(c.complaintIds()).containsExactly(first, reworded))
+        );
+    }
+
+    @Test
+    void shouldKeepUnrelatedComplaintsAndOtherProductsApart() {
+        UUID first = UUID.randomUUID();
+        index.add(complaint(first, "product-1", REPORT));
+
+        UUID unrelated = UUID.randomUUID();
+        UUID otherProduct = UUID.randomUUID();
+
+        assertAll(
+                () -> assertThat(index.add(complaint(unrelated, "product-1", "The parcel arrived two weeks late "
+                        + "and the box was torn open"))).isEqualTo(unrelated),
+                () -> assertThat(index.add(complaint(otherProduct, "product-2", REPORT))).isEqualTo(otherProduct),
+                () -> assertThat(index.clusters(null, 2, 10)).isEmpty(),
+                () -> assertThat(index.clusters(null, 1, 10)).hasSize(3)
+        );
+    }
+
+    @Test
+    void shouldKeepStoredClusterId() {
+        UUID stored = UUID.randomUUID();
+        UUID id = UUID.randomUUID();
+        Complaint complaint = complaint(id, "product-1", REPORT);
+        complaint.setClusterId(stored);
+
+        assertThat(index.add(complaint)).isEqualTo(stored);
+    }
+
+    @Test
+    void shouldKeepClusterWhenContentIsReplaced() {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        index.add(complaint(first, "product-1", REPORT));
+        index.add(complaint(second, "product-1", REPORT));
+
+        UUID cluster = index.add(complaint(second, "product-1", "Completely different text about a missing charger"));
+
+        assertAll(
+                () -> assertThat(cluster).isEqualTo(first),
+                () -> assertThat(index.similar(second, "product-1", 10)).isEmpty()
+        );
+    }
+
+    @Test
+    void shouldRebuildInReadOnlyTransaction() {
+        Complaint complaint = complaint(UUID.randomUUID(), "product-1", REPORT);
+        doAnswer(invocation -> {
+            invocation.<Consumer<Complaint>>getArgument(2).accept(complaint);
+            return null;
+        }).when(complaintRepository).streamComplaints(any(), anyInt(), any());
+
+        index.rebuild();
+
+        assertAll(
+                () -> assertThat(index.size()).isEqualTo(1),
+                () -> verify(transactionManager).getTransaction(argThat(TransactionDefinition::isReadOnly))
+        );
+    }
+
+    @Test
+    void shouldStopIndexingNewComplaintsWhenFull() {
+        properties.getSimilarity().setMaxComplaints(1);
+        UUID first = UUID.randomUUID();
+        index.add(complaint(first, "product-1", REPORT));
+
+        UUID second = UUID.randomUUID();
+        UUID cluster = index.add(complaint(second, "product-1", REPORT));
+        UUID replaced = index.add(complaint(first, "product-1", REPORT.replace("very hot", "really hot")));
+
+        assertAll(
+                () -> assertThat(cluster).isEqualTo(second),
+                () -> assertThat(replaced).isEqualTo(first),
+                () -> assertThat(index.size()).isEqualTo(1),
+                () -> assertThat(index.similar(second, "product-1", 10)).isEmpty()
+        );
+    }
+
+    private static Complaint complaint(UUID id, String productId, String content) {
+        return Complaint.builder().id(id).productId(productId).content(content).build();
+    }
+}
@@ -0,0 +1,122 @@
+package pl.cbdd.complaintapi.sql;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.QueryType;
+import net.ttddyy.dsproxy.listener.MethodExecutionContext;
+import net.ttddyy.dsproxy.listener.MethodExecutionListener;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.listener.QueryUtils;
+
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Records the JDBC statements that reach the proxied data source between {@link #start()} and
+ * {@link #stop()}, from Hibernate and {@code JdbcTemplate} alike. Rows are the update count of a write and
+ * the rows read from the result set of a query.
+ */
+public class SqlStatementRecorder implements QueryExecutionListener, MethodExecutionListener {
+
+    private List<SqlStatement> statements;
+    private SqlStatement lastQuery;
+
+    public synchronized void start() {
+        statements = new ArrayList<>();
+        lastQuery = null;
+    }
+
+    public synchronized SqlStatements stop() {
+        SqlStatements recorded = new SqlStatements(List.copyOf(statements));
+        statements = null;
+        lastQuery = null;
+        return recorded;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public synchronized void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        if (statements == null) {
+            return;
+        }
+        for (QueryInfo queryInfo : queryInfoList) {
+            String sql = queryInfo.getQuery();
+            SqlStatement statement = new SqlStatement(QueryUtils.getQueryType(sql), sql,
+                    execInfo.isBatch() ? execInfo.getBatchSize() : 1);
+            statement.rows = updateCount(execInfo.getResult());
+            statements.add(statement);
+            if (statement.type == QueryType.SELECT) {
+                lastQuery = statement;
+            }
+        }
+    }
+
+    @Override
+    public void beforeMethod(MethodExecutionContext executionContext) {
+    }
+
+    @Override
+    public synchronized void afterMethod(MethodExecutionContext executionContext) {
+        if (lastQuery != null && executionContext.getTarget() instanceof ResultSet
+                && "next".equals(executionContext.getMethod().getName())
+                && Boolean.TRUE.equals(executionContext.getResult())) {
+            lastQuery.rows++;
+        }
+    }
+
+    private static long updateCount(Object result) {
+        if (result instanceof Number count) {
+            return Math.max(count.longValue(), 0);
+        }
+        long rows = 0;
+        if (result instanceof int[] counts) {
+            for (int count : counts) {
+                rows += Math.max(count, 0);
+            }
+        } else if (result instanceof long[] counts) {
+            for (long count : counts) {
+                rows += Math.max(count, 0);
+            }
+        }
+        return rows;
+    }
+
+    public static final class SqlStatement {
+
+        private final QueryType type;
+        private final String sql;
+        private final int batchSize;
+        private long rows;
+
+        private SqlStatement(QueryType type, String sql, int batchSize) {
+            this.type = type;
+            this.sql = sql;
+            this.batchSize = batchSize;
+        }
+
+        public QueryType type() {
+            return type;
+        }
+
+        public String sql() {
+            return sql;
+        }
+
+        public int batchSize() {
+            return batchSize;
+        }
+
+        public long rows() {
+            return rows;
+        }
+
+        @Override
+        public String toString() {
+            return type + " (" + rows + " rows" + (batchSize > 1 ? ", batch of " + batchSize : "") + "): " + sql;
+        }
+    }
+}
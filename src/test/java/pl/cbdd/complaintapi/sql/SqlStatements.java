@@ -0,0 +1,32 @@
+package pl.cbdd.complaintapi.sql;
+
+import net.ttddyy.dsproxy.QueryType;
+import pl.cbdd.complaintapi.sql.SqlStatementRecorder.SqlStatement;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Statements recorded for one request. Each statement is one round trip; a JDBC batch counts once.
+ */
+public record SqlStatements(List<SqlStatement> statements) {
+
+    public int count() {
+        return statements.size();
+    }
+
+    public int count(QueryType type) {
+        return (int) statements.stream().filter(statement -> statement.type() == type).count();
+    }
+
+    public long rows(QueryType type) {
+        return statements.stream().filter(statement -> statement.type() == type).mapToLong(SqlStatement::rows).sum();
+    }
+
+    @Override
+    public String toString() {
+        return statements.isEmpty()
+                ? "no statements"
+                : statements.stream().map(SqlStatement::toString).collect(Collectors.joining("\n  ", count() + " statements:\n  ", ""));
+    }
+}
@@ -0,0 +1,141 @@
+package pl.cbdd.complaintapi.stats;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import pl.cbdd.complaintapi.config.ComplaintProperties;
+import pl.cbdd.complaintapi.dto.ComplaintStatsResponse;
+import pl.cbdd.complaintapi.repository.ComplaintRepository;
+import pl.cbdd.complaintapi.repository.ComplaintStatsRepository.TotalsConsumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.verify;
+import static pl.cbdd.complaintapi.service.CountryEnrichmentService.PENDING_COUNTRY;
+
+@ExtendWith(MockitoExtension.class)
+class ComplaintStatisticsTest {
+
+    @Mock
+    private ComplaintRepository complaintRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ComplaintProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        properties = new ComplaintProperties();
+        properties.getStats().setTopProducts(3);
+    }
+
+    @Test
+    void shouldCountComplaintsAndReportsPerCountry() {
+        ComplaintStatistics statistics = new ComplaintStatistics(complaintRepository, transactionManager, properties);
+
+        statistics.recordReports("product-1", "Poland", 1, true);
+        statistics.recordReports("product-1", "Poland", 1, false);
+        statistics.recordReports("product-2", "Germany", 4, true);
+
+        ComplaintStatsResponse stats = statistics.snapshot();
+        assertAll(
+                () -> assertThat(stats.getTotalComplaints()).isEqualTo(2),
+                () -> assertThat(stats.getTotalReports()).isEqualTo(6),
+                () -> assertThat(stats.getCountries()).extracting(ComplaintStatsResponse.CountryStats::getCountry)
+                        .containsExactly("Germany", "Poland"),
+                () -> assertThat(stats.getCountries().get(1).getComplaints()).isEqualTo(1),
+                () -> assertThat(stats.getCountries().get(1).getReports()).isEqualTo(2)
+        );
+    }
+
+    @Test
+    void shouldCountNewAndDuplicateReportsEvenWhenDisabled() {
+        properties.getStats().setEnabled(false);
+        ComplaintStatistics statistics = new ComplaintStatistics(complaintRepository, transactionManager, properties);
+
+        statistics.recordReports("product-1", "Poland", 1, true);
+        statistics.recordReports("product-1", "Poland", 1, false);
+        statistics.recordReports("product-2", "Germany", 4, true);
+
+        assertAll(
+                () -> assertThat(statistics.createdComplaints()).isEqualTo(2),
+                () -> assertThat(statistics.duplicateReports()).isEqualTo(4),
+                () -> assertThat(statistics.snapshot().getTotalReports()).isZero()
+        );
+    }
+
+    @Test
+    void shouldTrackMostReportedProductsAmongManyOthers() {
+        ComplaintStatistics statistics = new ComplaintStatistics(complaintRepository, transactionManager, properties);
+
+        for (int i = 0; i < 50_000; i++) {
+            statistics.recordReports("product-" + i, "Poland", 1, true);
+            if (i % 100 == 0) {
+                statistics.recordReports("hot-1", "Poland", 30, false);
+                statistics.recordReports("hot-2", "Poland", 20, false);
+                statistics.recordReports("hot-3", "Poland", 10, false);
+            }
+        }
+
+        ComplaintStatsResponse stats = statistics.snapshot();
+        assertAll(
+                () -> assertThat(stats.getTopProducts()).extracting(ComplaintStatsResponse.ProductStats::getProductId)
+                        .containsExactly("hot-1", "hot-2", "hot-3"),
+                () -> assertThat(stats.getTopProducts().get(0).getReports()).isBetween(15_000L, 15_000L + 50)
+        );
+    }
+
+    @Test
+    void shouldMovePendingComplaintsToResolvedCountry() {
+        ComplaintStatistics statistics = new ComplaintStatistics(complaintRepository, transactionManager, properties);
+        statistics.recordReports("product-1", PENDING_COUNTRY, 1, true);
+        statistics.recordReports("product-2", PENDING_COUNTRY, 1, true);
+
+        statistics.recordCountryResolved("Poland", 2);
+
+        ComplaintStatsResponse stats = statistics.snapshot();
+        assertAll(
+                () -> assertThat(stats.getCountries()).hasSize(1),
+                () -> assertThat(stats.getCountries().get(0).getCountry()).isEqualTo("Poland"),
+                () -> assertThat(stats.getCountries().get(0).getComplaints()).isEqualTo(2)
+        );
+    }
+
+    @Test
+    void shouldRebuildFromDatabaseAggregates() {
+        doAnswer(invocation -> {
+            TotalsConsumer consumer = invocation.getArgument(0);
+            consumer.accept("Poland", 2, 5);
+            consumer.accept("Germany", 1, 1);
+            return null;
+        }).when(complaintRepository).aggregateByCountry(any());
+        doAnswer(invocation -> {
+            TotalsConsumer consumer = invocation.getArgument(1);
+            consumer.accept("product-1", 2, 5);
+            consumer.accept("product-2", 1, 1);
+            return null;
+        }).when(complaintRepository).aggregateByProduct(anyInt(), any());
+        ComplaintStatistics statistics = new ComplaintStatistics(complaintRepository, transactionManager, properties);
+
+        statistics.rebuild();
+        statistics.recordReports("product-2", "Germany", 1, false);
+
+        ComplaintStatsResponse stats = statistics.snapshot();
+        assertAll(
+                () -> assertThat(stats.getTotalComplaints()).isEqualTo(3),
+                () -> assertThat(stats.getTotalReports()).isEqualTo(7),
+                () -> assertThat(stats.getTopProducts()).extracting(ComplaintStatsResponse.ProductStats::getReports)
+                        .containsExactly(5L, 2L),
+                () -> verify(transactionManager).getTransaction(argThat(TransactionDefinition::isReadOnly))
+        );
+    }
+}
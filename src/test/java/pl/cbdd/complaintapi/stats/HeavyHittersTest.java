@@ -0,0 +1,34 @@
+package pl.cbdd.complaintapi.stats;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HeavyHittersTest {
+
+    @Test
+    void shouldMergeStripesKeepingHighestEstimatePerKey() throws InterruptedException {
+        HeavyHitters heavyHitters = new HeavyHitters(2, 4);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            int offset = t;
+            threads.add(Thread.ofPlatform().start(() -> {
+                for (int i = 1; i <= 100; i++) {
+                    heavyHitters.offer("hot", i * 10L + offset);
+                    heavyHitters.offer("warm", i * 5L);
+                    heavyHitters.offer("cold-" + offset + "-" + i, 1);
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertThat(heavyHitters.top())
+                .containsExactly(Map.entry("hot", 1007L), Map.entry("warm", 500L));
+    }
+}